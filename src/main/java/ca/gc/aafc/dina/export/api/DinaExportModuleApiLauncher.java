@@ -5,8 +5,11 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 
 import ca.gc.aafc.dina.export.api.config.DataExportConfig;
+import ca.gc.aafc.dina.export.api.config.ExportExecutorsConfig;
+import ca.gc.aafc.dina.export.api.config.ExportJobQueueConfig;
 import ca.gc.aafc.dina.export.api.config.HttpClientConfig;
 import ca.gc.aafc.dina.export.api.config.ReportTemplateConfig;
+import ca.gc.aafc.dina.export.api.config.ScheduledExportConfig;
 
 /**
  * Launches the application.
@@ -15,7 +18,8 @@ import ca.gc.aafc.dina.export.api.config.ReportTemplateConfig;
 // invisible constructor, ignore the check style error for this case)
 @SpringBootApplication
 @EnableConfigurationProperties(value = {DataExportConfig.class, HttpClientConfig.class,
-  ReportTemplateConfig.class})
+  ReportTemplateConfig.class, ExportExecutorsConfig.class,
+  ExportJobQueueConfig.class, ScheduledExportConfig.class})
 public class DinaExportModuleApiLauncher {
   public static void main(String[] args) {
     SpringApplication.run(DinaExportModuleApiLauncher.class, args);
@@ -2,24 +2,26 @@ package ca.gc.aafc.dina.export.api;
 
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.toedter.spring.hateoas.jsonapi.JsonApiConfiguration;
 
 import ca.gc.aafc.dina.DinaBaseApiAutoConfiguration;
+import ca.gc.aafc.dina.export.api.async.BoundedExportExecutor;
+import ca.gc.aafc.dina.export.api.async.ExportExecutor;
+import ca.gc.aafc.dina.export.api.async.VirtualThreadExportExecutor;
+import ca.gc.aafc.dina.export.api.config.ExportExecutorsConfig;
 import ca.gc.aafc.dina.service.JaversDataService;
 
-import static ca.gc.aafc.dina.export.api.config.DataExportConfig.DINA_THREAD_POOL_BEAN_NAME;
-
-import java.util.concurrent.Executor;
+import static ca.gc.aafc.dina.export.api.config.DataExportConfig.OBJECT_ARCHIVE_EXECUTOR_BEAN_NAME;
+import static ca.gc.aafc.dina.export.api.config.DataExportConfig.REPORT_EXECUTOR_BEAN_NAME;
+import static ca.gc.aafc.dina.export.api.config.DataExportConfig.TABULAR_DATA_EXECUTOR_BEAN_NAME;
 
 @Configuration
 @ComponentScan(basePackageClasses = DinaBaseApiAutoConfiguration.class)
@@ -29,16 +31,29 @@ import java.util.concurrent.Executor;
 @EnableScheduling
 public class MainConfiguration {
 
-  @Bean(name = DINA_THREAD_POOL_BEAN_NAME)
-  @ConditionalOnMissingBean
-  public Executor threadPoolTaskExecutor() {
-    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-    executor.setCorePoolSize(5);
-    executor.setMaxPoolSize(15);
-    executor.setQueueCapacity(1000);
-    executor.setThreadNamePrefix("AsyncExecutor-");
-    executor.initialize();
-    return executor;
+  /**
+   * Each type of export gets its own executor (bulkhead) so a burst of one type can't starve the others.
+   */
+  @Bean(name = TABULAR_DATA_EXECUTOR_BEAN_NAME)
+  public ExportExecutor tabularDataExecutor(ExportExecutorsConfig executorsConfig) {
+    return createExportExecutor("TabularDataExecutor", executorsConfig.getTabularData());
+  }
+
+  @Bean(name = OBJECT_ARCHIVE_EXECUTOR_BEAN_NAME)
+  public ExportExecutor objectArchiveExecutor(ExportExecutorsConfig executorsConfig) {
+    return createExportExecutor("ObjectArchiveExecutor", executorsConfig.getObjectArchive());
+  }
+
+  @Bean(name = REPORT_EXECUTOR_BEAN_NAME)
+  public ExportExecutor reportExecutor(ExportExecutorsConfig executorsConfig) {
+    return createExportExecutor("ReportExecutor", executorsConfig.getReport());
+  }
+
+  private static ExportExecutor createExportExecutor(String name, ExportExecutorsConfig.ExecutorSettings settings) {
+    if (settings.isVirtualThreads()) {
+      return new VirtualThreadExportExecutor(name, settings);
+    }
+    return new BoundedExportExecutor(name, settings);
   }
 
   @Bean
@@ -5,6 +5,7 @@ import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
 import ca.gc.aafc.dina.export.api.config.ReportTemplateConfig;
+import ca.gc.aafc.dina.export.api.generator.OpenhtmltopdfGenerator;
 
 import freemarker.template.Configuration;
 import java.io.IOException;
@@ -23,6 +24,9 @@ public class StartupChecks {
   @Inject
   private Configuration freemarkerConfiguration;
 
+  @Inject
+  private OpenhtmltopdfGenerator pdfGenerator;
+
   @EventListener(ApplicationReadyEvent.class)
   public void onAppReady() {
     log.info("Template Folder:" + reportTemplateConfig.getTemplateFolder());
@@ -43,5 +47,15 @@ public class StartupChecks {
     }
     log.info("Template Folder writable?:" + Files.isWritable(path));
 
+    if (reportTemplateConfig.isPdfRendererWarmup()) {
+      long start = System.currentTimeMillis();
+      try {
+        pdfGenerator.warmup();
+        log.info("PDF renderer warmed up in {} ms", System.currentTimeMillis() - start);
+      } catch (IOException | RuntimeException e) {
+        // not fatal, the first report will simply be slower
+        log.warn("PDF renderer warmup failed", e);
+      }
+    }
   }
 }
@@ -0,0 +1,39 @@
+package ca.gc.aafc.dina.export.api.async;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import ca.gc.aafc.dina.export.api.config.ExportExecutorsConfig;
+
+/**
+ * {@link ThreadPoolTaskExecutor} with a bounded queue that keeps track of rejected tasks.
+ * When saturated, submitting a task will throw a {@link org.springframework.core.task.TaskRejectedException}.
+ */
+public class BoundedExportExecutor extends ThreadPoolTaskExecutor implements ExportExecutor {
+
+  private final String name;
+  private final int queueCapacity;
+  private final AtomicLong rejectedCount = new AtomicLong();
+
+  public BoundedExportExecutor(String name, ExportExecutorsConfig.ExecutorSettings settings) {
+    this.name = name;
+    this.queueCapacity = settings.getQueueCapacity();
+
+    setCorePoolSize(settings.getCorePoolSize());
+    setMaxPoolSize(settings.getMaxPoolSize());
+    setQueueCapacity(settings.getQueueCapacity());
+    setThreadNamePrefix(name + "-");
+    setRejectedExecutionHandler((r, executor) -> {
+      rejectedCount.incrementAndGet();
+      new ThreadPoolExecutor.AbortPolicy().rejectedExecution(r, executor);
+    });
+  }
+
+  @Override
+  public ExportExecutorStats getStats() {
+    return new ExportExecutorStats(name, getActiveCount(), getPoolSize(),
+      getThreadPoolExecutor().getQueue().size(), queueCapacity, rejectedCount.get());
+  }
+}
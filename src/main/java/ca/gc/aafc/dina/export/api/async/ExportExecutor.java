@@ -0,0 +1,12 @@
+package ca.gc.aafc.dina.export.api.async;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Executor dedicated to a type of export that can report its statistics.
+ */
+public interface ExportExecutor extends Executor {
+
+  ExportExecutorStats getStats();
+
+}
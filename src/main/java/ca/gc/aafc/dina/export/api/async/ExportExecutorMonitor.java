@@ -0,0 +1,37 @@
+package ca.gc.aafc.dina.export.api.async;
+
+import java.util.List;
+import lombok.extern.log4j.Log4j2;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes and periodically logs the statistics (queue depth, active threads, rejected tasks) of the export executors.
+ */
+@Component
+@Log4j2
+public class ExportExecutorMonitor {
+
+  private final List<ExportExecutor> exportExecutors;
+
+  public ExportExecutorMonitor(List<ExportExecutor> exportExecutors) {
+    this.exportExecutors = exportExecutors;
+  }
+
+  public List<ExportExecutorStats> getStats() {
+    return exportExecutors.stream().map(ExportExecutor::getStats).toList();
+  }
+
+  @Scheduled(fixedDelayString = "#{@exportExecutorsConfig.statsLogInterval.toMillis()}")
+  public void logStats() {
+    for (ExportExecutorStats stats : getStats()) {
+      // only log at info level when the executor is doing something
+      if (stats.activeCount() > 0 || stats.queueSize() > 0) {
+        log.info("{}", stats);
+      } else {
+        log.debug("{}", stats);
+      }
+    }
+  }
+}
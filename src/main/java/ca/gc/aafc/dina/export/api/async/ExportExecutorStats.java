@@ -0,0 +1,14 @@
+package ca.gc.aafc.dina.export.api.async;
+
+/**
+ * Point-in-time statistics of an export executor.
+ * @param name name of the executor
+ * @param activeCount number of tasks currently running
+ * @param poolSize current number of threads (or concurrency limit for executors not backed by a pool)
+ * @param queueSize number of tasks waiting
+ * @param queueCapacity maximum number of tasks waiting
+ * @param rejectedCount total number of tasks rejected since the executor was created
+ */
+public record ExportExecutorStats(String name, int activeCount, int poolSize, int queueSize,
+                                  int queueCapacity, long rejectedCount) {
+}
@@ -0,0 +1,178 @@
+package ca.gc.aafc.dina.export.api.async;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Fair queue of tasks across users.
+ * Users are served in round-robin, each user has its own FIFO queue. The total number of running tasks is limited
+ * to maxRunning and, optionally, the number of running tasks per user to maxRunningPerUser.
+ * Optionally, small tasks (based on their estimated cost) are served first, regardless of the user order.
+ *
+ * The scheduler doesn't run anything: {@link #poll()} returns the next task to run (if any) and
+ * {@link #done(String)} must be called when a task completes.
+ * Thread-safe.
+ *
+ * @param <T> type of task
+ */
+public class FairExportScheduler<T> {
+
+  // cost used when the cost of a task is unknown
+  public static final long UNKNOWN_COST = -1;
+
+  private final int maxRunning;
+  private final Integer maxRunningPerUser;
+  private final Long smallTaskMaxCost;
+  private final int capacity;
+
+  // iteration order is the round-robin order
+  private final LinkedHashMap<String, Deque<Entry<T>>> queuesByUser = new LinkedHashMap<>();
+  private final Map<String, Integer> runningByUser = new HashMap<>();
+
+  private int running;
+  private int waiting;
+
+  private record Entry<T>(String user, T task, long cost) {
+  }
+
+  /**
+   * @param maxRunning maximum number of tasks running
+   * @param maxRunningPerUser maximum number of tasks running for the same user. Optional.
+   * @param smallTaskMaxCost tasks with a known cost lower or equal are served first. Optional.
+   * @param capacity maximum number of tasks waiting
+   */
+  public FairExportScheduler(int maxRunning, Integer maxRunningPerUser, Long smallTaskMaxCost, int capacity) {
+    this.maxRunning = maxRunning;
+    this.maxRunningPerUser = maxRunningPerUser;
+    this.smallTaskMaxCost = smallTaskMaxCost;
+    this.capacity = capacity;
+  }
+
+  /**
+   * Adds a task to the queue of the user.
+   * @param user
+   * @param task
+   * @param cost estimated cost of the task or {@link #UNKNOWN_COST}
+   * @return false if the scheduler is at capacity
+   */
+  public synchronized boolean offer(String user, T task, long cost) {
+    if (waiting >= capacity) {
+      return false;
+    }
+    queuesByUser.computeIfAbsent(user, u -> new ArrayDeque<>()).addLast(new Entry<>(user, task, cost));
+    waiting++;
+    return true;
+  }
+
+  /**
+   * Returns the next task to run and counts it as running.
+   * @return the task or null if there is nothing that can run at the moment
+   */
+  public synchronized T poll() {
+    if (running >= maxRunning || waiting == 0) {
+      return null;
+    }
+
+    Entry<T> selected = smallTaskMaxCost != null ? findSmallTask() : null;
+    if (selected == null) {
+      for (Deque<Entry<T>> queue : queuesByUser.values()) {
+        if (isUnderUserLimit(queue.peekFirst().user())) {
+          selected = queue.peekFirst();
+          break;
+        }
+      }
+    }
+
+    if (selected == null) {
+      return null;
+    }
+
+    // remove and put back the user to move it at the end of the round-robin
+    Deque<Entry<T>> queue = queuesByUser.remove(selected.user());
+    queue.remove(selected);
+    if (!queue.isEmpty()) {
+      queuesByUser.put(selected.user(), queue);
+    }
+
+    waiting--;
+    running++;
+    runningByUser.merge(selected.user(), 1, Integer::sum);
+    return selected.task();
+  }
+
+  /**
+   * Must be called when a task returned by {@link #poll()} is completed.
+   * @param user
+   */
+  public synchronized void done(String user) {
+    running--;
+    runningByUser.computeIfPresent(user, (u, count) -> count > 1 ? count - 1 : null);
+  }
+
+  /**
+   * Removes the waiting tasks matching the predicate.
+   * @param predicate
+   * @return the removed tasks
+   */
+  public synchronized List<T> remove(Predicate<T> predicate) {
+    List<T> removed = new ArrayList<>();
+    Iterator<Deque<Entry<T>>> it = queuesByUser.values().iterator();
+    while (it.hasNext()) {
+      Deque<Entry<T>> queue = it.next();
+      queue.removeIf(e -> {
+        if (predicate.test(e.task())) {
+          removed.add(e.task());
+          return true;
+        }
+        return false;
+      });
+      if (queue.isEmpty()) {
+        it.remove();
+      }
+    }
+    waiting -= removed.size();
+    return removed;
+  }
+
+  /**
+   * @return the waiting tasks, in no specific order
+   */
+  public synchronized List<T> getWaiting() {
+    List<T> tasks = new ArrayList<>(waiting);
+    queuesByUser.values().forEach(queue -> queue.forEach(e -> tasks.add(e.task())));
+    return tasks;
+  }
+
+  public synchronized int getWaitingCount() {
+    return waiting;
+  }
+
+  public synchronized int getRunningCount() {
+    return running;
+  }
+
+  private boolean isUnderUserLimit(String user) {
+    return maxRunningPerUser == null || runningByUser.getOrDefault(user, 0) < maxRunningPerUser;
+  }
+
+  /**
+   * Finds the oldest small task in the round-robin order.
+   */
+  private Entry<T> findSmallTask() {
+    for (Deque<Entry<T>> queue : queuesByUser.values()) {
+      for (Entry<T> entry : queue) {
+        if (entry.cost() != UNKNOWN_COST && entry.cost() <= smallTaskMaxCost && isUnderUserLimit(entry.user())) {
+          return entry;
+        }
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,90 @@
+package ca.gc.aafc.dina.export.api.async;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ca.gc.aafc.dina.export.api.config.ExportExecutorsConfig;
+
+/**
+ * Executor starting a virtual thread per task.
+ * Since virtual threads are cheap, concurrency is limited by a {@link Semaphore} (maxPoolSize) instead of a pool.
+ * Tasks waiting for a permit are counted against queueCapacity, tasks submitted beyond that are rejected.
+ *
+ * Note: a virtual thread blocking inside a synchronized block pins its carrier thread.
+ */
+public class VirtualThreadExportExecutor implements ExportExecutor, AutoCloseable {
+
+  private final String name;
+  private final int maxConcurrency;
+  private final int queueCapacity;
+
+  private final ExecutorService executorService;
+  private final Semaphore permits;
+
+  private final AtomicInteger submittedCount = new AtomicInteger();
+  private final AtomicInteger activeCount = new AtomicInteger();
+  private final AtomicLong rejectedCount = new AtomicLong();
+
+  public VirtualThreadExportExecutor(String name, ExportExecutorsConfig.ExecutorSettings settings) {
+    this.name = name;
+    this.maxConcurrency = settings.getMaxPoolSize();
+    this.queueCapacity = settings.getQueueCapacity();
+
+    this.permits = new Semaphore(maxConcurrency, true);
+    this.executorService = Executors.newThreadPerTaskExecutor(
+      Thread.ofVirtual().name(name + "-", 1).factory());
+  }
+
+  @Override
+  public void execute(Runnable task) {
+    if (submittedCount.incrementAndGet() > maxConcurrency + queueCapacity) {
+      submittedCount.decrementAndGet();
+      rejectedCount.incrementAndGet();
+      throw new RejectedExecutionException(name + " is saturated");
+    }
+
+    try {
+      executorService.execute(() -> runWithPermit(task));
+    } catch (RejectedExecutionException reEx) {
+      // executor is shutting down
+      submittedCount.decrementAndGet();
+      rejectedCount.incrementAndGet();
+      throw reEx;
+    }
+  }
+
+  private void runWithPermit(Runnable task) {
+    try {
+      permits.acquire();
+    } catch (InterruptedException e) {
+      submittedCount.decrementAndGet();
+      Thread.currentThread().interrupt();
+      return;
+    }
+
+    activeCount.incrementAndGet();
+    try {
+      task.run();
+    } finally {
+      activeCount.decrementAndGet();
+      submittedCount.decrementAndGet();
+      permits.release();
+    }
+  }
+
+  @Override
+  public ExportExecutorStats getStats() {
+    int active = activeCount.get();
+    return new ExportExecutorStats(name, active, maxConcurrency,
+      Math.max(0, submittedCount.get() - active), queueCapacity, rejectedCount.get());
+  }
+
+  @Override
+  public void close() {
+    executorService.shutdown();
+  }
+}
@@ -5,6 +5,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.convert.DurationUnit;
 import org.springframework.http.MediaType;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.unit.DataSize;
 import org.springframework.validation.annotation.Validated;
 
 import ca.gc.aafc.dina.export.api.entity.DataExport;
@@ -32,10 +33,14 @@ import lombok.Setter;
 @Named("dataExportConfig")
 public class DataExportConfig {
 
-  public static final String DINA_THREAD_POOL_BEAN_NAME = "DinaThreadPoolTaskExecutor";
+  public static final String TABULAR_DATA_EXECUTOR_BEAN_NAME = "TabularDataExportExecutor";
+  public static final String OBJECT_ARCHIVE_EXECUTOR_BEAN_NAME = "ObjectArchiveExportExecutor";
+  public static final String REPORT_EXECUTOR_BEAN_NAME = "ReportExecutor";
 
   public static final String GENERATED_REPORTS_LABELS = "generated_reports_labels";
   public static final String GENERATED_DATA_EXPORTS = "generated_data_exports";
+  public static final String OBJECT_ARCHIVE_CACHE = "object_archive_cache";
+  public static final String REPORT_OUTPUT_CACHE = "output_cache";
 
   // represents the payload section of the JSON used for the report
   public static final String PAYLOAD_KEY = "payload";
@@ -47,10 +52,20 @@ public class DataExportConfig {
   public static final String PDF_REPORT_FILENAME = "report.pdf";
   public static final String CSV_REPORT_FILENAME = "report.csv";
   public static final String REPORT_FILENAME = "report";
+  // file converted to the report (e.g. html to pdf), must not start with REPORT_FILENAME
+  public static final String INTERMEDIATE_REPORT_FILENAME = "intermediate";
   public static final String TEMP_HTML = "report_1.html";
 
   public static final String OBJECT_STORE_TOA = "toa";
+  // optional, identity of the object in the object-store. Used to scope its ETag in the archive cache.
+  public static final String OBJECT_STORE_BUCKET = "bucket";
+  public static final String OBJECT_STORE_FILE_IDENTIFIER = "fileIdentifier";
   public static final String OBJECT_STORE_SOURCE = "object-store";
+  public static final String REPORT_SOURCE = "report-template";
+  public static final String REPORT_TEMPLATE_UUID = "reportTemplateUuid";
+  // path of the file containing the payload of the report request
+  public static final String REPORT_PAYLOAD_PATH = "payloadPath";
+  public static final String REPORT_PAYLOAD_FILENAME = "payload.json";
 
   @NotBlank
   private String workingFolder;
@@ -65,6 +80,40 @@ public class DataExportConfig {
   @DurationUnit(ChronoUnit.SECONDS)
   private Duration expiredExportMaxAge;
 
+  // maximum size of the object archive cache. The cache is disabled when not set.
+  private DataSize objectArchiveCacheMaxSize;
+
+  // minimum interval between checkpoints of a tabular export. Checkpoints are disabled when not set.
+  private Duration exportCheckpointInterval = Duration.ofMinutes(1);
+
+  // number of times an export will be resumed from its checkpoint after a failure
+  private int exportMaxResumeAttempts = 2;
+
+  // minimum interval between progress updates of a tabular export. Progress is not reported when not set.
+  private Duration exportProgressInterval = Duration.ofSeconds(5);
+
+  // interval between checks for running exports removed by another instance
+  private Duration exportCancellationCheckInterval = Duration.ofSeconds(30);
+
+  // pre-flight limits of tabular exports, not enforced when not set
+  private Long maxEstimatedRows;
+  private DataSize maxEstimatedSize;
+
+  // free space to keep in the working folder after an export
+  private DataSize minFreeDiskSpace;
+
+  // estimated average size of a single value, used to estimate the size of tabular exports
+  private int estimatedBytesPerValue = 32;
+
+  // window in which the result of an identical tabular export is reused. Disabled when not set.
+  private Duration exportReuseWindow;
+
+  // upper bound of an incremental export is now minus the lag to give time to recently changed documents to be indexed
+  private Duration incrementalExportLag = Duration.ofMinutes(1);
+
+  // maximum duration of a subscription to the events of exports
+  private Duration exportEventsTimeout = Duration.ofMinutes(30);
+
   public Path getGeneratedReportsLabelsPath() {
     return Path.of(workingFolder).resolve(GENERATED_REPORTS_LABELS);
   }
@@ -73,6 +122,14 @@ public class DataExportConfig {
     return Path.of(workingFolder).resolve(GENERATED_DATA_EXPORTS);
   }
 
+  public Path getObjectArchiveCachePath() {
+    return Path.of(workingFolder).resolve(OBJECT_ARCHIVE_CACHE);
+  }
+
+  public Path getReportOutputCachePath() {
+    return getGeneratedReportsLabelsPath().resolve(REPORT_OUTPUT_CACHE);
+  }
+
 
   public Optional<Path> getPathForDataExport(DataExport dataExport) {
 
@@ -97,6 +154,7 @@ public class DataExportConfig {
     return switch (type) {
       case TABULAR_DATA -> true;
       case OBJECT_ARCHIVE -> false;
+      case REPORT -> true;
     };
   }
 
@@ -0,0 +1,77 @@
+package ca.gc.aafc.dina.export.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import ca.gc.aafc.dina.export.api.entity.DataExport;
+
+import java.time.Duration;
+import javax.inject.Named;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Configuration of the executors dedicated to each type of export (bulkheads).
+ * Configured on DinaExportModuleApiLauncher
+ */
+@ConfigurationProperties(prefix = "dina.export.executors")
+@Getter
+@Setter
+@NoArgsConstructor
+@Named("exportExecutorsConfig")
+public class ExportExecutorsConfig {
+
+  /**
+   * What to do with an export when the executor is saturated (all threads busy and queue full).
+   * ERROR: the export status is set to ERROR
+   * REQUEUE: the export stays NEW and its submission is retried later
+   */
+  public enum RejectionPolicy { ERROR, REQUEUE }
+
+  // CPU-bound
+  private ExecutorSettings tabularData = new ExecutorSettings(4, 4, 50, RejectionPolicy.REQUEUE, false);
+
+  // network-bound
+  private ExecutorSettings objectArchive = new ExecutorSettings(8, 8, 200, RejectionPolicy.REQUEUE, false);
+
+  private ExecutorSettings report = new ExecutorSettings(2, 2, 20, RejectionPolicy.ERROR, false);
+
+  // delay between attempts to resubmit the exports rejected with the REQUEUE policy
+  private Duration requeueDelay = Duration.ofSeconds(10);
+
+  // interval between logs of the executors statistics
+  private Duration statsLogInterval = Duration.ofMinutes(1);
+
+  // maximum number of exports of the same user running concurrently (per export type). No limit when not set.
+  private Integer maxRunningPerUser;
+
+  // exports with an estimated number of rows lower or equal are scheduled first. Disabled when not set.
+  private Long smallExportMaxRows;
+
+  public ExecutorSettings getSettingsForExportType(DataExport.ExportType type) {
+    return switch (type) {
+      case TABULAR_DATA -> tabularData;
+      case OBJECT_ARCHIVE -> objectArchive;
+      case REPORT -> report;
+    };
+  }
+
+  /**
+   * Settings of a single executor.
+   * Note that the pool will only grow beyond corePoolSize when the queue is full.
+   * When virtualThreads is true, a virtual thread is started per task and maxPoolSize is the maximum
+   * number of tasks running concurrently (corePoolSize is ignored).
+   */
+  @Getter
+  @Setter
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class ExecutorSettings {
+    private int corePoolSize;
+    private int maxPoolSize;
+    private int queueCapacity;
+    private RejectionPolicy rejectionPolicy;
+    private boolean virtualThreads;
+  }
+}
@@ -0,0 +1,37 @@
+package ca.gc.aafc.dina.export.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import javax.inject.Named;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Configuration of the database-backed export job queue.
+ * Configured on DinaExportModuleApiLauncher
+ */
+@ConfigurationProperties(prefix = "dina.export.job-queue")
+@Getter
+@Setter
+@NoArgsConstructor
+@Named("exportJobQueueConfig")
+public class ExportJobQueueConfig {
+
+  private boolean enabled = false;
+
+  // identifies this instance as the owner of a lease, generated if not provided
+  private String instanceId;
+
+  // how long a lease is valid without heartbeat
+  private Duration leaseDuration = Duration.ofMinutes(2);
+
+  private Duration heartbeatInterval = Duration.ofSeconds(30);
+
+  private Duration pollInterval = Duration.ofSeconds(10);
+
+  // maximum number of exports claimed per poll
+  private int maxClaimsPerPoll = 2;
+
+}
@@ -5,13 +5,49 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 import ca.gc.aafc.dina.client.config.OpenIdConnectConfig;
 
+import java.time.Duration;
+
+/**
+ * Configuration of the internal http client used to contact other APIs.
+ * All the connection related settings are optional, the OkHttp defaults are used when not provided.
+ */
 @ConfigurationProperties(prefix = "http-client")
 @Getter
 @Setter
 @NoArgsConstructor
 public class HttpClientConfig extends OpenIdConnectConfig {
 
+  /**
+   * Maximum number of concurrent requests sent to the same host.
+   */
+  private Integer maxRequestsPerHost;
+
+  /**
+   * Maximum number of idle connections kept in the connection pool.
+   */
+  private Integer maxIdleConnections;
+
+  /**
+   * How long an idle connection is kept in the connection pool.
+   */
+  private Duration keepAlive;
+
+  private Duration connectTimeout;
+  private Duration readTimeout;
+  private Duration writeTimeout;
+
+  /**
+   * Size of the buffer used to copy the response body to disk.
+   */
+  private DataSize bufferSize;
+
+  /**
+   * Maximum number of attempts for a download (including the first one).
+   */
+  private Integer maxDownloadAttempts;
+
 }
@@ -5,6 +5,11 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Configured on DinaExportModuleApiLauncher
@@ -17,4 +22,63 @@ public class ReportTemplateConfig {
 
   private String templateFolder;
 
+  // maximum number of compiled templates strongly kept in the cache
+  private int templateCacheSize = 50;
+
+  // delay between checks of the template files for changes (Freemarker default).
+  // Templates are only reloaded right away on the instance that downloaded them, the others rely on this delay.
+  private Duration templateUpdateDelay = Duration.ofSeconds(5);
+
+  // watch the template folder to invalidate templates changed outside of the upload notifications
+  private boolean watchTemplateFolder = false;
+
+  // write the intermediate files (html, barcodes) of PDF reports to the report folder instead of keeping them in memory
+  private boolean keepIntermediateFiles = false;
+
+  // fonts loaded once and registered on every PDF rendering
+  private List<FontConfig> fonts = new ArrayList<>();
+
+  // render a small document at startup so the first report doesn't pay the initialization cost
+  private boolean pdfRendererWarmup = false;
+
+  // maximum number of font metrics kept in memory by the PDF renderer, 0 to disable the cache
+  private int pdfRendererCacheSize = 100;
+
+  // number of threads generating the barcodes of reports
+  private int barcodeThreads = Runtime.getRuntime().availableProcessors();
+
+  // maximum number of generated barcodes kept in memory, 0 to disable the cache
+  private int barcodeCacheSize = 1000;
+
+  // requests with more elements are generated asynchronously. Only on request when not set.
+  private Integer asyncElementThreshold;
+
+  // PDF reports with more elements are rendered in chunks of that many elements and merged. Disabled when not set.
+  // Should be a multiple of the number of labels per page.
+  private Integer pdfChunkSize;
+
+  // number of chunks rendered in parallel
+  private int pdfChunkThreads = 2;
+
+  // reports not requested again within that duration are removed from the output cache.
+  // The output cache is disabled when not set.
+  private Duration outputCacheTtl;
+
+  // maximum total size of the output cache, the least recently used reports are removed first
+  private DataSize outputCacheMaxSize = DataSize.ofGigabytes(1);
+
+  /**
+   * Font available to the templates under the provided family name.
+   */
+  @Getter
+  @Setter
+  @NoArgsConstructor
+  public static class FontConfig {
+    private String family;
+    // path to a TrueType font file
+    private String path;
+    private int weight = 400;
+    private boolean italic = false;
+  }
+
 }
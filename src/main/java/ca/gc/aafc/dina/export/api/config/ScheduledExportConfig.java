@@ -0,0 +1,57 @@
+package ca.gc.aafc.dina.export.api.config;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import javax.inject.Named;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Configuration of the exports scheduled by a DataExportTemplate cron schedule.
+ * Configured on DinaExportModuleApiLauncher
+ */
+@ConfigurationProperties(prefix = "dina.export.scheduled-exports")
+@Getter
+@Setter
+@NoArgsConstructor
+@Named("scheduledExportConfig")
+public class ScheduledExportConfig {
+
+  private boolean enabled = false;
+
+  private Duration pollInterval = Duration.ofMinutes(1);
+
+  // maximum number of templates handled per poll
+  private int maxRunsPerPoll = 10;
+
+  // a random delay up to maxJitter is added to each run to spread the start times
+  private Duration maxJitter = Duration.ofMinutes(5);
+
+  // time zone of the cron schedules and of the off-peak window, system default if not provided
+  private String timeZone;
+
+  // optional off-peak window (e.g. 22:00 to 06:00). Runs outside the window are moved to the start of the window.
+  private String offPeakStart;
+  private String offPeakEnd;
+
+  public ZoneId getZoneId() {
+    return StringUtils.isBlank(timeZone) ? ZoneId.systemDefault() : ZoneId.of(timeZone);
+  }
+
+  public boolean hasOffPeakWindow() {
+    return StringUtils.isNotBlank(offPeakStart) && StringUtils.isNotBlank(offPeakEnd);
+  }
+
+  public LocalTime getOffPeakStartTime() {
+    return LocalTime.parse(offPeakStart);
+  }
+
+  public LocalTime getOffPeakEndTime() {
+    return LocalTime.parse(offPeakEnd);
+  }
+}
@@ -53,6 +53,27 @@ public class DataExportDto implements ca.gc.aafc.dina.dto.JsonApiResource {
 
   private Map<String, DataExportFunction> functions;
 
+  // read-only, estimated on creation
+  private Long estimatedRowCount;
+  private Long estimatedSize;
+
+  // optional, the template's values are used for the attributes not provided
+  private UUID dataExportTemplateUuid;
+
+  // read-only, upper bound of an incremental export
+  private OffsetDateTime highWaterMark;
+
+  // read-only, set when the result of an identical export was reused
+  private UUID reusedFrom;
+
+  // read-only, progress of a running export
+  private Long rowsWritten;
+  private Integer pagesFetched;
+  private Long totalRows;
+  private Long bytesWritten;
+  private OffsetDateTime estimatedCompletionOn;
+  private OffsetDateTime progressUpdatedOn;
+
   @Override
   @JsonIgnore
   public String getJsonApiType() {
@@ -53,6 +53,18 @@ public class DataExportTemplateDto implements JsonApiResource {
 
   private Map<String, DataExportFunction> functions;
 
+  private String source;
+  private String query;
+  private String incrementalField;
+
+  // updated when an incremental export completes
+  private OffsetDateTime highWaterMark;
+
+  private String cronSchedule;
+
+  // read-only, computed from the cronSchedule
+  private OffsetDateTime nextRunOn;
+
   @Override
   @JsonIgnore
   public String getJsonApiType() {
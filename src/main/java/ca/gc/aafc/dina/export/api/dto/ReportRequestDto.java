@@ -32,6 +32,9 @@ public class ReportRequestDto implements ca.gc.aafc.dina.dto.JsonApiResource {
 
   private Map<String, Object> payload;
 
+  // generate the report asynchronously, the status is then available as a data-export
+  private Boolean async;
+
   @Override
   @JsonIgnore
   public String getJsonApiType() {
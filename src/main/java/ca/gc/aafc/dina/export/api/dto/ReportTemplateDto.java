@@ -53,9 +53,14 @@ public class ReportTemplateDto implements ca.gc.aafc.dina.dto.JsonApiResource {
 
   private String[] reportVariables;
 
+  private String[] csvHeaders;
+
   @Builder.Default
   private Boolean includesBarcode = false;
 
+  @Builder.Default
+  private ReportTemplate.BarcodeImageFormat barcodeImageFormat = ReportTemplate.BarcodeImageFormat.PNG;
+
   @Override
   @JsonIgnore
   public String getJsonApiType() {
@@ -41,7 +41,7 @@ import ca.gc.aafc.dina.export.api.config.DataExportFunction;
 public class DataExport implements DinaEntity {
 
   public enum ExportStatus { NEW, RUNNING, COMPLETED, EXPIRED, ERROR }
-  public enum ExportType { TABULAR_DATA, OBJECT_ARCHIVE }
+  public enum ExportType { TABULAR_DATA, OBJECT_ARCHIVE, REPORT }
 
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -126,6 +126,66 @@ public class DataExport implements DinaEntity {
   @Column
   private ExportStatus status;
 
+  /**
+   * Estimated number of rows (primary entity) computed on creation. Null if unknown.
+   */
+  @Column
+  private Long estimatedRowCount;
+
+  /**
+   * Estimated size in bytes computed on creation. Null if unknown.
+   */
+  @Column
+  private Long estimatedSize;
+
+  /**
+   * SHA-256 of the canonical form of the fields determining the content of the export.
+   * Used to reuse the result of an identical export.
+   */
+  @Size(max = 64)
+  @Column
+  private String fingerprint;
+
+  /**
+   * UUID of the {@link DataExportTemplate} the export was created from, if any.
+   */
+  @Column
+  private UUID dataExportTemplateUuid;
+
+  /**
+   * Upper bound (inclusive) of the incremental field for an incremental export.
+   * Becomes the high-water mark of the template once the export is completed.
+   */
+  @Column
+  private OffsetDateTime highWaterMark;
+
+  /**
+   * UUID of the export the result was reused from. Null if the export was generated.
+   */
+  @Column
+  private UUID reusedFrom;
+
+  /*
+   * Progress of the export. Only updated by DataExportProgressService while the export is running.
+   */
+  @Column(insertable = false, updatable = false)
+  private Long rowsWritten;
+
+  @Column(insertable = false, updatable = false)
+  private Integer pagesFetched;
+
+  @Column(insertable = false, updatable = false)
+  private Long totalRows;
+
+  @Column(insertable = false, updatable = false)
+  private Long bytesWritten;
+
+  @Column(insertable = false, updatable = false)
+  private OffsetDateTime estimatedCompletionOn;
+
+  @Column(insertable = false, updatable = false)
+  private OffsetDateTime progressUpdatedOn;
+
   @Transient
   private Map<String, String> transitiveData;
 
@@ -3,6 +3,7 @@ package ca.gc.aafc.dina.export.api.entity;
 import java.time.OffsetDateTime;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 import javax.persistence.Column;
@@ -12,10 +13,12 @@ import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.PostLoad;
 import javax.persistence.Transient;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -104,10 +107,89 @@ public class DataExportTemplate implements DinaEntity {
   @Column
   private Map<String, DataExportFunction> functions;
 
+  /**
+   * Source of the query (e.g. the ElasticSearch index). Used when the export doesn't provide one.
+   */
+  @Size(max = 100)
+  private String source;
+
+  /**
+   * Stored query. Used when the export doesn't provide one.
+   */
+  @Type(type = "jsonb")
+  @Column
+  private Map<String, Object> query;
+
+  /**
+   * Date field (e.g. data.attributes.modifiedOn) used for incremental exports.
+   * When set, an export created from the template only includes the documents changed since the last completed export.
+   */
+  @Size(max = 255)
+  @Column
+  private String incrementalField;
+
+  /**
+   * Upper bound of the last completed incremental export. Null if no incremental export completed yet.
+   */
+  @Column
+  private OffsetDateTime highWaterMark;
+
+  /**
+   * Optional cron expression (Spring format: second, minute, hour, day of month, month, day of week).
+   * When set, exports are created from the template on that schedule.
+   */
+  @Size(max = 100)
+  @Column
+  private String cronSchedule;
+
+  /**
+   * Next scheduled run, computed from the cronSchedule.
+   */
+  @Column
+  private OffsetDateTime nextRunOn;
+
+  /**
+   * cronSchedule as loaded, to know if it was changed by an update.
+   */
+  @Transient
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private String loadedCronSchedule;
+
+  /**
+   * nextRunOn as loaded, nextRunOn is read-only for clients.
+   */
+  @Transient
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private OffsetDateTime loadedNextRunOn;
+
   @Column(name = "created_on", insertable = false, updatable = false)
   @Generated(value = GenerationTime.INSERT)
   private OffsetDateTime createdOn;
 
+  @PostLoad
+  void onLoad() {
+    loadedCronSchedule = cronSchedule;
+    loadedNextRunOn = nextRunOn;
+  }
+
+  /**
+   * @return true if the cronSchedule is different from the one loaded (always true for a new template with a schedule)
+   */
+  @Transient
+  public boolean isCronScheduleChanged() {
+    return !Objects.equals(loadedCronSchedule, cronSchedule);
+  }
+
+  /**
+   * @return nextRunOn as loaded, ignoring any value set since
+   */
+  @Transient
+  public OffsetDateTime getLoadedNextRunOn() {
+    return loadedNextRunOn;
+  }
+
   /**
    * Return publiclyReleasable as Optional as defined by
    * {@link ca.gc.aafc.dina.entity.DinaEntity}.
@@ -36,6 +36,7 @@ import ca.gc.aafc.dina.i18n.MultilingualDescription;
 public class ReportTemplate implements DinaEntity {
 
   public enum ReportType { MATERIAL_SAMPLE_LABEL, STORAGE_LABEL }
+  public enum BarcodeImageFormat { PNG, SVG }
 
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -88,8 +89,19 @@ public class ReportTemplate implements DinaEntity {
   @Builder.Default
   private Boolean includesBarcode = false;
 
+  // format of the barcode images, SVG barcodes are drawn as vectors in the PDF
+  @Enumerated(EnumType.STRING)
+  @NotNull
+  @Builder.Default
+  private BarcodeImageFormat barcodeImageFormat = BarcodeImageFormat.PNG;
+
   @Type(type = "string-array")
   @Column
   private String[] reportVariables;
 
+  // headers always included in a CSV report, before the ones found in the first record
+  @Type(type = "string-array")
+  @Column
+  private String[] csvHeaders;
+
 }
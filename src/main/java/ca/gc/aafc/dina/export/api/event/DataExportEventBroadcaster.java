@@ -0,0 +1,174 @@
+package ca.gc.aafc.dina.export.api.event;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.log4j.Log4j2;
+
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes the status and progress events of exports to the subscribed {@link SseEmitter}.
+ * Events are sent once the transaction that published them is committed.
+ *
+ * An emitter is completed once all the exports it is subscribed to reached a terminal status, either from an event
+ * or from the snapshot sent on subscription.
+ */
+@Component
+@Log4j2
+public class DataExportEventBroadcaster {
+
+  public static final String STATUS_EVENT_NAME = "status";
+  public static final String PROGRESS_EVENT_NAME = "progress";
+
+  private final Map<UUID, Set<Subscription>> subscriptionsByExport = new ConcurrentHashMap<>();
+
+  /**
+   * Subscription of an emitter to one or more exports.
+   * @param emitter
+   * @param remaining exports that didn't reach a terminal status yet
+   * @param completed set once the emitter is completed so it's only completed once
+   */
+  record Subscription(SseEmitter emitter, Set<UUID> remaining, AtomicBoolean completed) {
+  }
+
+  /**
+   * Subscribes the emitter to the events of the exports.
+   * If the collection is empty, the emitter is completed.
+   * Subscribing must be done before reading the current state of the exports (see
+   * {@link #sendSnapshot(Subscription, DataExportStatusEvent, DataExportProgressEvent)}) so no change is missed.
+   * @param emitter
+   * @param uuids exports to follow
+   * @return the subscription
+   */
+  public Subscription subscribe(SseEmitter emitter, Collection<UUID> uuids) {
+    Subscription subscription = new Subscription(emitter, ConcurrentHashMap.newKeySet(), new AtomicBoolean());
+    if (uuids.isEmpty()) {
+      complete(subscription);
+      return subscription;
+    }
+
+    subscription.remaining().addAll(uuids);
+    for (UUID uuid : uuids) {
+      subscriptionsByExport.computeIfAbsent(uuid, k -> ConcurrentHashMap.newKeySet()).add(subscription);
+    }
+
+    Runnable cleanup = () -> unsubscribe(subscription);
+    emitter.onCompletion(cleanup);
+    emitter.onTimeout(cleanup);
+    emitter.onError(ex -> cleanup.run());
+    return subscription;
+  }
+
+  /**
+   * Sends the current state of an export, read after subscribing, to the subscriber.
+   * The same status could also be received from an event, clients should expect duplicates.
+   * If the status is terminal, the export is considered done for this subscription.
+   * @param subscription
+   * @param statusEvent current status
+   * @param progressEvent current progress or null if not available
+   */
+  public void sendSnapshot(Subscription subscription, DataExportStatusEvent statusEvent,
+                           DataExportProgressEvent progressEvent) {
+    if (progressEvent != null && !send(subscription, PROGRESS_EVENT_NAME, progressEvent)) {
+      return;
+    }
+    if (send(subscription, STATUS_EVENT_NAME, statusEvent) && statusEvent.isTerminal()) {
+      markDone(subscription, statusEvent.uuid());
+    }
+  }
+
+  /**
+   * Number of exports with at least one subscriber.
+   * @return
+   */
+  public int getSubscribedExportCount() {
+    return subscriptionsByExport.size();
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onStatusEvent(DataExportStatusEvent event) {
+    Set<Subscription> subscriptions = subscriptionsByExport.get(event.uuid());
+    if (subscriptions == null) {
+      return;
+    }
+
+    for (Subscription subscription : subscriptions) {
+      if (send(subscription, STATUS_EVENT_NAME, event) && event.isTerminal()) {
+        markDone(subscription, event.uuid());
+      }
+    }
+
+    if (event.isTerminal()) {
+      subscriptionsByExport.remove(event.uuid());
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onProgressEvent(DataExportProgressEvent event) {
+    Set<Subscription> subscriptions = subscriptionsByExport.get(event.uuid());
+    if (subscriptions == null) {
+      return;
+    }
+
+    for (Subscription subscription : subscriptions) {
+      send(subscription, PROGRESS_EVENT_NAME, event);
+    }
+  }
+
+  /**
+   * @return true if the event was sent, false if the client is gone or the emitter is already completed
+   */
+  private boolean send(Subscription subscription, String name, Object data) {
+    if (subscription.completed().get()) {
+      return false;
+    }
+    try {
+      subscription.emitter().send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+      return true;
+    } catch (IOException | IllegalStateException ex) {
+      log.debug("Can't send event to subscriber, removing it", ex);
+      unsubscribe(subscription);
+      if (subscription.completed().compareAndSet(false, true)) {
+        subscription.emitter().completeWithError(ex);
+      }
+      return false;
+    }
+  }
+
+  /**
+   * The export reached a terminal status for this subscription, completes the emitter if it was the last one.
+   */
+  private void markDone(Subscription subscription, UUID uuid) {
+    subscription.remaining().remove(uuid);
+    subscriptionsByExport.computeIfPresent(uuid, (k, subscriptions) -> {
+      subscriptions.remove(subscription);
+      return subscriptions.isEmpty() ? null : subscriptions;
+    });
+    if (subscription.remaining().isEmpty()) {
+      complete(subscription);
+    }
+  }
+
+  private static void complete(Subscription subscription) {
+    if (subscription.completed().compareAndSet(false, true)) {
+      subscription.emitter().complete();
+    }
+  }
+
+  private void unsubscribe(Subscription subscription) {
+    for (UUID uuid : subscription.remaining()) {
+      subscriptionsByExport.computeIfPresent(uuid, (k, subscriptions) -> {
+        subscriptions.remove(subscription);
+        return subscriptions.isEmpty() ? null : subscriptions;
+      });
+    }
+  }
+}
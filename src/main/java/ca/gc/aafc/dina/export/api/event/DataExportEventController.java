@@ -0,0 +1,109 @@
+package ca.gc.aafc.dina.export.api.event;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import ca.gc.aafc.dina.export.api.config.DataExportConfig;
+import ca.gc.aafc.dina.export.api.dto.DataExportDto;
+import ca.gc.aafc.dina.export.api.entity.DataExport;
+import ca.gc.aafc.dina.export.api.generator.ExportProgress;
+import ca.gc.aafc.dina.export.api.service.DataExportService;
+import ca.gc.aafc.dina.export.api.service.TransactionWrapper;
+import ca.gc.aafc.dina.security.DinaAuthenticatedUser;
+
+/**
+ * Server-Sent Events endpoint to follow the status and progress of exports instead of polling them.
+ * The current status and progress of each export is sent on subscription, then each change is pushed. A status can
+ * be received twice when it changes during the subscription.
+ * The stream is closed once all the exports reached a terminal status (or on timeout).
+ */
+@RestController
+@RequestMapping("/api/v1")
+public class DataExportEventController {
+
+  private static final int MAX_EXPORTS_PER_SUBSCRIPTION = 50;
+
+  private final DataExportService dataExportService;
+  private final TransactionWrapper transactionWrapper;
+  private final DataExportEventBroadcaster broadcaster;
+  private final DataExportConfig dataExportConfig;
+  private final DinaAuthenticatedUser authenticatedUser;
+
+  public DataExportEventController(DataExportService dataExportService,
+                                   TransactionWrapper transactionWrapper,
+                                   DataExportEventBroadcaster broadcaster,
+                                   DataExportConfig dataExportConfig,
+                                   Optional<DinaAuthenticatedUser> authenticatedUser) {
+    this.dataExportService = dataExportService;
+    this.transactionWrapper = transactionWrapper;
+    this.broadcaster = broadcaster;
+    this.dataExportConfig = dataExportConfig;
+    this.authenticatedUser = authenticatedUser.orElse(null);
+  }
+
+  @GetMapping(value = DataExportDto.TYPENAME + "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter subscribe(@RequestParam("id") Set<UUID> ids) {
+    if (ids.isEmpty() || ids.size() > MAX_EXPORTS_PER_SUBSCRIPTION) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+        "Between 1 and " + MAX_EXPORTS_PER_SUBSCRIPTION + " export ids are required", null);
+    }
+
+    for (UUID id : ids) {
+      DataExport dataExport = findExport(id);
+      if (dataExport == null) {
+        throw new ResponseStatusException(HttpStatus.NOT_FOUND, "DataExport with ID " + id + " Not Found.", null);
+      }
+      if (authenticatedUser != null && !Objects.equals(authenticatedUser.getUsername(), dataExport.getCreatedBy())) {
+        throw new ResponseStatusException(HttpStatus.FORBIDDEN, "DataExport " + id + " is not owned by the user", null);
+      }
+    }
+
+    return subscribe(ids, new SseEmitter(dataExportConfig.getExportEventsTimeout().toMillis()));
+  }
+
+  /**
+   * Subscribes the emitter then sends the current state of the exports.
+   * Subscribing first ensures a change happening while the snapshot is read is not lost. The emitter is completed
+   * once all the exports are terminal, including when they already are in the snapshot.
+   * @param ids exports to follow, already validated
+   * @param emitter
+   * @return the emitter
+   */
+  SseEmitter subscribe(Set<UUID> ids, SseEmitter emitter) {
+    DataExportEventBroadcaster.Subscription subscription = broadcaster.subscribe(emitter, ids);
+    for (UUID id : ids) {
+      DataExport dataExport = findExport(id);
+      if (dataExport == null) {
+        // removed since the validation, nothing more will be published for it
+        broadcaster.sendSnapshot(subscription, new DataExportStatusEvent(id, DataExport.ExportStatus.EXPIRED), null);
+        continue;
+      }
+      DataExportProgressEvent progressEvent = dataExport.getRowsWritten() == null ? null :
+        new DataExportProgressEvent(dataExport.getUuid(), toProgress(dataExport));
+      broadcaster.sendSnapshot(subscription, new DataExportStatusEvent(dataExport.getUuid(), dataExport.getStatus()),
+        progressEvent);
+    }
+    return emitter;
+  }
+
+  private DataExport findExport(UUID id) {
+    return transactionWrapper.runInsideReadTransaction(() -> dataExportService.findOne(id));
+  }
+
+  private static ExportProgress toProgress(DataExport dataExport) {
+    return new ExportProgress(dataExport.getRowsWritten(),
+      Objects.requireNonNullElse(dataExport.getPagesFetched(), 0), dataExport.getTotalRows(),
+      dataExport.getBytesWritten(), dataExport.getEstimatedCompletionOn());
+  }
+}
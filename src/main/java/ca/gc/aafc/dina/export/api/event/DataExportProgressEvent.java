@@ -0,0 +1,13 @@
+package ca.gc.aafc.dina.export.api.event;
+
+import java.util.UUID;
+
+import ca.gc.aafc.dina.export.api.generator.ExportProgress;
+
+/**
+ * Published when the progress of a running export is recorded.
+ * @param uuid uuid of the export
+ * @param progress
+ */
+public record DataExportProgressEvent(UUID uuid, ExportProgress progress) {
+}
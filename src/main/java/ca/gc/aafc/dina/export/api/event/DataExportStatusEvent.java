@@ -0,0 +1,22 @@
+package ca.gc.aafc.dina.export.api.event;
+
+import java.util.UUID;
+
+import ca.gc.aafc.dina.export.api.entity.DataExport;
+
+/**
+ * Published when the status of an export changes.
+ * @param uuid uuid of the export
+ * @param status new status
+ */
+public record DataExportStatusEvent(UUID uuid, DataExport.ExportStatus status) {
+
+  /**
+   * Is the new status final (no other event will be published for that export) ?
+   * @return
+   */
+  public boolean isTerminal() {
+    return status == DataExport.ExportStatus.COMPLETED || status == DataExport.ExportStatus.ERROR ||
+      status == DataExport.ExportStatus.EXPIRED;
+  }
+}
@@ -0,0 +1,227 @@
+package ca.gc.aafc.dina.export.api.file;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Local store of files identified by a key representing their content (e.g. a strong ETag or a checksum).
+ * Entries are shared with their destination using hard links (see {@link FileLinks}) so the content is only stored
+ * once on disk.
+ * When the total size of the store exceeds the maximum size, the least recently used entries are evicted.
+ * Entries not used for longer than the (optional) maximum age are also evicted.
+ * Evicting an entry doesn't affect the files linked to it.
+ */
+@Log4j2
+public class ContentAddressedStore {
+
+  private static final String TEMP_FILE_PREFIX = "tmp-";
+  private static final String ETAG_KEY_PREFIX = "etag:";
+  private static final String SHA256_KEY_PREFIX = "sha256:";
+
+  private final Path directory;
+  private final long maxSizeInBytes;
+  private final Duration maxAge;
+
+  /**
+   * @param directory directory of the store. It should be on the same file store as the destinations to allow hard links.
+   * @param maxSizeInBytes maximum total size of the entries
+   */
+  public ContentAddressedStore(Path directory, long maxSizeInBytes) {
+    this(directory, maxSizeInBytes, null);
+  }
+
+  /**
+   * @param directory directory of the store. It should be on the same file store as the destinations to allow hard links.
+   * @param maxSizeInBytes maximum total size of the entries
+   * @param maxAge optional, entries not used since are evicted
+   */
+  public ContentAddressedStore(Path directory, long maxSizeInBytes, Duration maxAge) {
+    this.directory = directory;
+    this.maxSizeInBytes = maxSizeInBytes;
+    this.maxAge = maxAge;
+  }
+
+  /**
+   * Computes a key based on the ETag of an object.
+   * ETags are only unique for a given object (and not always a hash of the content) so the key is scoped by the
+   * identity of the object.
+   * @param objectId identity of the object (e.g. bucket and file identifier)
+   * @param etag strong ETag of the object
+   * @return
+   */
+  public static String etagKey(String objectId, String etag) {
+    return ETAG_KEY_PREFIX + objectId + ":" + etag;
+  }
+
+  /**
+   * Computes a key based on the SHA-256 checksum of the file content.
+   * @param file
+   * @return
+   */
+  public static String checksumKey(Path file) throws IOException {
+    MessageDigest digest = newSha256Digest();
+    byte[] buffer = new byte[8192];
+    try (InputStream is = Files.newInputStream(file)) {
+      int read;
+      while ((read = is.read(buffer)) != -1) {
+        digest.update(buffer, 0, read);
+      }
+    }
+    return SHA256_KEY_PREFIX + HexFormat.of().formatHex(digest.digest());
+  }
+
+  /**
+   * Creates a temporary file inside the store directory so it can be moved in the store without copy.
+   * The caller is responsible to delete it if it's not given to {@link #storeAndLink(String, Path, Path)}.
+   * @return
+   */
+  public Path createTempFile() throws IOException {
+    Files.createDirectories(directory);
+    return Files.createTempFile(directory, TEMP_FILE_PREFIX, null);
+  }
+
+  /**
+   * Links the entry matching the key to the destination, if the entry exists.
+   * @param key
+   * @param destination
+   * @return true if an entry was found and linked
+   */
+  public synchronized boolean linkIfPresent(String key, Path destination) throws IOException {
+    Path entry = entryPath(key);
+    if (!Files.isRegularFile(entry)) {
+      return false;
+    }
+    if (isExpired(Files.getLastModifiedTime(entry))) {
+      Files.deleteIfExists(entry);
+      return false;
+    }
+    touch(entry);
+    FileLinks.linkOrCopy(entry, destination);
+    return true;
+  }
+
+  /**
+   * Stores a link to the file under the provided key, unless an entry already exists for that key.
+   * The file is left in place.
+   * @param key
+   * @param file
+   */
+  public synchronized void store(String key, Path file) throws IOException {
+    Path entry = entryPath(key);
+    if (Files.isRegularFile(entry)) {
+      touch(entry);
+    } else {
+      Files.createDirectories(directory);
+      // link (or copy) to a temporary file first so an entry is never partially written
+      Path tempFile = Files.createTempFile(directory, TEMP_FILE_PREFIX, null);
+      try {
+        FileLinks.linkOrCopy(file, tempFile);
+        Files.move(tempFile, entry, StandardCopyOption.REPLACE_EXISTING);
+      } finally {
+        Files.deleteIfExists(tempFile);
+      }
+    }
+    evict();
+  }
+
+  /**
+   * Stores the file under the provided key (unless an entry already exists for that key) and links the entry
+   * to the destination. The file is moved into the store.
+   * @param key
+   * @param file file to store, usually created by {@link #createTempFile()}
+   * @param destination
+   */
+  public synchronized void storeAndLink(String key, Path file, Path destination) throws IOException {
+    Path entry = entryPath(key);
+    if (Files.isRegularFile(entry)) {
+      Files.delete(file);
+      touch(entry);
+    } else {
+      Files.move(file, entry, StandardCopyOption.REPLACE_EXISTING);
+    }
+    FileLinks.linkOrCopy(entry, destination);
+    evict();
+  }
+
+  /**
+   * Removes the expired entries then the least recently used entries until the total size is under the maximum size.
+   */
+  public synchronized void evict() throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return;
+    }
+
+    List<Path> entries;
+    try (Stream<Path> files = Files.list(directory)) {
+      entries = files.filter(Files::isRegularFile)
+        .filter(p -> !p.getFileName().toString().startsWith(TEMP_FILE_PREFIX))
+        .toList();
+    }
+
+    List<EntryInfo> entryInfos = new ArrayList<>(entries.size());
+    long totalSize = 0;
+    for (Path entry : entries) {
+      EntryInfo info = new EntryInfo(entry, Files.size(entry), Files.getLastModifiedTime(entry));
+      if (isExpired(info.lastUsed())) {
+        Files.deleteIfExists(entry);
+        log.debug("Expired {} from content addressed store", entry);
+        continue;
+      }
+      entryInfos.add(info);
+      totalSize += info.size();
+    }
+
+    if (totalSize <= maxSizeInBytes) {
+      return;
+    }
+
+    entryInfos.sort(Comparator.comparing(EntryInfo::lastUsed));
+    for (EntryInfo info : entryInfos) {
+      if (totalSize <= maxSizeInBytes) {
+        break;
+      }
+      Files.deleteIfExists(info.path());
+      totalSize -= info.size();
+      log.debug("Evicted {} from content addressed store", info.path());
+    }
+  }
+
+  private Path entryPath(String key) {
+    MessageDigest digest = newSha256Digest();
+    return directory.resolve(HexFormat.of().formatHex(digest.digest(key.getBytes(StandardCharsets.UTF_8))));
+  }
+
+  private boolean isExpired(FileTime lastUsed) {
+    return maxAge != null && lastUsed.toInstant().isBefore(Instant.now().minus(maxAge));
+  }
+
+  private static void touch(Path entry) throws IOException {
+    Files.setLastModifiedTime(entry, FileTime.from(Instant.now()));
+  }
+
+  private static MessageDigest newSha256Digest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private record EntryInfo(Path path, long size, FileTime lastUsed) {
+  }
+}
@@ -0,0 +1,28 @@
+package ca.gc.aafc.dina.export.api.file;
+
+import java.time.Duration;
+
+/**
+ * Metrics about a completed download.
+ * @param bytes number of bytes written to the destination file
+ * @param duration total duration of the download, from the request to the last byte written
+ * @param timeToFirstByte duration between the request being sent and the response headers being received
+ * @param retries number of retries required (0 if the first attempt succeeded)
+ * @param etag strong ETag returned by the server, null if not provided
+ * @param bodySkipped true if the body was not transferred because the caller already had the content
+ */
+public record DownloadResult(long bytes, Duration duration, Duration timeToFirstByte, int retries,
+                             String etag, boolean bodySkipped) {
+
+  /**
+   * Average throughput of the download.
+   * @return bytes per second or 0 if the duration is not known
+   */
+  public long bytesPerSecond() {
+    long millis = duration.toMillis();
+    if (millis <= 0) {
+      return 0;
+    }
+    return bytes * 1000 / millis;
+  }
+}
@@ -4,6 +4,7 @@ import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.retry.support.RetryTemplate;
 import org.springframework.stereotype.Service;
 
 import ca.gc.aafc.dina.client.AccessTokenAuthenticator;
@@ -14,11 +15,21 @@ import ca.gc.aafc.dina.export.api.config.HttpClientConfig;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import lombok.extern.log4j.Log4j2;
 import okhttp3.Call;
+import okhttp3.ConnectionPool;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Response;
@@ -26,37 +37,164 @@ import okhttp3.ResponseBody;
 
 /**
  * Allows to download a file using token-based authentication.
+ * The underlying http client (and its connection pool) is shared by all downloads.
  */
 @Service
 @Log4j2
 public class FileDownloader {
 
+  // OkHttp defaults
+  private static final int DEFAULT_MAX_IDLE_CONNECTIONS = 5;
+  private static final Duration DEFAULT_KEEP_ALIVE = Duration.ofMinutes(5);
+
   private final OkHttpClient httpClient;
   private final TokenBasedRequestBuilder tokenBasedRequestBuilder;
 
+  private final int bufferSize;
+  private final int maxDownloadAttempts;
+  private final Integer maxRequestsPerHost;
+  private final Map<String, Semaphore> semaphoreByHost = new ConcurrentHashMap<>();
+
   public FileDownloader(HttpClientConfig openIdConnectConfig) {
     AccessTokenManager accessTokenManager = new AccessTokenManager(openIdConnectConfig);
-    httpClient = new OkHttpClient.Builder()
+    httpClient = buildHttpClient(openIdConnectConfig)
       .authenticator(new AccessTokenAuthenticator(accessTokenManager))
       .build();
     tokenBasedRequestBuilder = new TokenBasedRequestBuilder(accessTokenManager);
+
+    bufferSize = openIdConnectConfig.getBufferSize() != null ?
+      Math.toIntExact(openIdConnectConfig.getBufferSize().toBytes()) : IOUtils.DEFAULT_BUFFER_SIZE;
+    maxDownloadAttempts = openIdConnectConfig.getMaxDownloadAttempts() != null ?
+      openIdConnectConfig.getMaxDownloadAttempts() : 1;
+    maxRequestsPerHost = openIdConnectConfig.getMaxRequestsPerHost();
+  }
+
+  /**
+   * Creates the builder for the http client based on the provided configuration.
+   * @param config
+   * @return
+   */
+  private static OkHttpClient.Builder buildHttpClient(HttpClientConfig config) {
+    OkHttpClient.Builder builder = new OkHttpClient.Builder();
+
+    if (config.getMaxIdleConnections() != null || config.getKeepAlive() != null) {
+      int maxIdle = config.getMaxIdleConnections() != null ?
+        config.getMaxIdleConnections() : DEFAULT_MAX_IDLE_CONNECTIONS;
+      Duration keepAlive = config.getKeepAlive() != null ? config.getKeepAlive() : DEFAULT_KEEP_ALIVE;
+      builder.connectionPool(new ConnectionPool(maxIdle, keepAlive.toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    if (config.getConnectTimeout() != null) {
+      builder.connectTimeout(config.getConnectTimeout());
+    }
+    if (config.getReadTimeout() != null) {
+      builder.readTimeout(config.getReadTimeout());
+    }
+    if (config.getWriteTimeout() != null) {
+      builder.writeTimeout(config.getWriteTimeout());
+    }
+    return builder;
   }
 
   /**
    * Download function.
    * @param downloadUrl url where to download the file from
    * @param destinationFileFunction function to return the Path of the destination file when given the filename received from the download.
+   * @return metrics about the download
+   */
+  public DownloadResult downloadFile(String downloadUrl, Function<String, Path> destinationFileFunction) throws IOException {
+    return downloadFile(downloadUrl, destinationFileFunction, null);
+  }
+
+  /**
+   * Download function that allows the caller to skip the transfer of the body when the content, identified
+   * by the strong ETag returned by the server, is already available.
+   * @param downloadUrl url where to download the file from
+   * @param destinationFileFunction function to return the Path of the destination file when given the filename received from the download.
+   * @param skipBody optional, receives the strong ETag returned by the server (if any). Returning true will skip the transfer of the body.
+   * @return metrics about the download
    */
-  public void downloadFile(String downloadUrl, Function<String, Path> destinationFileFunction) throws IOException {
+  public DownloadResult downloadFile(String downloadUrl, Function<String, Path> destinationFileFunction,
+                                     Predicate<String> skipBody) throws IOException {
+    return downloadFile(downloadUrl, destinationFileFunction, skipBody, null);
+  }
+
+  /**
+   * Download function that can be cancelled. The cancelled supplier is checked between chunks
+   * and a {@link CancellationException} is thrown if it returns true. The partial file is left to the caller.
+   * @param downloadUrl url where to download the file from
+   * @param destinationFileFunction function to return the Path of the destination file when given the filename received from the download.
+   * @param skipBody optional, receives the strong ETag returned by the server (if any). Returning true will skip the transfer of the body.
+   * @param cancelled optional, checked between chunks
+   * @return metrics about the download
+   */
+  public DownloadResult downloadFile(String downloadUrl, Function<String, Path> destinationFileFunction,
+                                     Predicate<String> skipBody, BooleanSupplier cancelled) throws IOException {
     // Prepare url
     HttpUrl parsedDownloadUrl = HttpUrl.parse(downloadUrl);
     if (parsedDownloadUrl == null) {
       throw new IllegalStateException("Can't parse downloadUrl");
     }
 
+    RetryTemplate template = RetryTemplate.builder()
+      .maxAttempts(maxDownloadAttempts)
+      .exponentialBackoff(500, 2, 10_000)
+      .retryOn(IOException.class)
+      .traversingCauses()
+      .build();
+
+    DownloadResult result = template.execute(ctx -> {
+      if (ctx.getRetryCount() > 0) {
+        log.warn("Retrying download from {} (retry {})", parsedDownloadUrl.host(), ctx.getRetryCount());
+      }
+      return downloadFileWithLimit(parsedDownloadUrl, destinationFileFunction, skipBody, cancelled,
+        ctx.getRetryCount());
+    });
+
+    if (result.bodySkipped()) {
+      log.info("Download from {} skipped, content already available. ETag: {}", parsedDownloadUrl.host(), result.etag());
+      return result;
+    }
+
+    log.info("Downloaded {} bytes from {} in {} ms ({} bytes/s), time to first byte: {} ms, retries: {}",
+      result.bytes(), parsedDownloadUrl.host(), result.duration().toMillis(), result.bytesPerSecond(),
+      result.timeToFirstByte().toMillis(), result.retries());
+    return result;
+  }
+
+  /**
+   * Wraps the download in the per-host concurrency limit, if configured.
+   */
+  private DownloadResult downloadFileWithLimit(HttpUrl downloadUrl, Function<String, Path> destinationFileFunction,
+                                               Predicate<String> skipBody, BooleanSupplier cancelled,
+                                               int retries) throws IOException {
+    if (maxRequestsPerHost == null) {
+      return downloadFileOnce(downloadUrl, destinationFileFunction, skipBody, cancelled, retries);
+    }
+
+    Semaphore semaphore = semaphoreByHost.computeIfAbsent(downloadUrl.host(),
+      host -> new Semaphore(maxRequestsPerHost, true));
+    try {
+      semaphore.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for a download slot");
+    }
+
+    try {
+      return downloadFileOnce(downloadUrl, destinationFileFunction, skipBody, cancelled, retries);
+    } finally {
+      semaphore.release();
+    }
+  }
+
+  private DownloadResult downloadFileOnce(HttpUrl downloadUrl, Function<String, Path> destinationFileFunction,
+                                          Predicate<String> skipBody, BooleanSupplier cancelled,
+                                          int retries) throws IOException {
     Call downloadCall =
-      httpClient.newCall(tokenBasedRequestBuilder.newBuilder().url(parsedDownloadUrl).build());
+      httpClient.newCall(tokenBasedRequestBuilder.newBuilder().url(downloadUrl).build());
 
+    long start = System.nanoTime();
     try (Response response = downloadCall.execute()) {
 
       Path destinationFile = destinationFileFunction.apply(extractFilenameFromResponse(response));
@@ -65,11 +203,56 @@ public class FileDownloader {
       if (!response.isSuccessful() || body == null) {
         throw new IllegalStateException("Can't read response body from downloadUrl. Returned code: " + response.code());
       }
+
+      Duration timeToFirstByte = Duration.ofMillis(response.receivedResponseAtMillis() - response.sentRequestAtMillis());
+      String etag = extractStrongETagFromResponse(response);
+      if (skipBody != null && etag != null && skipBody.test(etag)) {
+        return new DownloadResult(0, Duration.ofNanos(System.nanoTime() - start), timeToFirstByte, retries,
+          etag, true);
+      }
+
+      long bytes;
       try (OutputStream outputStream = new FileOutputStream(destinationFile.toFile());
            InputStream inputStream = body.byteStream()) {
-        IOUtils.copy(inputStream, outputStream);
+        bytes = copy(inputStream, outputStream, cancelled);
       }
+
+      return new DownloadResult(bytes, Duration.ofNanos(System.nanoTime() - start), timeToFirstByte, retries,
+        etag, false);
+    }
+  }
+
+  /**
+   * Copies the stream by chunks of bufferSize, checking for cancellation between chunks.
+   */
+  private long copy(InputStream inputStream, OutputStream outputStream, BooleanSupplier cancelled)
+    throws IOException {
+    if (cancelled == null) {
+      return IOUtils.copy(inputStream, outputStream, bufferSize);
+    }
+
+    byte[] buffer = new byte[bufferSize];
+    long bytes = 0;
+    int n;
+    while ((n = inputStream.read(buffer)) != IOUtils.EOF) {
+      if (cancelled.getAsBoolean()) {
+        throw new CancellationException("Download cancelled");
+      }
+      outputStream.write(buffer, 0, n);
+      bytes += n;
+    }
+    return bytes;
+  }
+
+  /**
+   * Weak ETags are ignored since they don't guarantee byte-for-byte identical content.
+   */
+  private static String extractStrongETagFromResponse(Response response) {
+    String etag = response.header(HttpHeaders.ETAG);
+    if (StringUtils.isBlank(etag) || etag.startsWith("W/")) {
+      return null;
     }
+    return etag;
   }
 
   private static String extractFilenameFromResponse(Response response) {
@@ -0,0 +1,36 @@
+package ca.gc.aafc.dina.export.api.file;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Utility to share the content of a file between multiple locations without duplicating it on disk.
+ */
+@Log4j2
+public final class FileLinks {
+
+  private FileLinks() {
+    // utility class
+  }
+
+  /**
+   * Creates a hard link to the source file. If a hard link is not supported (e.g. different file stores)
+   * the file is copied.
+   * Since hard links share the same data, the content is only removed from disk once all links are deleted.
+   * @param source existing file
+   * @param target location of the link. Will be replaced if it already exists.
+   * @throws IOException
+   */
+  public static void linkOrCopy(Path source, Path target) throws IOException {
+    Files.deleteIfExists(target);
+    try {
+      Files.createLink(target, source);
+    } catch (UnsupportedOperationException | IOException ex) {
+      log.debug("Can't create hard link, copying {}", source, ex);
+      Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+}
@@ -11,6 +11,7 @@ import com.google.zxing.oned.Code128Writer;
 import com.google.zxing.qrcode.QRCodeWriter;
 import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.HashMap;
@@ -24,6 +25,7 @@ public class BarcodeGenerator {
   public enum CodeFormat { QR_CODE, CODE_128, DATA_MATRIX }
 
   public static final String CODE_OUTPUT_FORMAT = "png";
+  public static final String SVG_CODE_OUTPUT_FORMAT = "svg";
 
   private static final QRCodeWriter QR_CODE_WRITER = new QRCodeWriter();
   private static final Code128Writer BARCODE_WRITER = new Code128Writer();
@@ -35,6 +37,20 @@ public class BarcodeGenerator {
       BarcodeGenerator.CodeFormat.DATA_MATRIX);
   }
 
+  /**
+   * Same as {@link #createCode(String, OutputStream, CodeGenerationOption)} but returns the generated image.
+   * @param content data to encode
+   * @param codeOptions options of the code
+   * @return the generated image of the code
+   * @throws WriterException
+   * @throws IOException
+   */
+  public byte[] createCode(String content, CodeGenerationOption codeOptions) throws WriterException, IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    createCode(content, baos, codeOptions);
+    return baos.toByteArray();
+  }
+
   /**
    *
    * @param content data to encode
@@ -44,6 +60,54 @@ public class BarcodeGenerator {
    * @throws IOException
    */
   public void createCode(String content, OutputStream outputStream, CodeGenerationOption codeOptions) throws WriterException, IOException {
+    BitMatrix bitMatrix = encode(content, codeOptions.width(), codeOptions.height(), codeOptions);
+    MatrixToImageWriter.writeToStream(bitMatrix, CODE_OUTPUT_FORMAT, outputStream);
+  }
+
+  /**
+   * Generates the code as a SVG document where the modules are drawn as a single path.
+   * The code is encoded at its natural size and scaled by the renderer without loss. Width and height of the
+   * options are only used as the intrinsic size of the image.
+   * @param content data to encode
+   * @param codeOptions options of the code
+   * @return the SVG document
+   * @throws WriterException
+   */
+  public String createSvgCode(String content, CodeGenerationOption codeOptions) throws WriterException {
+    BitMatrix bitMatrix = encode(content, 0, 0, codeOptions);
+    int width = bitMatrix.getWidth();
+    int height = bitMatrix.getHeight();
+
+    // each horizontal run of modules becomes a rectangle
+    StringBuilder path = new StringBuilder();
+    for (int y = 0; y < height; y++) {
+      int x = 0;
+      while (x < width) {
+        if (!bitMatrix.get(x, y)) {
+          x++;
+          continue;
+        }
+        int start = x;
+        while (x < width && bitMatrix.get(x, y)) {
+          x++;
+        }
+        path.append('M').append(start).append(' ').append(y)
+          .append('h').append(x - start).append("v1h-").append(x - start).append('z');
+      }
+    }
+
+    StringBuilder svg = new StringBuilder("<svg xmlns=\"http://www.w3.org/2000/svg\"");
+    if (codeOptions.width() != null && codeOptions.height() != null) {
+      svg.append(" width=\"").append(codeOptions.width()).append("\" height=\"").append(codeOptions.height())
+        .append('"');
+    }
+    svg.append(" viewBox=\"0 0 ").append(width).append(' ').append(height)
+      .append("\" preserveAspectRatio=\"none\" shape-rendering=\"crispEdges\"><path d=\"").append(path)
+      .append("\"/></svg>");
+    return svg.toString();
+  }
+
+  private BitMatrix encode(String content, int width, int height, CodeGenerationOption codeOptions) throws WriterException {
 
     //set specific parameters
     Map<EncodeHintType,Object> hints = new HashMap<>();
@@ -79,13 +143,11 @@ public class BarcodeGenerator {
       });
     }
 
-    BitMatrix bitMatrix = switch(codeOptions.format()) {
-      case QR_CODE -> QR_CODE_WRITER.encode(content, BarcodeFormat.QR_CODE, codeOptions.width(), codeOptions.height(), hints);
-      case CODE_128 -> BARCODE_WRITER.encode(content, BarcodeFormat.CODE_128, codeOptions.width(), codeOptions.height(), hints);
-      case DATA_MATRIX -> DATA_MATRIX_WRITER.encode(content, BarcodeFormat.DATA_MATRIX, codeOptions.width(), codeOptions.height(), hints);
+    return switch(codeOptions.format()) {
+      case QR_CODE -> QR_CODE_WRITER.encode(content, BarcodeFormat.QR_CODE, width, height, hints);
+      case CODE_128 -> BARCODE_WRITER.encode(content, BarcodeFormat.CODE_128, width, height, hints);
+      case DATA_MATRIX -> DATA_MATRIX_WRITER.encode(content, BarcodeFormat.DATA_MATRIX, width, height, hints);
     };
-
-    MatrixToImageWriter.writeToStream(bitMatrix, CODE_OUTPUT_FORMAT, outputStream);
   }
 
   /**
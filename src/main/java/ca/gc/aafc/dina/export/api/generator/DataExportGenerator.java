@@ -5,13 +5,11 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import javax.persistence.NoResultException;
 import lombok.extern.log4j.Log4j2;
 
-import org.springframework.retry.support.RetryTemplate;
-
 import ca.gc.aafc.dina.export.api.entity.DataExport;
 import ca.gc.aafc.dina.export.api.service.DataExportStatusService;
+import ca.gc.aafc.dina.export.api.service.ExportCancellationService;
 
 /**
  * Main abstract class for data export generator.
@@ -20,13 +18,13 @@ import ca.gc.aafc.dina.export.api.service.DataExportStatusService;
 @Log4j2
 public abstract class DataExportGenerator {
 
-  private static final int MAX_RETRY = 5;
-  private static final long RETRY_INTERVAL = 500;
-
   private final DataExportStatusService dataExportStatusService;
+  private final ExportCancellationService cancellationService;
 
-  protected DataExportGenerator(DataExportStatusService dataExportStatusService) {
+  protected DataExportGenerator(DataExportStatusService dataExportStatusService,
+                                ExportCancellationService cancellationService) {
     this.dataExportStatusService = dataExportStatusService;
+    this.cancellationService = cancellationService;
   }
 
   /**
@@ -65,21 +63,47 @@ public abstract class DataExportGenerator {
     }
   }
 
+  protected boolean isCancelled(UUID uuid) {
+    return cancellationService.isCancelled(uuid);
+  }
+
+  /**
+   * To be called between units of work (pages, chunks).
+   * @param uuid
+   * @throws java.util.concurrent.CancellationException if the export was cancelled
+   */
+  protected void throwIfCancelled(UUID uuid) {
+    cancellationService.throwIfCancelled(uuid);
+  }
+
+  /**
+   * To be called when the export is done (completed, failed or cancelled).
+   * If the removal of the export was requested while it was running, its files and record are removed.
+   * @param dinaExport
+   */
+  protected void exportDone(DataExport dinaExport) {
+    if (cancellationService.unregister(dinaExport.getUuid())) {
+      log.info("Removing export {}", dinaExport.getUuid());
+      try {
+        deleteExport(dinaExport);
+      } catch (IOException ioEx) {
+        log.warn("Can't remove files of export {}", dinaExport.getUuid(), ioEx);
+      }
+      cancellationService.deleteRecord(dinaExport.getUuid());
+    }
+  }
+
   protected void updateStatus(UUID uuid, DataExport.ExportStatus status) {
     dataExportStatusService.updateStatus(uuid, status);
   }
 
   /**
-   * Wait for the DataExport record to exist and return its status.
+   * Current status of the DataExport record.
+   * Exports are dispatched once the record is committed so the record is expected to exist.
    * @param uuid
    * @return
    */
-  protected DataExport.ExportStatus waitForRecord(UUID uuid) {
-    RetryTemplate template = RetryTemplate.builder()
-      .maxAttempts(MAX_RETRY)
-      .fixedBackoff(RETRY_INTERVAL)
-      .retryOn(NoResultException.class)
-      .build();
-    return template.execute(ctx -> dataExportStatusService.findStatus(uuid));
+  protected DataExport.ExportStatus findStatus(UUID uuid) {
+    return dataExportStatusService.findStatus(uuid);
   }
 }
@@ -0,0 +1,51 @@
+package ca.gc.aafc.dina.export.api.generator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+
+/**
+ * State of a running tabular export at the end of a page. Allows to resume the export.
+ * @param searchAfter sort values of the last hit written (plain json values)
+ * @param rowsWritten number of hits written so far
+ * @param fileOffset size of the output file after the last hit was written (and flushed)
+ */
+public record ExportCheckpoint(List<Object> searchAfter, long rowsWritten, long fileOffset) {
+
+  public static ExportCheckpoint of(List<FieldValue> sortValues, long rowsWritten, long fileOffset) {
+    List<Object> values = new ArrayList<>(sortValues.size());
+    for (FieldValue fv : sortValues) {
+      values.add(fv.isNull() ? null : fv._get());
+    }
+    return new ExportCheckpoint(values, rowsWritten, fileOffset);
+  }
+
+  /**
+   * Converts the values (as read from json) back to {@link FieldValue}.
+   * @return
+   */
+  public List<FieldValue> searchAfterAsFieldValues() {
+    List<FieldValue> values = new ArrayList<>(searchAfter.size());
+    for (Object value : searchAfter) {
+      values.add(toFieldValue(value));
+    }
+    return values;
+  }
+
+  private static FieldValue toFieldValue(Object value) {
+    if (value == null) {
+      return FieldValue.NULL;
+    }
+    if (value instanceof Integer || value instanceof Long) {
+      return FieldValue.of(((Number) value).longValue());
+    }
+    if (value instanceof Number number) {
+      return FieldValue.of(number.doubleValue());
+    }
+    if (value instanceof Boolean bool) {
+      return FieldValue.of(bool);
+    }
+    return FieldValue.of(value.toString());
+  }
+}
@@ -0,0 +1,33 @@
+package ca.gc.aafc.dina.export.api.generator;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+/**
+ * Progress of a running export.
+ * @param rowsWritten number of hits written so far
+ * @param pagesFetched number of pages fetched from the source
+ * @param totalRows total number of hits to export, null if unknown
+ * @param bytesWritten size of the output, null if unknown
+ * @param estimatedCompletionOn estimated completion based on the current throughput, null if unknown
+ */
+public record ExportProgress(long rowsWritten, int pagesFetched, Long totalRows, Long bytesWritten,
+                             OffsetDateTime estimatedCompletionOn) {
+
+  /**
+   * Estimates the completion assuming the throughput observed so far stays the same.
+   * @param rowsDone rows written during the elapsed time
+   * @param rowsRemaining rows left to write
+   * @param elapsed
+   * @param now
+   * @return estimated completion or null if it can't be estimated
+   */
+  public static OffsetDateTime estimateCompletion(long rowsDone, long rowsRemaining, Duration elapsed,
+                                                  OffsetDateTime now) {
+    if (rowsDone <= 0 || rowsRemaining < 0 || elapsed.isZero() || elapsed.isNegative()) {
+      return null;
+    }
+    long remainingMillis = elapsed.toMillis() * rowsRemaining / rowsDone;
+    return now.plus(Duration.ofMillis(remainingMillis));
+  }
+}
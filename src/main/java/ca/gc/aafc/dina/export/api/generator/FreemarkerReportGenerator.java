@@ -1,34 +1,103 @@
 package ca.gc.aafc.dina.export.api.generator;
 
+import freemarker.cache.MruCacheStorage;
 import freemarker.core.TemplateClassResolver;
 import freemarker.template.Configuration;
 import freemarker.template.Template;
 import freemarker.template.TemplateException;
+import lombok.extern.log4j.Log4j2;
 import org.springframework.stereotype.Service;
-import org.springframework.ui.freemarker.FreeMarkerTemplateUtils;
 
+import ca.gc.aafc.dina.export.api.config.ReportTemplateConfig;
+
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.WeakHashMap;
 
 @Service
+@Log4j2
 public class FreemarkerReportGenerator implements ReportGenerator {
 
   private final Configuration freemarkerConfiguration;
 
-  public FreemarkerReportGenerator(Configuration freemarkerConfiguration) {
+  // version of each compiled template, dropped with the template when it is removed from the cache
+  private final Map<Template, String> templateVersions = Collections.synchronizedMap(new WeakHashMap<>());
+
+  public FreemarkerReportGenerator(Configuration freemarkerConfiguration,
+                                   ReportTemplateConfig reportTemplateConfig) {
     this.freemarkerConfiguration = freemarkerConfiguration;
     // By default, allow nothing. We can eventually have an allowed list by using OptInTemplateClassResolver
     this.freemarkerConfiguration.setNewBuiltinClassResolver(TemplateClassResolver.ALLOWS_NOTHING_RESOLVER);
+
+    // compiled templates are kept (strongly referenced) up to the cache size, the others can be garbage collected
+    this.freemarkerConfiguration.setCacheStorage(
+      new MruCacheStorage(reportTemplateConfig.getTemplateCacheSize(), Integer.MAX_VALUE));
+    // downloaded templates are reloaded explicitly, but only on the instance that downloaded them
+    this.freemarkerConfiguration.setTemplateUpdateDelayMilliseconds(
+      reportTemplateConfig.getTemplateUpdateDelay().toMillis());
+  }
+
+  /**
+   * Removes the compiled template from the cache and compiles it again so the next report doesn't pay the
+   * parsing cost.
+   * @param templateIdentifier filename of the template
+   * @throws IOException if the template can't be loaded or parsed
+   */
+  public void reload(String templateIdentifier) throws IOException {
+    invalidate(templateIdentifier);
+    freemarkerConfiguration.getTemplate(templateIdentifier);
+    log.debug("Template {} compiled", templateIdentifier);
+  }
+
+  /**
+   * Removes the compiled template from the cache. The template will be loaded again on next use.
+   * @param templateIdentifier filename of the template
+   * @throws IOException
+   */
+  public void invalidate(String templateIdentifier) throws IOException {
+    freemarkerConfiguration.removeTemplateFromCache(templateIdentifier);
+  }
+
+  /**
+   * Version of the template as currently loaded by Freemarker (SHA-256 of its source), so it changes exactly when
+   * the template used to render the reports changes, no matter where it is loaded from.
+   * @param templateIdentifier filename of the template
+   * @return the version
+   * @throws IOException if the template can't be loaded or parsed
+   */
+  public String getTemplateVersion(String templateIdentifier) throws IOException {
+    Template template = freemarkerConfiguration.getTemplate(templateIdentifier);
+    return templateVersions.computeIfAbsent(template, t -> {
+      try {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+          .digest(t.toString().getBytes(StandardCharsets.UTF_8)));
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException(e);
+      }
+    });
   }
 
+  /**
+   * Renders the template directly to the output writer so the result is never fully held in memory.
+   * The writer is buffered (unless it is already) since the template is written in many small chunks.
+   * The writer is flushed but not closed.
+   */
   @Override
   public void generateReport(String templateIdentifier, Map<String, Object> variables, Writer outputWriter) throws IOException {
     try {
       Template template = freemarkerConfiguration.getTemplate(templateIdentifier);
-      String output = FreeMarkerTemplateUtils.processTemplateIntoString(
-              template, variables);
-      outputWriter.write(output);
+      Writer writer = outputWriter instanceof BufferedWriter || outputWriter instanceof StringWriter ?
+        outputWriter : new BufferedWriter(outputWriter);
+      template.process(variables, writer);
+      writer.flush();
     } catch (TemplateException e) {
       throw new IOException(e);
     }
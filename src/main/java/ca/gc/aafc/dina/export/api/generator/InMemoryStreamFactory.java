@@ -0,0 +1,52 @@
+package ca.gc.aafc.dina.export.api.generator;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import lombok.extern.log4j.Log4j2;
+
+import com.openhtmltopdf.extend.FSStream;
+import com.openhtmltopdf.extend.FSStreamFactory;
+
+/**
+ * Openhtmltopdf stream factory serving resources (e.g. barcode images) from memory.
+ * Resources are looked up by their path relative to the base uri of the document.
+ */
+@Log4j2
+public class InMemoryStreamFactory implements FSStreamFactory {
+
+  private final String baseUri;
+  private final Map<String, byte[]> resources;
+
+  /**
+   * @param baseUri base uri of the document, relative references will be resolved against it
+   * @param resources content by relative path (e.g. "barcode1.png")
+   */
+  public InMemoryStreamFactory(String baseUri, Map<String, byte[]> resources) {
+    this.baseUri = baseUri;
+    this.resources = resources;
+  }
+
+  @Override
+  public FSStream getUrl(String url) {
+    byte[] content = url.startsWith(baseUri) ? resources.get(url.substring(baseUri.length())) : null;
+    if (content == null) {
+      log.warn("In-memory resource not found: {}", url);
+    }
+    return new FSStream() {
+      @Override
+      public InputStream getStream() {
+        return content == null ? null : new ByteArrayInputStream(content);
+      }
+
+      @Override
+      public Reader getReader() {
+        return content == null ? null :
+          new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8);
+      }
+    };
+  }
+}
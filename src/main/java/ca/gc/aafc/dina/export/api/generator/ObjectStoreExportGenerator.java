@@ -7,18 +7,25 @@ import org.springframework.stereotype.Service;
 import ca.gc.aafc.dina.export.api.config.DataExportConfig;
 import ca.gc.aafc.dina.export.api.config.UserNotificationQueueProperties;
 import ca.gc.aafc.dina.export.api.entity.DataExport;
+import ca.gc.aafc.dina.export.api.file.ContentAddressedStore;
+import ca.gc.aafc.dina.export.api.file.DownloadResult;
 import ca.gc.aafc.dina.export.api.file.FileDownloader;
 import ca.gc.aafc.dina.export.api.service.DataExportStatusService;
+import ca.gc.aafc.dina.export.api.service.ExportCancellationService;
 import ca.gc.aafc.dina.messaging.message.UserMessageNotification;
 import ca.gc.aafc.dina.messaging.producer.DinaMessageProducer;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
 import lombok.extern.log4j.Log4j2;
 
 @Service
@@ -29,16 +36,24 @@ public class ObjectStoreExportGenerator extends DataExportGenerator {
   private final DataExportConfig dataExportConfig;
   private final DinaMessageProducer messageProducer;
 
+  // optional, null if the cache is disabled
+  private final ContentAddressedStore archiveStore;
+
   public ObjectStoreExportGenerator(DataExportConfig dataExportConfig,
                                     FileDownloader fileDownloader,
                                     DataExportStatusService dataExportStatusService,
-                                    DinaMessageProducer messageProducer) {
+                                    DinaMessageProducer messageProducer,
+                                    ExportCancellationService cancellationService) {
 
-    super(dataExportStatusService);
+    super(dataExportStatusService, cancellationService);
 
     this.fileDownloader = fileDownloader;
     this.dataExportConfig = dataExportConfig;
     this.messageProducer = messageProducer;
+
+    this.archiveStore = dataExportConfig.getObjectArchiveCacheMaxSize() != null ?
+      new ContentAddressedStore(dataExportConfig.getObjectArchiveCachePath(),
+        dataExportConfig.getObjectArchiveCacheMaxSize().toBytes()) : null;
   }
 
   @Override
@@ -46,11 +61,31 @@ public class ObjectStoreExportGenerator extends DataExportGenerator {
     return dataExport.getUuid().toString() + ".zip";
   }
 
-  @Async(DataExportConfig.DINA_THREAD_POOL_BEAN_NAME)
+  @Async(DataExportConfig.OBJECT_ARCHIVE_EXECUTOR_BEAN_NAME)
   @Override
   public CompletableFuture<UUID> export(DataExport dinaExport) throws IOException {
+    try {
+      if (isCancelled(dinaExport.getUuid())) {
+        log.info("Export {} cancelled before it started", dinaExport.getUuid());
+        return CompletableFuture.completedFuture(dinaExport.getUuid());
+      }
+      return doExport(dinaExport);
+    } catch (CancellationException cEx) {
+      log.info("Export {} cancelled, removing partial file", dinaExport.getUuid());
+      try {
+        Files.deleteIfExists(dataExportConfig.getPathForDataExport(dinaExport).orElseThrow());
+      } catch (IOException ioEx) {
+        log.warn("Can't remove partial file of cancelled export {}", dinaExport.getUuid(), ioEx);
+      }
+      return CompletableFuture.completedFuture(dinaExport.getUuid());
+    } finally {
+      exportDone(dinaExport);
+    }
+  }
 
-    DataExport.ExportStatus currStatus = waitForRecord(dinaExport.getUuid());
+  private CompletableFuture<UUID> doExport(DataExport dinaExport) throws IOException {
+
+    DataExport.ExportStatus currStatus = findStatus(dinaExport.getUuid());
 
     if (currStatus == DataExport.ExportStatus.NEW) {
 
@@ -69,9 +104,13 @@ public class ObjectStoreExportGenerator extends DataExportGenerator {
       String downloadUrl = StringUtils.appendIfMissing(dataExportConfig.getObjectStoreDownloadUrl(), "/")
         + dinaExport.getTransitiveData().get(DataExportConfig.OBJECT_STORE_TOA);
 
+      BooleanSupplier cancelled = () -> isCancelled(dinaExport.getUuid());
       try {
-        // call download
-        fileDownloader.downloadFile(downloadUrl, filename -> exportPath);
+        if (archiveStore == null) {
+          fileDownloader.downloadFile(downloadUrl, filename -> exportPath, null, cancelled);
+        } else {
+          downloadUsingArchiveStore(downloadUrl, objectIdentity(dinaExport), exportPath, cancelled);
+        }
         updateStatus(dinaExport.getUuid(), DataExport.ExportStatus.COMPLETED);
 
         messageProducer.send(buildUserMessageNotification(dinaExport));
@@ -86,6 +125,63 @@ public class ObjectStoreExportGenerator extends DataExportGenerator {
     return CompletableFuture.completedFuture(dinaExport.getUuid());
   }
 
+  /**
+   * Download the archive using the content addressed store.
+   * If the object identity is known and the strong ETag returned by the object-store matches an entry, the body is
+   * not downloaded. Otherwise, the archive is downloaded and stored under its ETag scoped by the object identity
+   * (or its checksum if the identity or the ETag is not known).
+   * In all cases, the export file is a link to the entry in the store.
+   * @param downloadUrl
+   * @param objectId identity of the object in the object-store, can be null
+   * @param exportPath
+   * @param cancelled checked between chunks of the download
+   */
+  private void downloadUsingArchiveStore(String downloadUrl, String objectId, Path exportPath,
+                                         BooleanSupplier cancelled) throws IOException {
+    Path tempFile = archiveStore.createTempFile();
+    try {
+      // an ETag alone doesn't identify the content, it can only be used with the identity of the object
+      Predicate<String> skipBody = objectId == null ? null :
+        etag -> linkFromArchiveStore(ContentAddressedStore.etagKey(objectId, etag), exportPath);
+      DownloadResult result = fileDownloader.downloadFile(downloadUrl, filename -> tempFile, skipBody, cancelled);
+
+      if (!result.bodySkipped()) {
+        String key = objectId != null && result.etag() != null ?
+          ContentAddressedStore.etagKey(objectId, result.etag()) : ContentAddressedStore.checksumKey(tempFile);
+        archiveStore.storeAndLink(key, tempFile, exportPath);
+      }
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  /**
+   * Identity of the object (bucket and file identifier) if provided in the transitive data of the export.
+   * @return the identity or null
+   */
+  private static String objectIdentity(DataExport dinaExport) {
+    Map<String, String> transitiveData = dinaExport.getTransitiveData();
+    if (transitiveData == null) {
+      return null;
+    }
+    String bucket = transitiveData.get(DataExportConfig.OBJECT_STORE_BUCKET);
+    String fileIdentifier = transitiveData.get(DataExportConfig.OBJECT_STORE_FILE_IDENTIFIER);
+    if (StringUtils.isAnyBlank(bucket, fileIdentifier)) {
+      return null;
+    }
+    return bucket + "/" + fileIdentifier;
+  }
+
+  private boolean linkFromArchiveStore(String key, Path exportPath) {
+    try {
+      return archiveStore.linkIfPresent(key, exportPath);
+    } catch (IOException e) {
+      // the archive will simply be downloaded again
+      log.warn("Can't link export from archive store", e);
+      return false;
+    }
+  }
+
   private UserMessageNotification buildUserMessageNotification(DataExport dinaExport) {
     return UserMessageNotification
       .builder()
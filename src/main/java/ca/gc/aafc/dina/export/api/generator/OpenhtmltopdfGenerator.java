@@ -1,28 +1,156 @@
 package ca.gc.aafc.dina.export.api.generator;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import lombok.extern.log4j.Log4j2;
 
 import org.springframework.stereotype.Service;
 
+import com.openhtmltopdf.extend.FSCacheEx;
+import com.openhtmltopdf.extend.FSCacheValue;
+import com.openhtmltopdf.extend.impl.FSNoOpCacheStore;
 import com.openhtmltopdf.outputdevice.helper.BaseRendererBuilder;
 import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
+import com.openhtmltopdf.svgsupport.BatikSVGDrawer;
 
+import ca.gc.aafc.dina.export.api.config.ReportTemplateConfig;
+
+/**
+ * PDF generator based on Openhtmltopdf.
+ * The configured fonts are read once and a process-wide cache of font metrics is shared by all renderings so
+ * fonts are not parsed again for every report. The cache is bounded by pdfRendererCacheSize.
+ */
 @Service
+@Log4j2
 public class OpenhtmltopdfGenerator implements PDFGenerator {
 
   public static final BaseRendererBuilder.PageSizeUnits DEFAULT_PAGE_UNIT = BaseRendererBuilder.PageSizeUnits.MM;
   private static final float DEFAULT_PAGE_WIDTH = 210;
   private static final float DEFAULT_PAGE_HEIGHT = 297;
 
+  // protocol used to serve in-memory resources to the renderer
+  public static final String IN_MEMORY_PROTOCOL = "dina-mem";
+
+  private static final String WARMUP_HTML_TEMPLATE = "<html><body><p style=\"font-family: %s\">warmup</p></body></html>";
+
+  private final FSCacheEx<String, FSCacheValue> cache;
+  private final List<LoadedFont> fonts;
+
+  /**
+   * Font file loaded in memory.
+   */
+  private record LoadedFont(String family, int weight, boolean italic, byte[] content) {
+  }
+
+  public OpenhtmltopdfGenerator(ReportTemplateConfig reportTemplateConfig) throws IOException {
+    List<LoadedFont> loadedFonts = new ArrayList<>();
+    for (ReportTemplateConfig.FontConfig fontConfig : reportTemplateConfig.getFonts()) {
+      loadedFonts.add(new LoadedFont(fontConfig.getFamily(), fontConfig.getWeight(), fontConfig.isItalic(),
+        Files.readAllBytes(Path.of(fontConfig.getPath()))));
+      log.info("Font {} loaded from {}", fontConfig.getFamily(), fontConfig.getPath());
+    }
+    this.fonts = List.copyOf(loadedFonts);
+
+    int cacheSize = reportTemplateConfig.getPdfRendererCacheSize();
+    this.cache = cacheSize > 0 ? new LruCacheStore(cacheSize) : FSNoOpCacheStore.INSTANCE;
+  }
+
   @Override
   public void generatePDF(String html, String baseDocumentUri, OutputStream os) throws IOException {
 
-    PdfRendererBuilder builder = new PdfRendererBuilder();
+    PdfRendererBuilder builder = newBuilder(os);
     builder.withHtmlContent(html, baseDocumentUri);
+    builder.run();
+  }
 
+  @Override
+  public void generatePDF(String html, Map<String, byte[]> resources, OutputStream os) throws IOException {
+    // unique base uri so resources of different documents never share a cache entry
+    String baseDocumentUri = IN_MEMORY_PROTOCOL + ":/" + UUID.randomUUID() + "/";
+
+    PdfRendererBuilder builder = newBuilder(os);
+    builder.withHtmlContent(html, baseDocumentUri);
+    builder.useProtocolsStreamImplementation(new InMemoryStreamFactory(baseDocumentUri, resources),
+      IN_MEMORY_PROTOCOL);
+    builder.run();
+  }
+
+  /**
+   * Renders a small document using each configured font to initialize the renderer and fill the cache.
+   * @throws IOException
+   */
+  public void warmup() throws IOException {
+    List<String> families = fonts.isEmpty() ? List.of("serif") : fonts.stream().map(LoadedFont::family).toList();
+    for (String family : families) {
+      generatePDF(WARMUP_HTML_TEMPLATE.formatted(family), Map.of(), OutputStream.nullOutputStream());
+    }
+  }
+
+  private PdfRendererBuilder newBuilder(OutputStream os) {
+    PdfRendererBuilder builder = new PdfRendererBuilder();
+    builder.useCacheStore(PdfRendererBuilder.CacheStore.PDF_FONT_METRICS, cache);
+    // SVG images (e.g. vector barcodes)
+    builder.useSVGDrawer(new BatikSVGDrawer());
+    for (LoadedFont font : fonts) {
+      builder.useFont(() -> new ByteArrayInputStream(font.content()), font.family(), font.weight(),
+        font.italic() ? BaseRendererBuilder.FontStyle.ITALIC : BaseRendererBuilder.FontStyle.NORMAL, true);
+    }
     builder.useDefaultPageSize(DEFAULT_PAGE_WIDTH, DEFAULT_PAGE_HEIGHT, DEFAULT_PAGE_UNIT);
     builder.toStream(os);
-    builder.run();
+    return builder;
+  }
+
+  /**
+   * Cache store keeping the most recently used entries.
+   */
+  private static class LruCacheStore implements FSCacheEx<String, FSCacheValue> {
+
+    private final Map<String, FSCacheValue> entries;
+
+    LruCacheStore(int maxSize) {
+      entries = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, FSCacheValue> eldest) {
+          return size() > maxSize;
+        }
+      });
+    }
+
+    @Override
+    public void put(String key, FSCacheValue value) {
+      entries.put(key, value);
+    }
+
+    @Override
+    public FSCacheValue get(String key, Callable<? extends FSCacheValue> loader) {
+      FSCacheValue value = entries.get(key);
+      if (value == null) {
+        try {
+          value = loader.call();
+        } catch (Exception e) {
+          log.warn("Can't load cache entry {}", key, e);
+          return null;
+        }
+        if (value != null) {
+          entries.put(key, value);
+        }
+      }
+      return value;
+    }
+
+    @Override
+    public FSCacheValue get(String key) {
+      return entries.get(key);
+    }
   }
 }
@@ -2,6 +2,7 @@ package ca.gc.aafc.dina.export.api.generator;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Map;
 
 public interface PDFGenerator {
 
@@ -14,4 +15,14 @@ public interface PDFGenerator {
    */
   void generatePDF(String html, String baseDocumentUri, OutputStream os) throws IOException;
 
+  /**
+   * Generates a PDF without accessing the filesystem. Relative references of the html are resolved
+   * against the provided resources.
+   * @param html
+   * @param resources content by relative path (e.g. "barcode1.png")
+   * @param os
+   * @throws IOException
+   */
+  void generatePDF(String html, Map<String, byte[]> resources, OutputStream os) throws IOException;
+
 }
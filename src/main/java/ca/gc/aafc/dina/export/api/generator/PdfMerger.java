@@ -0,0 +1,35 @@
+package ca.gc.aafc.dina.export.api.generator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.multipdf.PDFMergerUtility;
+
+/**
+ * Merges PDF files with PDFBox.
+ * Temporary files are used instead of the heap so the memory used doesn't grow with the size of the documents.
+ */
+public final class PdfMerger {
+
+  private PdfMerger() {
+    // utility class
+  }
+
+  /**
+   * Merges the files, in order, into the output stream.
+   * @param pdfFiles
+   * @param os
+   * @throws IOException
+   */
+  public static void merge(List<Path> pdfFiles, OutputStream os) throws IOException {
+    PDFMergerUtility merger = new PDFMergerUtility();
+    for (Path pdfFile : pdfFiles) {
+      merger.addSource(pdfFile.toFile());
+    }
+    merger.setDestinationStream(os);
+    merger.mergeDocuments(MemoryUsageSetting.setupTempFileOnly());
+  }
+}
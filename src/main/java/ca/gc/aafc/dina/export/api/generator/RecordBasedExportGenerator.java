@@ -23,7 +23,10 @@ import ca.gc.aafc.dina.export.api.output.ZipPackager;
 import ca.gc.aafc.dina.export.api.output.CompositeDataOutput;
 import ca.gc.aafc.dina.export.api.output.DataOutput;
 import ca.gc.aafc.dina.export.api.output.TabularOutput;
+import ca.gc.aafc.dina.export.api.service.DataExportCheckpointService;
+import ca.gc.aafc.dina.export.api.service.DataExportProgressService;
 import ca.gc.aafc.dina.export.api.service.DataExportStatusService;
+import ca.gc.aafc.dina.export.api.service.ExportCancellationService;
 import ca.gc.aafc.dina.export.api.source.ElasticSearchDataSource;
 import ca.gc.aafc.dina.json.JsonHelper;
 import ca.gc.aafc.dina.jsonapi.JSONApiDocumentStructure;
@@ -32,23 +35,35 @@ import ca.gc.aafc.dina.messaging.producer.DinaMessageProducer;
 
 import static ca.gc.aafc.dina.export.api.config.JacksonTypeReferences.MAP_TYPEREF;
 
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.FieldValue;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
 import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.elasticsearch.core.search.TotalHits;
+import co.elastic.clients.elasticsearch.core.search.TotalHitsRelation;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.io.Writer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import lombok.extern.log4j.Log4j2;
 
@@ -68,6 +83,8 @@ public class RecordBasedExportGenerator extends DataExportGenerator {
   private final DataExportConfig dataExportConfig;
   private final Configuration jsonPathConfiguration;
   private final DinaMessageProducer messageProducer;
+  private final DataExportCheckpointService checkpointService;
+  private final DataExportProgressService progressService;
 
   public RecordBasedExportGenerator(
     DataExportStatusService dataExportStatusService,
@@ -75,15 +92,20 @@ public class RecordBasedExportGenerator extends DataExportGenerator {
     Configuration jsonPathConfiguration,
     ElasticSearchDataSource elasticSearchDataSource,
     ObjectMapper objectMapper,
-    DinaMessageProducer messageProducer) {
+    DinaMessageProducer messageProducer,
+    DataExportCheckpointService checkpointService,
+    DataExportProgressService progressService,
+    ExportCancellationService cancellationService) {
 
-    super(dataExportStatusService);
+    super(dataExportStatusService, cancellationService);
 
     this.elasticSearchDataSource = elasticSearchDataSource;
     this.objectMapper = objectMapper;
     this.dataExportConfig = dataExportConfig;
     this.jsonPathConfiguration = jsonPathConfiguration;
     this.messageProducer = messageProducer;
+    this.checkpointService = checkpointService;
+    this.progressService = progressService;
   }
 
   @Override
@@ -98,10 +120,30 @@ public class RecordBasedExportGenerator extends DataExportGenerator {
     return DataExportConfig.DATA_EXPORT_TABULAR_FILENAME + TabularOutput.extensionFromSeparator(separator);
   }
 
-  @Async(DataExportConfig.DINA_THREAD_POOL_BEAN_NAME)
+  @Async(DataExportConfig.TABULAR_DATA_EXECUTOR_BEAN_NAME)
   @Override
   public CompletableFuture<UUID> export(DataExport dinaExport) throws IOException {
-    DataExport.ExportStatus currStatus = waitForRecord(dinaExport.getUuid());
+    try {
+      if (isCancelled(dinaExport.getUuid())) {
+        log.info("Export {} cancelled before it started", dinaExport.getUuid());
+        return CompletableFuture.completedFuture(dinaExport.getUuid());
+      }
+      return doExport(dinaExport);
+    } catch (CancellationException cEx) {
+      log.info("Export {} cancelled, removing partial files", dinaExport.getUuid());
+      try {
+        deleteExport(dinaExport);
+      } catch (IOException ioEx) {
+        log.warn("Can't remove partial files of cancelled export {}", dinaExport.getUuid(), ioEx);
+      }
+      return CompletableFuture.completedFuture(dinaExport.getUuid());
+    } finally {
+      exportDone(dinaExport);
+    }
+  }
+
+  private CompletableFuture<UUID> doExport(DataExport dinaExport) throws IOException {
+    DataExport.ExportStatus currStatus = findStatus(dinaExport.getUuid());
 
     if (DataExport.ExportStatus.NEW != currStatus) {
       log.error("Unexpected DataExport status: {}", currStatus);
@@ -126,16 +168,28 @@ public class RecordBasedExportGenerator extends DataExportGenerator {
         exportSingleEntity(dinaExport, schema, exportPath);
       }
       updateStatus(dinaExport.getUuid(), DataExport.ExportStatus.COMPLETED);
+      if (isCheckpointEnabled()) {
+        checkpointService.clearCheckpoint(dinaExport.getUuid());
+      }
       messageProducer.send(buildUserMessageNotification(dinaExport));
-    } catch (IOException ioEx) {
+    } catch (CancellationException cEx) {
+      throw cEx;
+    } catch (IOException | RuntimeException ex) {
+      // includes the Elasticsearch errors rethrown once the resume attempts are exhausted
+      log.error("Export {} failed", dinaExport.getUuid(), ex);
       updateStatus(dinaExport.getUuid(), DataExport.ExportStatus.ERROR);
-      throw ioEx;
+      throw ex;
     }
 
     return CompletableFuture.completedFuture(dinaExport.getUuid());
   }
 
-  private UserMessageNotification buildUserMessageNotification(DataExport dinaExport) {
+  /**
+   * Notification sent to the user when a tabular export is ready.
+   * @param dinaExport
+   * @return
+   */
+  public static UserMessageNotification buildUserMessageNotification(DataExport dinaExport) {
     return UserMessageNotification
       .builder()
       .username(dinaExport.getCreatedBy())
@@ -164,13 +218,79 @@ public class RecordBasedExportGenerator extends DataExportGenerator {
 
   // Export single/multi entity
 
+  /**
+   * Single-entity exports are checkpointed. If a checkpoint is available (e.g. the export was restarted)
+   * or if the export fails after a checkpoint, the export is resumed from it.
+   * Elasticsearch errors (e.g. expired PIT, node unavailable) are runtime exceptions in the client, transport
+   * errors and timeouts are IOException.
+   */
   private void exportSingleEntity(DataExport dinaExport, LinkedHashMap<String, DataExportSchemaEntry> schema,
                                    Path exportPath) throws IOException {
-    try (Writer writer = new FileWriter(exportPath.toFile(), StandardCharsets.UTF_8);
+    ExportCheckpoint checkpoint = findResumableCheckpoint(dinaExport, exportPath);
+    int resumeAttempts = 0;
+    while (true) {
+      try {
+        exportSingleEntity(dinaExport, schema, exportPath, checkpoint);
+        return;
+      } catch (IOException | UncheckedIOException | ElasticsearchException ex) {
+        checkpoint = findResumableCheckpoint(dinaExport, exportPath);
+        if (checkpoint == null || resumeAttempts >= dataExportConfig.getExportMaxResumeAttempts()) {
+          throw ex;
+        }
+        resumeAttempts++;
+        log.warn("Export {} failed, resuming after row {} (attempt {})", dinaExport.getUuid(),
+          checkpoint.rowsWritten(), resumeAttempts, ex);
+      }
+    }
+  }
+
+  private void exportSingleEntity(DataExport dinaExport, LinkedHashMap<String, DataExportSchemaEntry> schema,
+                                  Path exportPath, ExportCheckpoint resumeFrom) throws IOException {
+    boolean resume = resumeFrom != null;
+    if (resume) {
+      // discard anything written after the last checkpoint
+      try (FileChannel channel = FileChannel.open(exportPath, StandardOpenOption.WRITE)) {
+        channel.truncate(resumeFrom.fileOffset());
+      }
+    }
+
+    long rowsWritten = resume ? resumeFrom.rowsWritten() : 0;
+    ProgressReporter progressReporter = isProgressEnabled() ?
+      new ProgressReporter(dinaExport, exportPath, rowsWritten) : null;
+    try (Writer writer = new FileWriter(exportPath.toFile(), StandardCharsets.UTF_8, resume);
          TabularOutput<UUID, JsonNode> output =
-           TabularOutput.create(buildOutputArgs(dinaExport, schema), new TypeReference<>() { }, writer)) {
-      queryAndProcess(dinaExport, output, false);
+           TabularOutput.create(buildOutputArgs(dinaExport, schema, resume), new TypeReference<>() { }, writer)) {
+      PageListener checkpointer = isCheckpointEnabled() ?
+        new Checkpointer(dinaExport.getUuid(), output, exportPath, rowsWritten) : null;
+      queryAndProcess(dinaExport, output, false, resumeFrom, PageListener.of(checkpointer, progressReporter));
     }
+    if (progressReporter != null) {
+      progressReporter.report();
+    }
+  }
+
+  private boolean isCheckpointEnabled() {
+    return dataExportConfig.getExportCheckpointInterval() != null;
+  }
+
+  private boolean isProgressEnabled() {
+    return dataExportConfig.getExportProgressInterval() != null;
+  }
+
+  /**
+   * Returns the checkpoint of the export if it can be used to resume the export.
+   * @return the checkpoint or null
+   */
+  private ExportCheckpoint findResumableCheckpoint(DataExport dinaExport, Path exportPath) throws IOException {
+    if (!isCheckpointEnabled() || !Files.exists(exportPath)) {
+      return null;
+    }
+    ExportCheckpoint checkpoint = checkpointService.findCheckpoint(dinaExport.getUuid()).orElse(null);
+    if (checkpoint != null && Files.size(exportPath) < checkpoint.fileOffset()) {
+      log.warn("Export {} file is smaller than its checkpoint, ignoring checkpoint", dinaExport.getUuid());
+      return null;
+    }
+    return checkpoint;
   }
 
   private void exportMultiEntity(DataExport dinaExport, LinkedHashMap<String, DataExportSchemaEntry> schema,
@@ -192,8 +312,13 @@ public class RecordBasedExportGenerator extends DataExportGenerator {
         outputsByType.put(entityType, TabularOutput.create(args, new TypeReference<>() { }, writer));
       }
 
+      // the size of the package is only known at the end
+      ProgressReporter progressReporter = isProgressEnabled() ? new ProgressReporter(dinaExport, null, 0) : null;
       try (CompositeDataOutput<UUID, JsonNode> composite = new CompositeDataOutput<>(outputsByType)) {
-        queryAndProcess(dinaExport, composite, true);
+        queryAndProcess(dinaExport, composite, true, null, progressReporter);
+      }
+      if (progressReporter != null) {
+        progressReporter.report();
       }
 
       for (Writer writer : writersByType.values()) {
@@ -216,29 +341,46 @@ public class RecordBasedExportGenerator extends DataExportGenerator {
    * - Multi-entity: /included entities are also processed as separate rows in separate CSVs (normalized)
    *
    * @param isMultiEntity if true, each /included entity becomes its own row in addition to merging
+   * @param resumeFrom optional, checkpoint to resume from
+   * @param pageListener optional, notified after each page is written to the output
    */
   private void queryAndProcess(DataExport dinaExport, DataOutput<UUID, JsonNode> output,
-                                boolean isMultiEntity) throws IOException {
+                                boolean isMultiEntity, ExportCheckpoint resumeFrom,
+                                PageListener pageListener) throws IOException {
     String query = objectMapper.writeValueAsString(dinaExport.getQuery());
     Map<String, DataExportFunction> functions = dinaExport.getFunctions();
     
     // Merge relationships when schema includes multiple entity types
     boolean needsRelationships = isMultiEntity || getEffectiveSchema(dinaExport).size() > 1;
 
-    SearchResponse<JsonNode> response =
-      elasticSearchDataSource.searchWithPIT(dinaExport.getSource(), query);
+    // a resumed export uses a new PIT starting after the last hit of the checkpoint
+    SearchResponse<JsonNode> response = resumeFrom == null ?
+      elasticSearchDataSource.searchWithPIT(dinaExport.getSource(), query) :
+      elasticSearchDataSource.searchWithPIT(dinaExport.getSource(), query, resumeFrom.searchAfterAsFieldValues());
 
     try {
+      if (pageListener != null) {
+        TotalHits totalHits = response.hits().total();
+        pageListener.onSearchStarted(totalHits != null && totalHits.relation() == TotalHitsRelation.Eq ?
+          totalHits.value() : null);
+      }
+
       boolean pageAvailable = !response.hits().hits().isEmpty();
       while (pageAvailable) {
+        throwIfCancelled(dinaExport.getUuid());
         for (Hit<JsonNode> hit : response.hits().hits()) {
           processHit(hit, functions, output, isMultiEntity, needsRelationships);
         }
 
         int hitCount = response.hits().hits().size();
+        Hit<JsonNode> lastHit = response.hits().hits().get(hitCount - 1);
+        if (pageListener != null) {
+          pageListener.onPageProcessed(lastHit.sort(), hitCount);
+        }
+
         if (elasticSearchDataSource.getPageSize() == hitCount) {
-          Hit<JsonNode> lastHit = response.hits().hits().get(hitCount - 1);
           response = elasticSearchDataSource.searchAfter(query, response.pitId(), lastHit.sort());
+          pageAvailable = !response.hits().hits().isEmpty();
         } else {
           pageAvailable = false;
         }
@@ -344,7 +486,8 @@ public class RecordBasedExportGenerator extends DataExportGenerator {
   }
 
   private TabularOutput.TabularOutputArgs buildOutputArgs(DataExport dinaExport,
-                                                          LinkedHashMap<String, DataExportSchemaEntry> schema) {
+                                                          LinkedHashMap<String, DataExportSchemaEntry> schema,
+                                                          boolean skipHeader) {
     if (schema.isEmpty()) {
       throw new IllegalArgumentException("Schema cannot be empty");
     }
@@ -377,7 +520,8 @@ public class RecordBasedExportGenerator extends DataExportGenerator {
     // Pass the fully constructed lists to the builder
     var builder = TabularOutput.TabularOutputArgs.builder()
       .headers(allColumns)
-      .receivedHeadersAliases(allAliases);
+      .receivedHeadersAliases(allAliases)
+      .skipHeader(skipHeader);
 
     applyColumnSeparator(dinaExport, builder);
     
@@ -436,5 +580,143 @@ public class RecordBasedExportGenerator extends DataExportGenerator {
     }
   }
 
-}
 
+  /**
+   * Called after each page of results is written to the output.
+   */
+  @FunctionalInterface
+  private interface PageListener {
+    void onPageProcessed(List<FieldValue> lastSortValues, int hitCount) throws IOException;
+
+    /**
+     * Called once the search is started.
+     * @param totalHits total number of hits of the query, null if not known exactly
+     */
+    default void onSearchStarted(Long totalHits) {
+      // no-op by default
+    }
+
+    /**
+     * Combines the listeners, null listeners are ignored.
+     * @return the combined listener or null if all listeners are null
+     */
+    static PageListener of(PageListener... listeners) {
+      List<PageListener> nonNull = Arrays.stream(listeners).filter(Objects::nonNull).toList();
+      if (nonNull.isEmpty()) {
+        return null;
+      }
+      if (nonNull.size() == 1) {
+        return nonNull.getFirst();
+      }
+      return new PageListener() {
+        @Override
+        public void onPageProcessed(List<FieldValue> lastSortValues, int hitCount) throws IOException {
+          for (PageListener listener : nonNull) {
+            listener.onPageProcessed(lastSortValues, hitCount);
+          }
+        }
+
+        @Override
+        public void onSearchStarted(Long totalHits) {
+          nonNull.forEach(listener -> listener.onSearchStarted(totalHits));
+        }
+      };
+    }
+  }
+
+  /**
+   * Reports the progress of an export at the end of a page, at most once per configured interval.
+   */
+  private final class ProgressReporter implements PageListener {
+    private final UUID uuid;
+    private final Path exportPath;
+    private final Duration interval;
+    private final long startNanos = System.nanoTime();
+    private final long startRows;
+
+    private long rowsWritten;
+    private int pagesFetched;
+    private Long totalRows;
+    private long lastUpdateNanos = startNanos;
+
+    /**
+     * @param dinaExport
+     * @param exportPath file to get the number of bytes written from, null if unknown
+     * @param rowsWritten rows already written (e.g. resumed export)
+     */
+    private ProgressReporter(DataExport dinaExport, Path exportPath, long rowsWritten) {
+      this.uuid = dinaExport.getUuid();
+      this.exportPath = exportPath;
+      this.interval = dataExportConfig.getExportProgressInterval();
+      this.startRows = rowsWritten;
+      this.rowsWritten = rowsWritten;
+      this.totalRows = dinaExport.getEstimatedRowCount();
+    }
+
+    @Override
+    public void onSearchStarted(Long totalHits) {
+      if (totalHits != null) {
+        totalRows = totalHits;
+      }
+    }
+
+    @Override
+    public void onPageProcessed(List<FieldValue> lastSortValues, int hitCount) throws IOException {
+      rowsWritten += hitCount;
+      pagesFetched++;
+      if (System.nanoTime() - lastUpdateNanos >= interval.toNanos()) {
+        report();
+      }
+    }
+
+    private void report() throws IOException {
+      long now = System.nanoTime();
+      OffsetDateTime eta = totalRows == null ? null : ExportProgress.estimateCompletion(
+        rowsWritten - startRows, Math.max(totalRows - rowsWritten, 0), Duration.ofNanos(now - startNanos),
+        OffsetDateTime.now());
+      Long bytesWritten = exportPath != null && Files.exists(exportPath) ? Files.size(exportPath) : null;
+
+      progressService.updateProgress(uuid, new ExportProgress(rowsWritten, pagesFetched, totalRows,
+        bytesWritten, eta));
+      lastUpdateNanos = now;
+    }
+  }
+
+  /**
+   * Persists a checkpoint of a single-entity export at the end of a page, at most once per configured interval.
+   */
+  private final class Checkpointer implements PageListener {
+    private final UUID uuid;
+    private final TabularOutput<UUID, JsonNode> output;
+    private final Path exportPath;
+    private final Duration interval;
+
+    private long rowsWritten;
+    private long lastCheckpointNanos = System.nanoTime();
+
+    private Checkpointer(UUID uuid, TabularOutput<UUID, JsonNode> output, Path exportPath, long rowsWritten) {
+      this.uuid = uuid;
+      this.output = output;
+      this.exportPath = exportPath;
+      this.rowsWritten = rowsWritten;
+      this.interval = dataExportConfig.getExportCheckpointInterval();
+    }
+
+    @Override
+    public void onPageProcessed(List<FieldValue> lastSortValues, int hitCount) throws IOException {
+      rowsWritten += hitCount;
+      if (System.nanoTime() - lastCheckpointNanos < interval.toNanos()) {
+        return;
+      }
+
+      // the file is removed if the export is removed while running
+      throwIfCancelled(uuid);
+
+      // make sure everything up to the last hit is on disk before recording the offset
+      output.flush();
+      checkpointService.saveCheckpoint(uuid,
+        ExportCheckpoint.of(lastSortValues, rowsWritten, Files.size(exportPath)));
+      lastCheckpointNanos = System.nanoTime();
+    }
+  }
+}
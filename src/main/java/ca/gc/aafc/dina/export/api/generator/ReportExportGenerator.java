@@ -0,0 +1,188 @@
+package ca.gc.aafc.dina.export.api.generator;
+
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ca.gc.aafc.dina.export.api.config.DataExportConfig;
+import ca.gc.aafc.dina.export.api.config.UserNotificationQueueProperties;
+import ca.gc.aafc.dina.export.api.dto.ReportRequestDto;
+import ca.gc.aafc.dina.export.api.entity.DataExport;
+import ca.gc.aafc.dina.export.api.entity.ReportTemplate;
+import ca.gc.aafc.dina.export.api.service.DataExportProgressService;
+import ca.gc.aafc.dina.export.api.service.DataExportStatusService;
+import ca.gc.aafc.dina.export.api.service.ExportCancellationService;
+import ca.gc.aafc.dina.export.api.service.ReportRequestService;
+import ca.gc.aafc.dina.export.api.service.ReportTemplateService;
+import ca.gc.aafc.dina.export.api.service.TransactionWrapper;
+import ca.gc.aafc.dina.messaging.message.UserMessageNotification;
+import ca.gc.aafc.dina.messaging.producer.DinaMessageProducer;
+
+import static ca.gc.aafc.dina.export.api.config.JacksonTypeReferences.MAP_TYPEREF;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Generates a report (labels) asynchronously using the same lifecycle as the other exports.
+ * The template uuid and the path of the payload of the request are provided in the transitive data of the export.
+ * The payload is written in the directory of the export on creation (see {@link #writePayload(UUID, Map)}) so it is not
+ * kept in memory while the report waits to be generated.
+ * The report is generated in the directory of the export.
+ */
+@Service
+@Log4j2
+public class ReportExportGenerator extends DataExportGenerator {
+
+  private final DataExportConfig dataExportConfig;
+  private final ReportRequestService reportRequestService;
+  private final ReportTemplateService reportTemplateService;
+  private final TransactionWrapper transactionWrapper;
+  private final DataExportProgressService progressService;
+  private final DinaMessageProducer messageProducer;
+  private final ObjectMapper objectMapper;
+
+  public ReportExportGenerator(DataExportConfig dataExportConfig,
+                               ReportRequestService reportRequestService,
+                               ReportTemplateService reportTemplateService,
+                               TransactionWrapper transactionWrapper,
+                               DataExportStatusService dataExportStatusService,
+                               DataExportProgressService progressService,
+                               ExportCancellationService cancellationService,
+                               DinaMessageProducer messageProducer,
+                               ObjectMapper objectMapper) {
+    super(dataExportStatusService, cancellationService);
+    this.dataExportConfig = dataExportConfig;
+    this.reportRequestService = reportRequestService;
+    this.reportTemplateService = reportTemplateService;
+    this.transactionWrapper = transactionWrapper;
+    this.progressService = progressService;
+    this.messageProducer = messageProducer;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public String generateFilename(DataExport dataExport) {
+    return ReportRequestService.getReportFilename(findTemplate(dataExport));
+  }
+
+  @Async(DataExportConfig.REPORT_EXECUTOR_BEAN_NAME)
+  @Override
+  public CompletableFuture<UUID> export(DataExport dinaExport) throws IOException {
+    try {
+      if (isCancelled(dinaExport.getUuid())) {
+        log.info("Report {} cancelled before it started", dinaExport.getUuid());
+        return CompletableFuture.completedFuture(dinaExport.getUuid());
+      }
+
+      DataExport.ExportStatus currStatus = findStatus(dinaExport.getUuid());
+      if (currStatus != DataExport.ExportStatus.NEW) {
+        log.error("Unexpected DataExport status: {}", currStatus);
+        return CompletableFuture.completedFuture(dinaExport.getUuid());
+      }
+
+      updateStatus(dinaExport.getUuid(), DataExport.ExportStatus.RUNNING);
+      try {
+        ReportTemplate template = findTemplate(dinaExport);
+        Path payloadFile = Path.of(dinaExport.getTransitiveData().get(DataExportConfig.REPORT_PAYLOAD_PATH));
+        ReportRequestDto reportRequest = ReportRequestDto.builder()
+          .reportTemplateUUID(template.getUuid())
+          .payload(objectMapper.readValue(payloadFile.toFile(), MAP_TYPEREF))
+          .build();
+
+        long elements = ReportRequestService.countElements(reportRequest);
+        progressService.updateProgress(dinaExport.getUuid(), new ExportProgress(0, 0, elements, null, null));
+
+        throwIfCancelled(dinaExport.getUuid());
+        reportRequestService.generateReport(template, reportRequest, getExportDirectory(dinaExport));
+        throwIfCancelled(dinaExport.getUuid());
+
+        Files.deleteIfExists(payloadFile);
+
+        progressService.updateProgress(dinaExport.getUuid(), new ExportProgress(elements, 0, elements, null, null));
+        updateStatus(dinaExport.getUuid(), DataExport.ExportStatus.COMPLETED);
+        messageProducer.send(buildUserMessageNotification(dinaExport));
+      } catch (CancellationException cEx) {
+        log.info("Report {} cancelled, removing generated files", dinaExport.getUuid());
+        try {
+          deleteExport(dinaExport);
+        } catch (IOException ioEx) {
+          log.warn("Can't remove generated files of cancelled report {}", dinaExport.getUuid(), ioEx);
+        }
+      } catch (IOException | RuntimeException ex) {
+        log.error("Report {} failed", dinaExport.getUuid(), ex);
+        updateStatus(dinaExport.getUuid(), DataExport.ExportStatus.ERROR);
+        throw ex;
+      }
+      return CompletableFuture.completedFuture(dinaExport.getUuid());
+    } finally {
+      exportDone(dinaExport);
+    }
+  }
+
+  @Override
+  public void deleteExport(DataExport dinaExport) throws IOException {
+    if (dinaExport.getExportType() != DataExport.ExportType.REPORT) {
+      throw new IllegalArgumentException("Should only be used for ExportType REPORT");
+    }
+
+    // the directory also contains the intermediate files (e.g. barcodes)
+    Path exportDirectory = getExportDirectory(dinaExport);
+    if (DataExportConfig.isDataExportDirectory(exportDirectory, dinaExport)) {
+      FileSystemUtils.deleteRecursively(exportDirectory);
+    }
+  }
+
+  /**
+   * Writes the payload of a report request in the directory of the export.
+   * @param uuid uuid of the export
+   * @param payload
+   * @return path of the payload file, to be provided in the transitive data of the export
+   * @throws IOException
+   */
+  public Path writePayload(UUID uuid, Map<String, Object> payload) throws IOException {
+    Path payloadFile = Files.createDirectories(getExportDirectory(uuid))
+      .resolve(DataExportConfig.REPORT_PAYLOAD_FILENAME);
+    objectMapper.writeValue(payloadFile.toFile(), payload);
+    return payloadFile;
+  }
+
+  private Path getExportDirectory(DataExport dinaExport) {
+    return getExportDirectory(dinaExport.getUuid());
+  }
+
+  private Path getExportDirectory(UUID uuid) {
+    return dataExportConfig.getGeneratedDataExportsPath().resolve(uuid.toString());
+  }
+
+  private ReportTemplate findTemplate(DataExport dataExport) {
+    UUID templateUuid = UUID.fromString(dataExport.getTransitiveData().get(DataExportConfig.REPORT_TEMPLATE_UUID));
+    ReportTemplate template = transactionWrapper.runInsideReadTransaction(
+      () -> reportTemplateService.findOne(templateUuid, ReportTemplate.class));
+    if (template == null) {
+      throw new IllegalArgumentException("ReportTemplate " + templateUuid + " not found");
+    }
+    return template;
+  }
+
+  private UserMessageNotification buildUserMessageNotification(DataExport dinaExport) {
+    return UserMessageNotification
+      .builder()
+      .username(dinaExport.getCreatedBy())
+      .title("Report Ready")
+      .notificationType(UserNotificationQueueProperties.NotificationType.REPORT_READY.name())
+      .notificationParams(Map.of("id", dinaExport.getUuid().toString()))
+      .expiresOn(LocalDateTime.now().plusWeeks(2).atZone(ZoneId.systemDefault()).toOffsetDateTime())
+      .build();
+  }
+}
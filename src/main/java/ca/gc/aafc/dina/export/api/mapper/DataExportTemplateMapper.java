@@ -1,6 +1,7 @@
 package ca.gc.aafc.dina.export.api.mapper;
 
 import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 
 import org.mapstruct.BeanMapping;
@@ -8,6 +9,7 @@ import org.mapstruct.Context;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
+import org.mapstruct.Mappings;
 import org.mapstruct.Named;
 import org.mapstruct.NullValuePropertyMappingStrategy;
 import org.mapstruct.factory.Mappers;
@@ -24,15 +26,24 @@ public interface DataExportTemplateMapper extends DinaMapperV2<DataExportTemplat
   DataExportTemplateMapper INSTANCE = Mappers.getMapper(DataExportTemplateMapper.class);
 
   @Override
-  @Mapping(source = "schema", target = "schema", qualifiedByName = "schemaToDto")
+  @Mappings({
+    @Mapping(source = "query", target = "query", qualifiedByName = "mapToJson"),
+    @Mapping(source = "schema", target = "schema", qualifiedByName = "schemaToDto")
+  })
   DataExportTemplateDto toDto(DataExportTemplate entity,  @Context Set<String> provided,  @Context String scope);
 
   @Override
-  @Mapping(source = "schema", target = "schema", qualifiedByName = "schemaToEntity")
+  @Mappings({
+    @Mapping(source = "query", target = "query", qualifiedByName = "jsonToMap"),
+    @Mapping(source = "schema", target = "schema", qualifiedByName = "schemaToEntity")
+  })
   DataExportTemplate toEntity(DataExportTemplateDto dto,  @Context Set<String> provided,  @Context String scope);
 
   @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
-  @Mapping(source = "schema", target = "schema", qualifiedByName = "schemaToEntity")
+  @Mappings({
+    @Mapping(source = "query", target = "query", qualifiedByName = "jsonToMap"),
+    @Mapping(source = "schema", target = "schema", qualifiedByName = "schemaToEntity")
+  })
   void patchEntity(@MappingTarget DataExportTemplate entity, DataExportTemplateDto dto,
                    @Context Set<String> provided, @Context String scope);
 
@@ -65,4 +76,14 @@ public interface DataExportTemplateMapper extends DinaMapperV2<DataExportTemplat
     return result;
   }
 
+  @Named("mapToJson")
+  static String mapToJsonString(Map<String, Object> query) {
+    return DataExportMapper.mapToJsonString(query);
+  }
+
+  @Named("jsonToMap")
+  static Map<String, Object> jsonStringToMap(String query) {
+    return DataExportMapper.jsonStringToMap(query);
+  }
+
 }
@@ -0,0 +1,102 @@
+package ca.gc.aafc.dina.export.api.output;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static ca.gc.aafc.dina.export.api.config.JacksonTypeReferences.MAP_TYPEREF;
+
+/**
+ * Converts an array of objects, under a field of a json document, to a tabular output.
+ * The document is read token by token and each object is written as soon as it is read so the memory used doesn't
+ * depend on the size of the array.
+ */
+public final class JsonArrayTabularConverter {
+
+  private JsonArrayTabularConverter() {
+    // utility class
+  }
+
+  /**
+   * Writes each object of the array as a record.
+   * Headers are the declared headers (if any) followed by the keys of the first object that are not declared.
+   * @param objectMapper used to read the objects
+   * @param json json document
+   * @param arrayField name of the top-level field containing the array
+   * @param declaredHeaders optional, can be null
+   * @param writer won't be closed. Responsibility of the caller.
+   * @return number of records written
+   * @throws IOException if the field can't be found or is not an array of objects
+   */
+  public static int convert(ObjectMapper objectMapper, InputStream json, String arrayField,
+                            List<String> declaredHeaders, Writer writer) throws IOException {
+    try (JsonParser parser = objectMapper.createParser(json)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IOException("Expected a json object");
+      }
+
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String fieldName = parser.currentName();
+        JsonToken valueToken = parser.nextToken();
+        if (arrayField.equals(fieldName)) {
+          if (valueToken != JsonToken.START_ARRAY) {
+            throw new IOException("Can't find " + arrayField + " element");
+          }
+          return writeArray(objectMapper, parser, declaredHeaders, writer);
+        }
+        parser.skipChildren();
+      }
+    }
+    throw new IOException("Can't find " + arrayField + " element");
+  }
+
+  private static int writeArray(ObjectMapper objectMapper, JsonParser parser, List<String> declaredHeaders,
+                                Writer writer) throws IOException {
+
+    // the first object is read before creating the output since it is used for the headers
+    JsonToken token = parser.nextToken();
+    Map<String, Object> first;
+    if (token == JsonToken.START_OBJECT) {
+      first = objectMapper.readValue(parser, MAP_TYPEREF);
+    } else if (token == JsonToken.END_ARRAY) {
+      first = null;
+    } else {
+      throw new IOException("Expected an array of objects");
+    }
+
+    Set<String> headers = new LinkedHashSet<>();
+    if (declaredHeaders != null) {
+      headers.addAll(declaredHeaders);
+    }
+    if (first != null) {
+      headers.addAll(first.keySet());
+    }
+
+    int count = 0;
+    try (TabularOutput<Object, Map<String, Object>> output = TabularOutput.create(
+      TabularOutput.TabularOutputArgs.builder().headers(List.copyOf(headers)).build(), MAP_TYPEREF, writer)) {
+      if (first == null) {
+        return count;
+      }
+      output.addRecord(null, first);
+      count++;
+
+      while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+        output.addRecord(null, objectMapper.readValue(parser, MAP_TYPEREF));
+        count++;
+      }
+      if (token != JsonToken.END_ARRAY) {
+        throw new IOException("Expected an array of objects");
+      }
+    }
+    return count;
+  }
+}
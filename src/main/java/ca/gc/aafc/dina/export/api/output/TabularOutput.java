@@ -70,7 +70,8 @@ public final class TabularOutput<I, T> implements DataOutput<I, T> {
   private static <I, T> TabularOutput<I, T> createTabularFileNoAlias(TabularOutputArgs tabularOutputArgs, TypeReference<T> typeRef,
                                                                Writer writer) throws IOException {
 
-    CsvSchema csvSchema = buildCsvSchema(tabularOutputArgs.getHeaders(), true, tabularOutputArgs);
+    CsvSchema csvSchema = buildCsvSchema(tabularOutputArgs.getHeaders(), !tabularOutputArgs.isSkipHeader(),
+      tabularOutputArgs);
     CsvMapper csvMapper = new CsvMapper();
     csvMapper.configure(JsonGenerator.Feature.IGNORE_UNKNOWN, true);
     return new TabularOutput<>(csvMapper.writerFor(typeRef)
@@ -108,15 +109,16 @@ public final class TabularOutput<I, T> implements DataOutput<I, T> {
     }
 
     // Write all the header aliases first
-    CsvSchema csvHeaderSchema = buildCsvSchema(headersAliases, true, tabularOutputArgs);
-    CsvMapper csvMapper = new CsvMapper();
-    SequenceWriter ow = csvMapper.writer().with(csvHeaderSchema).writeValues(writer);
-    ow.write(null);
-    ow.flush();
+    if (!tabularOutputArgs.isSkipHeader()) {
+      CsvSchema csvHeaderSchema = buildCsvSchema(headersAliases, true, tabularOutputArgs);
+      SequenceWriter ow = new CsvMapper().writer().with(csvHeaderSchema).writeValues(writer);
+      ow.write(null);
+      ow.flush();
+    }
 
     //Use the real headers but configure the builder to not write them (since we have the aliases)
     CsvSchema csvSchema = buildCsvSchema(tabularOutputArgs.getHeaders(), false, tabularOutputArgs);
-    csvMapper = new CsvMapper();
+    CsvMapper csvMapper = new CsvMapper();
     csvMapper.configure(JsonGenerator.Feature.IGNORE_UNKNOWN, true);
     return new TabularOutput<>(csvMapper.writerFor(typeRef)
       .with(csvSchema).writeValues(writer), tabularOutputArgs.isEnableIdTracking());
@@ -186,6 +188,14 @@ public final class TabularOutput<I, T> implements DataOutput<I, T> {
     addRecord(id, record);
   }
 
+  /**
+   * Flushes the records written so far to the underlying writer (and flushes it).
+   * @throws IOException
+   */
+  public void flush() throws IOException {
+    sw.flush();
+  }
+
   @Override
   public void close() throws IOException {
     sw.close();
@@ -202,5 +212,9 @@ public final class TabularOutput<I, T> implements DataOutput<I, T> {
      * When enabled, use addRecord(I id, T record) to track and skip duplicates.
      */
     private final boolean enableIdTracking;
+    /**
+     * Do not write the header line. Used when appending to an existing output.
+     */
+    private final boolean skipHeader;
   }
 }
@@ -19,9 +19,15 @@ import com.toedter.spring.hateoas.jsonapi.JsonApiModelBuilder;
 
 import ca.gc.aafc.dina.dto.JsonApiDto;
 import ca.gc.aafc.dina.exception.ResourceNotFoundException;
+import ca.gc.aafc.dina.export.api.config.DataExportConfig;
+import ca.gc.aafc.dina.export.api.config.ReportTemplateConfig;
+import ca.gc.aafc.dina.export.api.dto.DataExportDto;
 import ca.gc.aafc.dina.export.api.dto.ReportRequestDto;
 import ca.gc.aafc.dina.export.api.dto.ReportTemplateDto;
+import ca.gc.aafc.dina.export.api.entity.DataExport;
 import ca.gc.aafc.dina.export.api.entity.ReportTemplate;
+import ca.gc.aafc.dina.export.api.generator.ReportExportGenerator;
+import ca.gc.aafc.dina.export.api.service.DataExportService;
 import ca.gc.aafc.dina.export.api.service.ReportRequestService;
 import ca.gc.aafc.dina.export.api.service.ReportTemplateService;
 import ca.gc.aafc.dina.json.JsonDocumentInspector;
@@ -36,7 +42,9 @@ import static ca.gc.aafc.dina.export.api.config.JacksonTypeReferences.MAP_TYPERE
 import static com.toedter.spring.hateoas.jsonapi.MediaTypes.JSON_API_VALUE;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.nio.file.Path;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -53,6 +61,10 @@ public class ReportRequestRepository {
 
   private final ReportRequestService reportRequestService;
   private final ReportTemplateService reportService;
+  private final DataExportService dataExportService;
+  private final ReportExportGenerator reportExportGenerator;
+  private final ReportTemplateConfig reportTemplateConfig;
+  private final DinaAuthenticatedUser authenticatedUser;
   private final ObjectMapper objMapper;
   private final JsonApiModelAssistant<ReportRequestDto> jsonApiModelAssistant;
 
@@ -61,12 +73,19 @@ public class ReportRequestRepository {
     Optional<DinaAuthenticatedUser> dinaAuthenticatedUser,
     ReportRequestService reportRequestService,
     ReportTemplateService reportService,
+    DataExportService dataExportService,
+    ReportExportGenerator reportExportGenerator,
+    ReportTemplateConfig reportTemplateConfig,
     BuildProperties buildProperties,
     ObjectMapper objMapper
   ) {
     this.authorizationService = authorizationService;
     this.reportRequestService = reportRequestService;
     this.reportService = reportService;
+    this.dataExportService = dataExportService;
+    this.reportExportGenerator = reportExportGenerator;
+    this.reportTemplateConfig = reportTemplateConfig;
+    this.authenticatedUser = dinaAuthenticatedUser.orElse(null);
     this.objMapper = objMapper;
 
     this.jsonApiModelAssistant = new JsonApiModelAssistant<>(buildProperties.getVersion());
@@ -94,6 +113,16 @@ public class ReportRequestRepository {
       throw ResourceNotFoundException.create(ReportTemplateDto.TYPENAME, reportTemplateUUID);
     }
 
+    if (isAsync(dto)) {
+      DataExport dataExport = createReportExport(reportTemplateEntity, dto);
+      // the identifier is the one of the export, the status is available as a data-export
+      dto.setUuid(dataExport.getUuid());
+      RepresentationModel<?> model = buildModel(dto);
+      return ResponseEntity.accepted()
+        .location(URI.create(DataExportDto.TYPENAME + "/" + dataExport.getUuid()))
+        .body(model);
+    }
+
     try {
       ReportRequestService.ReportGenerationResult result = reportRequestService.generateReport(reportTemplateEntity, dto);
       // return the identifier assigned by the service
@@ -102,17 +131,67 @@ public class ReportRequestRepository {
       throw new RuntimeException(e);
     }
 
+    RepresentationModel<?> model = buildModel(dto);
+    URI uri = model.getRequiredLink(IanaLinkRelations.SELF).toUri();
+
+    return ResponseEntity.created(uri).body(model);
+
+  }
+
+  private RepresentationModel<?> buildModel(ReportRequestDto dto) {
     JsonApiDto.JsonApiDtoBuilder<ReportRequestDto> jsonApiDtoBuilder = JsonApiDto.builder();
     jsonApiDtoBuilder.dto(dto);
 
     JsonApiModelBuilder builder = jsonApiModelAssistant.createJsonApiModelBuilder(jsonApiDtoBuilder.build());
     builder.link(generateLinkToResource(dto));
+    return builder.build();
+  }
 
-    RepresentationModel<?> model = builder.build();
-    URI uri = model.getRequiredLink(IanaLinkRelations.SELF).toUri();
+  /**
+   * Should the report be generated asynchronously ? Either requested or because the payload is large.
+   * @param dto
+   * @return
+   */
+  private boolean isAsync(ReportRequestDto dto) {
+    if (Boolean.TRUE.equals(dto.getAsync())) {
+      return true;
+    }
+    Integer threshold = reportTemplateConfig.getAsyncElementThreshold();
+    return threshold != null && ReportRequestService.countElements(dto) > threshold;
+  }
 
-    return ResponseEntity.created(uri).body(model);
+  /**
+   * Creates a DataExport of type REPORT. The report will be generated once the transaction is committed.
+   * The payload is written to a file in the directory of the export, only its path is kept with the export.
+   */
+  private DataExport createReportExport(ReportTemplate reportTemplate, ReportRequestDto dto) {
+    DataExport dataExport = new DataExport();
+    dataExport.setUuid(UUID.randomUUID());
 
+    Path payloadFile;
+    try {
+      payloadFile = reportExportGenerator.writePayload(dataExport.getUuid(), dto.getPayload());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    dataExport.setExportType(DataExport.ExportType.REPORT);
+    dataExport.setName(reportTemplate.getName());
+    dataExport.setCreatedBy(authenticatedUser != null ? authenticatedUser.getUsername() : null);
+    dataExport.setSource(DataExportConfig.REPORT_SOURCE);
+    dataExport.setTransitiveData(Map.of(
+      DataExportConfig.REPORT_TEMPLATE_UUID, reportTemplate.getUuid().toString(),
+      DataExportConfig.REPORT_PAYLOAD_PATH, payloadFile.toString()));
+    try {
+      return dataExportService.create(dataExport);
+    } catch (RuntimeException e) {
+      try {
+        reportExportGenerator.deleteExport(dataExport);
+      } catch (IOException ioEx) {
+        e.addSuppressed(ioEx);
+      }
+      throw e;
+    }
   }
 
   protected <S extends ReportRequestDto> void checkSubmittedData(S resource) {
@@ -0,0 +1,137 @@
+package ca.gc.aafc.dina.export.api.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PreDestroy;
+
+import org.springframework.stereotype.Service;
+
+import com.google.zxing.WriterException;
+
+import ca.gc.aafc.dina.export.api.config.ReportTemplateConfig;
+import ca.gc.aafc.dina.export.api.entity.ReportTemplate;
+import ca.gc.aafc.dina.export.api.generator.BarcodeGenerator;
+
+/**
+ * Generates the barcodes of a report in parallel on a bounded pool.
+ * Generated images are kept in a LRU cache keyed by content and options since the same identifiers are
+ * frequently printed again.
+ */
+@Service
+public class BarcodeService {
+
+  private final BarcodeGenerator barcodeGenerator;
+  private final ExecutorService executor;
+  private final Map<BarcodeKey, byte[]> cache;
+
+  /**
+   * Key of the cache.
+   * @param content content of the code
+   * @param option options used to generate the code
+   * @param imageFormat
+   */
+  private record BarcodeKey(String content, BarcodeGenerator.CodeGenerationOption option,
+                            ReportTemplate.BarcodeImageFormat imageFormat) {
+  }
+
+  public BarcodeService(BarcodeGenerator barcodeGenerator, ReportTemplateConfig reportTemplateConfig) {
+    this.barcodeGenerator = barcodeGenerator;
+
+    AtomicInteger threadNumber = new AtomicInteger();
+    ThreadFactory threadFactory = r -> {
+      Thread t = new Thread(r, "BarcodeGenerator-" + threadNumber.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    };
+    this.executor = Executors.newFixedThreadPool(Math.max(1, reportTemplateConfig.getBarcodeThreads()),
+      threadFactory);
+
+    int cacheSize = reportTemplateConfig.getBarcodeCacheSize();
+    this.cache = cacheSize > 0 ? Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<BarcodeKey, byte[]> eldest) {
+        return size() > cacheSize;
+      }
+    }) : null;
+  }
+
+  /**
+   * Generates the image of each barcode. Identical contents are only generated once.
+   * @param barcodeSpecs
+   * @param option
+   * @param imageFormat
+   * @return image by barcode id
+   * @throws IOException
+   */
+  public Map<String, byte[]> createCodes(Collection<ReportRequestService.BarcodeSpecs> barcodeSpecs,
+                                         BarcodeGenerator.CodeGenerationOption option,
+                                         ReportTemplate.BarcodeImageFormat imageFormat) throws IOException {
+    Map<String, CompletableFuture<byte[]>> futureByContent = new HashMap<>();
+    for (ReportRequestService.BarcodeSpecs specs : barcodeSpecs) {
+      futureByContent.computeIfAbsent(specs.content(),
+        content -> CompletableFuture.supplyAsync(() -> createCode(content, option, imageFormat), executor));
+    }
+
+    Map<String, byte[]> codeById = new HashMap<>();
+    try {
+      for (ReportRequestService.BarcodeSpecs specs : barcodeSpecs) {
+        codeById.put(specs.id(), futureByContent.get(specs.content()).join());
+      }
+    } catch (CompletionException e) {
+      futureByContent.values().forEach(f -> f.cancel(false));
+      if (e.getCause() instanceof IOException ioEx) {
+        throw ioEx;
+      }
+      throw new IOException(e.getCause());
+    }
+    return codeById;
+  }
+
+  /**
+   * Returns the extension of the files of the image format.
+   * @param imageFormat
+   * @return
+   */
+  public static String getExtension(ReportTemplate.BarcodeImageFormat imageFormat) {
+    return imageFormat == ReportTemplate.BarcodeImageFormat.SVG ?
+      BarcodeGenerator.SVG_CODE_OUTPUT_FORMAT : BarcodeGenerator.CODE_OUTPUT_FORMAT;
+  }
+
+  private byte[] createCode(String content, BarcodeGenerator.CodeGenerationOption option,
+                            ReportTemplate.BarcodeImageFormat imageFormat) {
+    BarcodeKey key = new BarcodeKey(content, option, imageFormat);
+    byte[] code = cache != null ? cache.get(key) : null;
+    if (code != null) {
+      return code;
+    }
+
+    try {
+      code = imageFormat == ReportTemplate.BarcodeImageFormat.SVG ?
+        barcodeGenerator.createSvgCode(content, option).getBytes(StandardCharsets.UTF_8) :
+        barcodeGenerator.createCode(content, option);
+    } catch (WriterException | IOException e) {
+      throw new CompletionException(e instanceof IOException ? e : new IOException(e));
+    }
+
+    if (cache != null) {
+      cache.put(key, code);
+    }
+    return code;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+}
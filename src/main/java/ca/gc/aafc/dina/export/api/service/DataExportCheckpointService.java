@@ -0,0 +1,69 @@
+package ca.gc.aafc.dina.export.api.service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ca.gc.aafc.dina.export.api.generator.ExportCheckpoint;
+
+/**
+ * Service class used to persist the checkpoint of a running export.
+ * The checkpoint is not part of the DataExport entity since it is only used internally and updated frequently.
+ * It creates its own transaction to allow usage within an asynchronous task.
+ * Updates of an export that doesn't exist anymore are ignored.
+ */
+@Service
+public class DataExportCheckpointService {
+
+  private static final String UPDATE_SQL =
+    "UPDATE data_export SET checkpoint = CAST(:checkpoint AS jsonb) WHERE uuid = CAST(:uuid AS uuid)";
+  private static final String CLEAR_SQL =
+    "UPDATE data_export SET checkpoint = NULL WHERE uuid = CAST(:uuid AS uuid)";
+  private static final String SELECT_SQL =
+    "SELECT CAST(checkpoint AS varchar) FROM data_export WHERE uuid = CAST(:uuid AS uuid)";
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  private final ObjectMapper objectMapper;
+
+  public DataExportCheckpointService(ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+  }
+
+  @Transactional
+  public void saveCheckpoint(UUID uuid, ExportCheckpoint checkpoint) throws JsonProcessingException {
+    entityManager.createNativeQuery(UPDATE_SQL)
+      .setParameter("checkpoint", objectMapper.writeValueAsString(checkpoint))
+      .setParameter("uuid", uuid.toString())
+      .executeUpdate();
+  }
+
+  @Transactional
+  public void clearCheckpoint(UUID uuid) {
+    entityManager.createNativeQuery(CLEAR_SQL)
+      .setParameter("uuid", uuid.toString())
+      .executeUpdate();
+  }
+
+  @Transactional(readOnly = true)
+  public Optional<ExportCheckpoint> findCheckpoint(UUID uuid) throws JsonProcessingException {
+    @SuppressWarnings("unchecked")
+    List<String> result = entityManager.createNativeQuery(SELECT_SQL)
+      .setParameter("uuid", uuid.toString())
+      .getResultList();
+
+    if (result.isEmpty() || result.get(0) == null) {
+      return Optional.empty();
+    }
+    return Optional.of(objectMapper.readValue(result.get(0), ExportCheckpoint.class));
+  }
+}
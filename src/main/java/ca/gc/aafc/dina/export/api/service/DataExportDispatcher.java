@@ -0,0 +1,280 @@
+package ca.gc.aafc.dina.export.api.service;
+
+import java.io.IOException;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import lombok.extern.log4j.Log4j2;
+
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import ca.gc.aafc.dina.export.api.async.FairExportScheduler;
+import ca.gc.aafc.dina.export.api.config.ExportExecutorsConfig;
+import ca.gc.aafc.dina.export.api.entity.DataExport;
+import ca.gc.aafc.dina.export.api.generator.DataExportGenerator;
+
+/**
+ * Responsible to submit a DataExport to the generator matching its export type.
+ * Each generator runs on the executor dedicated to its export type.
+ *
+ * Exports are not submitted directly to the executor: they wait in a {@link FairExportScheduler} (per export type)
+ * and are submitted when the executor has a free slot. This ensures fairness between users (round-robin and
+ * optional per-user limit) and optionally gives priority to small exports.
+ * When the scheduler is full, the configured {@link ExportExecutorsConfig.RejectionPolicy} is applied.
+ */
+@Log4j2
+@Service
+public class DataExportDispatcher {
+
+  private final DataExportGenerator recordBasedExportGenerator;
+  private final DataExportGenerator objectStoreExportGenerator;
+  private final DataExportGenerator reportExportGenerator;
+  private final DataExportStatusService dataExportStatusService;
+  private final ExportExecutorsConfig executorsConfig;
+  private final ExportCancellationService cancellationService;
+
+  private final Consumer<Future<UUID>> asyncConsumer;
+
+  private final Map<DataExport.ExportType, FairExportScheduler<ScheduledExport>> schedulers =
+    new EnumMap<>(DataExport.ExportType.class);
+
+  // exports rejected by a full scheduler, waiting to be resubmitted
+  private final Deque<DataExport> requeued = new ConcurrentLinkedDeque<>();
+
+  /**
+   * Export waiting in the scheduler.
+   * @param dataExport
+   * @param future completed when the export completes. Given to the asyncConsumer.
+   */
+  private record ScheduledExport(DataExport dataExport, CompletableFuture<UUID> future) {
+  }
+
+  /**
+   *
+   * @param recordBasedExportGenerator
+   * @param objectStoreExportGenerator
+   * @param reportExportGenerator
+   * @param dataExportStatusService
+   * @param executorsConfig
+   * @param cancellationService
+   * @param asyncConsumer optional consumer to get the Future created for the async export
+   */
+  public DataExportDispatcher(DataExportGenerator recordBasedExportGenerator,
+                              DataExportGenerator objectStoreExportGenerator,
+                              DataExportGenerator reportExportGenerator,
+                              DataExportStatusService dataExportStatusService,
+                              ExportExecutorsConfig executorsConfig,
+                              ExportCancellationService cancellationService,
+                              Optional<Consumer<Future<UUID>>> asyncConsumer) {
+    this.recordBasedExportGenerator = recordBasedExportGenerator;
+    this.objectStoreExportGenerator = objectStoreExportGenerator;
+    this.reportExportGenerator = reportExportGenerator;
+    this.dataExportStatusService = dataExportStatusService;
+    this.executorsConfig = executorsConfig;
+    this.cancellationService = cancellationService;
+    this.asyncConsumer = asyncConsumer.orElse(null);
+
+    for (DataExport.ExportType type : DataExport.ExportType.values()) {
+      ExportExecutorsConfig.ExecutorSettings settings = executorsConfig.getSettingsForExportType(type);
+      schedulers.put(type, new FairExportScheduler<>(settings.getMaxPoolSize(),
+        executorsConfig.getMaxRunningPerUser(), executorsConfig.getSmallExportMaxRows(),
+        settings.getQueueCapacity()));
+    }
+  }
+
+  /**
+   * Schedules the export.
+   * If the scheduler is full, the export is either set to ERROR or requeued based on the
+   * rejection policy of the executor.
+   * @param dinaExport
+   */
+  public void dispatch(DataExport dinaExport) {
+    if (!submit(dinaExport)) {
+      handleRejected(dinaExport);
+    }
+  }
+
+  /**
+   * Number of exports waiting to be resubmitted.
+   * @return
+   */
+  public int getRequeuedCount() {
+    return requeued.size();
+  }
+
+  /**
+   * Number of exports waiting for a free slot on the executor.
+   * @param type
+   * @return
+   */
+  public int getWaitingCount(DataExport.ExportType type) {
+    return schedulers.get(type).getWaitingCount();
+  }
+
+  /**
+   * Uuids of the exports waiting in a scheduler or waiting to be resubmitted.
+   * @return
+   */
+  public Set<UUID> getQueuedUuids() {
+    Set<UUID> uuids = new HashSet<>();
+    requeued.forEach(de -> uuids.add(de.getUuid()));
+    schedulers.values().forEach(scheduler ->
+      scheduler.getWaiting().forEach(se -> uuids.add(se.dataExport().getUuid())));
+    return uuids;
+  }
+
+  /**
+   * Removes an export waiting to be submitted or resubmitted (e.g. cancelled).
+   * @param uuid
+   * @return true if the export was waiting
+   */
+  public boolean removeRequeued(UUID uuid) {
+    boolean removed = requeued.removeIf(de -> uuid.equals(de.getUuid()));
+    for (FairExportScheduler<ScheduledExport> scheduler : schedulers.values()) {
+      for (ScheduledExport se : scheduler.remove(se -> uuid.equals(se.dataExport().getUuid()))) {
+        se.future().cancel(false);
+        removed = true;
+      }
+    }
+
+    if (removed) {
+      cancellationService.unregister(uuid);
+    }
+    return removed;
+  }
+
+  /**
+   * Resubmits the requeued exports in the order they were rejected.
+   * Stops at the first rejection since the scheduler is still full.
+   */
+  @Scheduled(fixedDelayString = "#{@exportExecutorsConfig.requeueDelay.toMillis()}")
+  public void resubmitRequeued() {
+    DataExport dinaExport;
+    while ((dinaExport = requeued.poll()) != null) {
+      if (!submit(dinaExport)) {
+        requeued.offerFirst(dinaExport);
+        return;
+      }
+      log.info("Requeued export {} submitted", dinaExport.getUuid());
+    }
+  }
+
+  public DataExportGenerator generatorByExportType(DataExport.ExportType type) {
+    return switch (type) {
+      case TABULAR_DATA -> recordBasedExportGenerator;
+      case OBJECT_ARCHIVE -> objectStoreExportGenerator;
+      case REPORT -> reportExportGenerator;
+    };
+  }
+
+  /**
+   * @return true if the export was accepted by the scheduler, false if it was rejected
+   */
+  private boolean submit(DataExport dinaExport) {
+    CompletableFuture<UUID> future = new CompletableFuture<>();
+    // the generator will unregister the export when done
+    cancellationService.register(dinaExport.getUuid());
+
+    if (!schedulers.get(dinaExport.getExportType())
+      .offer(getUser(dinaExport), new ScheduledExport(dinaExport, future), estimateRows(dinaExport))) {
+      cancellationService.unregister(dinaExport.getUuid());
+      return false;
+    }
+
+    if (asyncConsumer == null) {
+      future.exceptionally(ex -> {
+        log.error("Async exception:", ex);
+        return null;
+      });
+    } else {
+      asyncConsumer.accept(future);
+    }
+
+    runScheduled(dinaExport.getExportType());
+    return true;
+  }
+
+  /**
+   * Submits the exports of the scheduler to the executor while there are free slots.
+   * @param type
+   */
+  private void runScheduled(DataExport.ExportType type) {
+    FairExportScheduler<ScheduledExport> scheduler = schedulers.get(type);
+    ScheduledExport next;
+    while ((next = scheduler.poll()) != null) {
+      runExport(scheduler, next);
+    }
+  }
+
+  private void runExport(FairExportScheduler<ScheduledExport> scheduler, ScheduledExport scheduledExport) {
+    DataExport dinaExport = scheduledExport.dataExport();
+    DataExportGenerator exportGenerator = generatorByExportType(dinaExport.getExportType());
+
+    CompletableFuture<UUID> exportFuture;
+    try {
+      exportFuture = exportGenerator.export(dinaExport);
+    } catch (TaskRejectedException | IOException ex) {
+      scheduler.done(getUser(dinaExport));
+      cancellationService.unregister(dinaExport.getUuid());
+      if (ex instanceof TaskRejectedException) {
+        // should not happen since the scheduler doesn't run more than the executor can handle
+        handleRejected(dinaExport);
+      }
+      scheduledExport.future().completeExceptionally(ex);
+      return;
+    }
+
+    exportFuture.whenComplete((uuid, ex) -> {
+      scheduler.done(getUser(dinaExport));
+      if (ex == null) {
+        scheduledExport.future().complete(uuid);
+      } else {
+        scheduledExport.future().completeExceptionally(ex);
+      }
+      runScheduled(dinaExport.getExportType());
+    });
+  }
+
+  /**
+   * Number of rows of the export, as estimated on creation.
+   * @return number of rows or {@link FairExportScheduler#UNKNOWN_COST}
+   */
+  private static long estimateRows(DataExport dinaExport) {
+    return dinaExport.getEstimatedRowCount() != null ?
+      dinaExport.getEstimatedRowCount() : FairExportScheduler.UNKNOWN_COST;
+  }
+
+  private static String getUser(DataExport dinaExport) {
+    return Objects.toString(dinaExport.getCreatedBy(), "");
+  }
+
+  private void handleRejected(DataExport dinaExport) {
+    ExportExecutorsConfig.RejectionPolicy policy = executorsConfig
+      .getSettingsForExportType(dinaExport.getExportType()).getRejectionPolicy();
+    log.warn("Executor for {} is saturated, export {} rejected. Applying policy {}",
+      dinaExport.getExportType(), dinaExport.getUuid(), policy);
+
+    switch (policy) {
+      // dispatch runs after the commit of the creating transaction, the status must be written in its own
+      case ERROR -> dataExportStatusService.updateStatusInNewTransaction(dinaExport.getUuid(),
+        DataExport.ExportStatus.ERROR);
+      case REQUEUE -> {
+        // keep it registered so a cancellation is not lost
+        cancellationService.register(dinaExport.getUuid());
+        requeued.offerLast(dinaExport);
+      }
+      default -> throw new IllegalStateException("Unsupported rejection policy: " + policy);
+    }
+  }
+}
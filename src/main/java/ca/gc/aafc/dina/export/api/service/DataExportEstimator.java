@@ -0,0 +1,92 @@
+package ca.gc.aafc.dina.export.api.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+import lombok.extern.log4j.Log4j2;
+
+import org.apache.commons.collections4.MapUtils;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ca.gc.aafc.dina.export.api.config.DataExportConfig;
+import ca.gc.aafc.dina.export.api.entity.DataExport;
+import ca.gc.aafc.dina.export.api.entity.DataExportSchemaEntry;
+import ca.gc.aafc.dina.export.api.source.ElasticSearchDataSource;
+
+/**
+ * Cheap pre-flight estimation of the cost of a tabular export.
+ * The number of rows is the Elasticsearch count of the query and the size is based on the number of columns.
+ */
+@Service
+@Log4j2
+public class DataExportEstimator {
+
+  private static final String ES_QUERY_KEY = "query";
+
+  private final ElasticSearchDataSource elasticSearchDataSource;
+  private final DataExportConfig dataExportConfig;
+  private final ObjectMapper objectMapper;
+
+  /**
+   * @param rowCount estimated number of rows (primary entity)
+   * @param sizeInBytes estimated size of the export
+   */
+  public record ExportEstimate(long rowCount, long sizeInBytes) {
+  }
+
+  public DataExportEstimator(ElasticSearchDataSource elasticSearchDataSource,
+                             DataExportConfig dataExportConfig,
+                             ObjectMapper objectMapper) {
+    this.elasticSearchDataSource = elasticSearchDataSource;
+    this.dataExportConfig = dataExportConfig;
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * Estimates the cost of the export.
+   * @param dataExport
+   * @return the estimate or empty if the export is not a tabular export or if it can't be estimated
+   */
+  public Optional<ExportEstimate> estimate(DataExport dataExport) {
+    if (dataExport.getExportType() != DataExport.ExportType.TABULAR_DATA) {
+      return Optional.empty();
+    }
+
+    long rowCount;
+    try {
+      Object queryClause = MapUtils.isNotEmpty(dataExport.getQuery()) ?
+        dataExport.getQuery().get(ES_QUERY_KEY) : null;
+      rowCount = elasticSearchDataSource.count(dataExport.getSource(),
+        queryClause != null ? objectMapper.writeValueAsString(queryClause) : null);
+    } catch (IOException | RuntimeException ex) {
+      log.warn("Can't estimate the number of rows of export {}", dataExport.getUuid(), ex);
+      return Optional.empty();
+    }
+
+    int columnCount = 0;
+    if (MapUtils.isNotEmpty(dataExport.getSchema())) {
+      for (DataExportSchemaEntry entry : dataExport.getSchema().values()) {
+        columnCount += entry.columns() != null ? entry.columns().size() : 0;
+      }
+    }
+
+    // +1 for the line separator
+    long bytesPerRow = (long) columnCount * (dataExportConfig.getEstimatedBytesPerValue() + 1) + 1;
+    return Optional.of(new ExportEstimate(rowCount, rowCount * bytesPerRow));
+  }
+
+  /**
+   * Usable space, in bytes, on the file store of the working folder.
+   * The nearest existing parent is used if the working folder doesn't exist yet.
+   * @return
+   */
+  public long getUsableSpace() {
+    Path path = Path.of(dataExportConfig.getWorkingFolder()).toAbsolutePath();
+    while (path != null && !path.toFile().exists()) {
+      path = path.getParent();
+    }
+    return path == null ? 0 : path.toFile().getUsableSpace();
+  }
+}
@@ -0,0 +1,60 @@
+package ca.gc.aafc.dina.export.api.service;
+
+import java.util.UUID;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import ca.gc.aafc.dina.export.api.event.DataExportProgressEvent;
+import ca.gc.aafc.dina.export.api.generator.ExportProgress;
+
+/**
+ * Service class used to record the progress of a running export.
+ * Progress is updated with a single UPDATE statement instead of loading and saving the entity since it is
+ * updated frequently.
+ * It creates its own transaction to allow usage within an asynchronous task.
+ */
+@Service
+public class DataExportProgressService {
+
+  private static final String UPDATE_SQL = "UPDATE data_export SET rows_written = :rowsWritten, " +
+    "pages_fetched = :pagesFetched, total_rows = :totalRows, bytes_written = :bytesWritten, " +
+    "estimated_completion_on = :estimatedCompletionOn, " +
+    "progress_updated_on = now() WHERE uuid = CAST(:uuid AS uuid)";
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  private final ApplicationEventPublisher eventPublisher;
+
+  public DataExportProgressService(ApplicationEventPublisher eventPublisher) {
+    this.eventPublisher = eventPublisher;
+  }
+
+  /**
+   * Updates the progress of the export. Does nothing if the export doesn't exist anymore.
+   * @param uuid
+   * @param progress
+   */
+  @Transactional
+  public void updateProgress(UUID uuid, ExportProgress progress) {
+    // unknown values are null, they are bound with their type since an untyped null can't be inferred
+    int updated = entityManager.createNativeQuery(UPDATE_SQL)
+      .unwrap(NativeQuery.class)
+      .setParameter("rowsWritten", progress.rowsWritten())
+      .setParameter("pagesFetched", progress.pagesFetched())
+      .setParameter("totalRows", progress.totalRows(), StandardBasicTypes.LONG)
+      .setParameter("bytesWritten", progress.bytesWritten(), StandardBasicTypes.LONG)
+      .setParameter("estimatedCompletionOn", progress.estimatedCompletionOn(), StandardBasicTypes.OFFSET_DATE_TIME)
+      .setParameter("uuid", uuid.toString())
+      .executeUpdate();
+    if (updated > 0) {
+      eventPublisher.publishEvent(new DataExportProgressEvent(uuid, progress));
+    }
+  }
+}
@@ -0,0 +1,162 @@
+package ca.gc.aafc.dina.export.api.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import lombok.extern.log4j.Log4j2;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import ca.gc.aafc.dina.export.api.config.DataExportConfig;
+import ca.gc.aafc.dina.export.api.entity.DataExport;
+import ca.gc.aafc.dina.export.api.file.FileLinks;
+import ca.gc.aafc.dina.export.api.generator.RecordBasedExportGenerator;
+import ca.gc.aafc.dina.jpa.BaseDAO;
+import ca.gc.aafc.dina.messaging.producer.DinaMessageProducer;
+
+/**
+ * Reuses the result of a recently completed tabular export when an identical export is requested.
+ * Exports are identical when their fingerprint (SHA-256 of the canonical form of type, source, query, schema,
+ * functions and export options) is the same.
+ *
+ * The file of the completed export is shared using a hard link (see {@link FileLinks}) so each export
+ * can expire and be removed independently, the content is only removed from disk with the last link.
+ * Reused exports are then completed like generated ones (status event, high-water mark and notification).
+ */
+@Service
+@Log4j2
+public class DataExportReuseService {
+
+  private static final int MAX_CANDIDATES = 5;
+
+  private static final String SELECT_REUSABLE = "SELECT de " +
+    "FROM " + DataExport.class.getCanonicalName() + " de " +
+    "WHERE fingerprint = :fingerprint AND status = :status AND reusedFrom IS NULL AND createdOn > :since " +
+    "ORDER BY createdOn DESC";
+
+  private final BaseDAO baseDAO;
+  private final DataExportConfig dataExportConfig;
+  private final ObjectMapper canonicalMapper;
+  private final DataExportStatusService dataExportStatusService;
+  private final DinaMessageProducer messageProducer;
+
+  public DataExportReuseService(BaseDAO baseDAO, DataExportConfig dataExportConfig, ObjectMapper objectMapper,
+                                DataExportStatusService dataExportStatusService,
+                                DinaMessageProducer messageProducer) {
+    this.baseDAO = baseDAO;
+    this.dataExportConfig = dataExportConfig;
+    this.dataExportStatusService = dataExportStatusService;
+    this.messageProducer = messageProducer;
+    this.canonicalMapper = objectMapper.copy()
+      .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+      .configure(SerializationFeature.INDENT_OUTPUT, false);
+  }
+
+  public boolean isEnabled() {
+    return dataExportConfig.getExportReuseWindow() != null;
+  }
+
+  /**
+   * Computes the fingerprint of the export.
+   * @param dataExport
+   * @return the fingerprint or null if the export type is not tabular data
+   */
+  public String fingerprint(DataExport dataExport) {
+    if (dataExport.getExportType() != DataExport.ExportType.TABULAR_DATA) {
+      return null;
+    }
+
+    Map<String, Object> canonical = new TreeMap<>();
+    canonical.put("exportType", dataExport.getExportType());
+    canonical.put("source", dataExport.getSource());
+    canonical.put("query", dataExport.getQuery());
+    // the order of the schema entries is significant (the first entity is the primary one)
+    canonical.put("schema", dataExport.getSchema() == null ? null :
+      dataExport.getSchema().entrySet().stream().map(e -> List.of(e.getKey(), e.getValue())).toList());
+    canonical.put("functions", dataExport.getFunctions());
+    canonical.put("exportOptions", dataExport.getExportOptions());
+
+    try {
+      byte[] json = canonicalMapper.writeValueAsString(canonical).getBytes(StandardCharsets.UTF_8);
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+    } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Finds the most recent completed export, generated within the reuse window, with the same fingerprint
+   * and with its file still available.
+   * Exports that are themselves reused are ignored so the window is relative to the generation of the data.
+   * @param dataExport
+   * @return
+   */
+  public Optional<DataExport> findReusable(DataExport dataExport) {
+    Duration window = dataExportConfig.getExportReuseWindow();
+    if (window == null || dataExport.getFingerprint() == null) {
+      return Optional.empty();
+    }
+
+    List<DataExport> candidates = baseDAO.findAllByQuery(DataExport.class, SELECT_REUSABLE,
+      List.of(Pair.of("fingerprint", dataExport.getFingerprint()),
+        Pair.of("status", DataExport.ExportStatus.COMPLETED),
+        Pair.of("since", OffsetDateTime.now().minus(window))),
+      MAX_CANDIDATES, 0);
+
+    return candidates.stream()
+      .filter(de -> dataExportConfig.getPathForDataExport(de).map(Files::exists).orElse(false))
+      .findFirst();
+  }
+
+  /**
+   * Links the file of the export it is reused from (reusedFrom) to the location of the provided export.
+   * @param dataExport
+   * @return true if the file was linked, false if it is no longer available
+   */
+  public boolean linkResult(DataExport dataExport) {
+    DataExport source = baseDAO.findOneByNaturalId(dataExport.getReusedFrom(), DataExport.class);
+    Path sourcePath = source != null ? dataExportConfig.getPathForDataExport(source).orElse(null) : null;
+    Path targetPath = dataExportConfig.getPathForDataExport(dataExport).orElse(null);
+    if (sourcePath == null || targetPath == null) {
+      return false;
+    }
+
+    try {
+      Files.createDirectories(targetPath.getParent());
+      FileLinks.linkOrCopy(sourcePath, targetPath);
+    } catch (IOException e) {
+      // the source file may have been removed since it was found
+      log.warn("Can't reuse the result of export {} for export {}", source.getUuid(), dataExport.getUuid(), e);
+      return false;
+    }
+    log.info("Export {} reused the result of export {}", dataExport.getUuid(), source.getUuid());
+    return true;
+  }
+
+  /**
+   * Completes a reused export through the same handling as a generated export: the status is set to COMPLETED
+   * (publishing the status event and advancing the high-water mark of an incremental template) and the user is
+   * notified.
+   * Should be called once the export is committed since the status is updated in a new transaction.
+   * @param dataExport reused export with its result linked
+   */
+  public void completeReused(DataExport dataExport) {
+    dataExportStatusService.updateStatusInNewTransaction(dataExport.getUuid(), DataExport.ExportStatus.COMPLETED);
+    messageProducer.send(RecordBasedExportGenerator.buildUserMessageNotification(dataExport));
+  }
+}
@@ -1,17 +1,17 @@
 package ca.gc.aafc.dina.export.api.service;
 
 import java.io.IOException;
-import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.Future;
-import java.util.function.Consumer;
 import lombok.extern.log4j.Log4j2;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.validation.SmartValidator;
 
 import ca.gc.aafc.dina.export.api.entity.DataExport;
 import ca.gc.aafc.dina.export.api.generator.DataExportGenerator;
+import ca.gc.aafc.dina.export.api.validation.DataExportValidator;
 import ca.gc.aafc.dina.jpa.BaseDAO;
 import ca.gc.aafc.dina.service.DefaultDinaService;
 
@@ -22,28 +22,31 @@ import ca.gc.aafc.dina.service.DefaultDinaService;
 @Service
 public class DataExportService extends DefaultDinaService<DataExport> {
 
-  private final DataExportGenerator recordBasedExportGenerator;
-  private final DataExportGenerator objectStoreExportGenerator;
+  private final DataExportDispatcher dataExportDispatcher;
+  private final ExportJobQueueService jobQueueService;
+  private final ExportCancellationService cancellationService;
+  private final DataExportEstimator dataExportEstimator;
+  private final DataExportValidator dataExportValidator;
+  private final DataExportReuseService dataExportReuseService;
+  private final IncrementalExportService incrementalExportService;
 
-  private final Consumer<Future<UUID>> asyncConsumer;
-
-  /**
-   *
-   * @param baseDAO
-   * @param validator
-   * @param recordBasedExportGenerator
-   * @param objectStoreExportGenerator
-   * @param asyncConsumer optional consumer to get the Future created for the async export
-   */
   public DataExportService(BaseDAO baseDAO,
                            SmartValidator validator,
-                           DataExportGenerator recordBasedExportGenerator,
-                           DataExportGenerator objectStoreExportGenerator,
-                           Optional<Consumer<Future<UUID>>> asyncConsumer) {
+                           DataExportDispatcher dataExportDispatcher,
+                           ExportJobQueueService jobQueueService,
+                           ExportCancellationService cancellationService,
+                           DataExportEstimator dataExportEstimator,
+                           DataExportValidator dataExportValidator,
+                           DataExportReuseService dataExportReuseService,
+                           IncrementalExportService incrementalExportService) {
     super(baseDAO, validator);
-    this.recordBasedExportGenerator = recordBasedExportGenerator;
-    this.objectStoreExportGenerator = objectStoreExportGenerator;
-    this.asyncConsumer = asyncConsumer.orElse(null);
+    this.dataExportDispatcher = dataExportDispatcher;
+    this.jobQueueService = jobQueueService;
+    this.cancellationService = cancellationService;
+    this.dataExportEstimator = dataExportEstimator;
+    this.dataExportValidator = dataExportValidator;
+    this.dataExportReuseService = dataExportReuseService;
+    this.incrementalExportService = incrementalExportService;
   }
 
   @Override
@@ -53,28 +56,75 @@ public class DataExportService extends DefaultDinaService<DataExport> {
       dinaExport.setUuid(UUID.randomUUID());
     }
     dinaExport.setStatus(DataExport.ExportStatus.NEW);
+    incrementalExportService.applyTemplate(dinaExport);
     dinaExport.setFilename(generatorByExportType(dinaExport.getExportType()).generateFilename(dinaExport));
+    dinaExport.setFingerprint(dataExportReuseService.fingerprint(dinaExport));
+    dinaExport.setReusedFrom(null);
+
+    // an identical export completed recently, its result will be linked in postCreate
+    DataExport reusable = dataExportReuseService.findReusable(dinaExport).orElse(null);
+    if (reusable != null) {
+      dinaExport.setStatus(DataExport.ExportStatus.COMPLETED);
+      dinaExport.setReusedFrom(reusable.getUuid());
+      dinaExport.setEstimatedRowCount(reusable.getEstimatedRowCount());
+      dinaExport.setEstimatedSize(reusable.getEstimatedSize());
+      return;
+    }
+
+    // pre-flight estimate, used for admission control and scheduling
+    DataExportEstimator.ExportEstimate estimate = dataExportEstimator.estimate(dinaExport).orElse(null);
+    dinaExport.setEstimatedRowCount(estimate != null ? estimate.rowCount() : null);
+    dinaExport.setEstimatedSize(estimate != null ? estimate.sizeInBytes() : null);
+  }
+
+  @Override
+  public void validateBusinessRules(DataExport entity) {
+    // admission control only applies to new exports
+    if (entity.getStatus() == DataExport.ExportStatus.NEW) {
+      applyBusinessRule(entity, dataExportValidator);
+    }
   }
 
   @Override
   public void postCreate(DataExport dinaExport) {
     flush();
 
-    DataExportGenerator exportGenerator = generatorByExportType(dinaExport.getExportType());
-
-    try {
-      if (asyncConsumer == null) {
-        exportGenerator.export(dinaExport)
-          .exceptionally(ex -> {
-            log.error("Async exception:", ex);
-            return null;
-          });
-      } else {
-        asyncConsumer.accept(exportGenerator.export(dinaExport));
+    if (dinaExport.getReusedFrom() != null) {
+      if (dataExportReuseService.linkResult(dinaExport)) {
+        runAfterCommit(() -> dataExportReuseService.completeReused(dinaExport));
+        return;
       }
-    } catch (IOException e) {
-      throw new RuntimeException(e);
+      // the result is no longer available, generate the export
+      dinaExport.setStatus(DataExport.ExportStatus.NEW);
+      dinaExport.setReusedFrom(null);
+      flush();
+    }
+
+    // lease the export to this instance so it is not claimed by another one
+    if (jobQueueService.isEnabled() && dinaExport.getExportType() == DataExport.ExportType.TABULAR_DATA) {
+      jobQueueService.lease(dinaExport.getUuid());
     }
+    // dispatched once the transaction is committed so the record is visible to the generator
+    runAfterCommit(() -> dataExportDispatcher.dispatch(dinaExport));
+  }
+
+  /**
+   * Runs the action once the transaction is committed. Runs immediately if there is no transaction.
+   * If the transaction is rolled back, the action is never run.
+   * @param action
+   */
+  private static void runAfterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
   }
 
   public DataExport findOne(UUID uuid) {
@@ -86,7 +136,22 @@ public class DataExportService extends DefaultDinaService<DataExport> {
     delete(dinaExport, true);
   }
 
+  /**
+   * Deletes the export. An export that is not completed and that is running on this instance is only cancelled:
+   * the generator will stop at its next check and remove the files and the record.
+   * @param dinaExport
+   * @param callExportGenerator should the generator be called to delete the export file(s)
+   */
   public void delete(DataExport dinaExport, boolean callExportGenerator) {
+    if ((dinaExport.getStatus() == DataExport.ExportStatus.NEW ||
+      dinaExport.getStatus() == DataExport.ExportStatus.RUNNING) &&
+      !dataExportDispatcher.removeRequeued(dinaExport.getUuid()) &&
+      cancellationService.requestRemoval(dinaExport.getUuid())) {
+      log.info("Cancelling export {} ({}), it will be removed by its generator", dinaExport.getUuid(),
+        dinaExport.getStatus());
+      return;
+    }
+
     if (callExportGenerator) {
       DataExportGenerator exportGenerator = generatorByExportType(dinaExport.getExportType());
       try {
@@ -99,9 +164,6 @@ public class DataExportService extends DefaultDinaService<DataExport> {
   }
 
   private DataExportGenerator generatorByExportType(DataExport.ExportType type) {
-    return switch (type) {
-      case TABULAR_DATA -> recordBasedExportGenerator;
-      case OBJECT_ARCHIVE -> objectStoreExportGenerator;
-    };
+    return dataExportDispatcher.generatorByExportType(type);
   }
 }
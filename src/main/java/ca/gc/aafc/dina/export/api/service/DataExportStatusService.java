@@ -2,11 +2,15 @@ package ca.gc.aafc.dina.export.api.service;
 
 import java.util.UUID;
 import javax.persistence.NoResultException;
+import lombok.extern.log4j.Log4j2;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import ca.gc.aafc.dina.export.api.entity.DataExport;
+import ca.gc.aafc.dina.export.api.event.DataExportStatusEvent;
 import ca.gc.aafc.dina.jpa.BaseDAO;
 
 /**
@@ -14,19 +18,61 @@ import ca.gc.aafc.dina.jpa.BaseDAO;
  * It creates its own transaction to allow usage within an asynchronous task.
  */
 @Service
+@Log4j2
 public class DataExportStatusService {
 
   private final BaseDAO baseDAO;
+  private final IncrementalExportService incrementalExportService;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ExportJobQueueService jobQueueService;
 
-  public DataExportStatusService(BaseDAO baseDAO) {
+  public DataExportStatusService(BaseDAO baseDAO, IncrementalExportService incrementalExportService,
+                                 ApplicationEventPublisher eventPublisher,
+                                 ExportJobQueueService jobQueueService) {
     this.baseDAO = baseDAO;
+    this.incrementalExportService = incrementalExportService;
+    this.eventPublisher = eventPublisher;
+    this.jobQueueService = jobQueueService;
   }
 
+  /**
+   * Updates the status of the export. Does nothing if the export doesn't exist anymore (e.g. removed by another
+   * instance while running).
+   * @param uuid
+   * @param newStatus
+   */
   @Transactional
   public void updateStatus(UUID uuid, DataExport.ExportStatus newStatus) {
     DataExport da = baseDAO.findOneByNaturalId(uuid, DataExport.class);
+    if (da == null) {
+      log.warn("Export {} not found, status {} ignored", uuid, newStatus);
+      return;
+    }
     da.setStatus(newStatus);
     baseDAO.update(da);
+
+    if (newStatus == DataExport.ExportStatus.COMPLETED) {
+      incrementalExportService.advanceHighWaterMark(da);
+    }
+
+    DataExportStatusEvent event = new DataExportStatusEvent(uuid, newStatus);
+    if (event.isTerminal()) {
+      // nothing left to run, no need to keep it leased
+      jobQueueService.release(uuid);
+    }
+    eventPublisher.publishEvent(event);
+  }
+
+  /**
+   * Same as {@link #updateStatus(UUID, DataExport.ExportStatus)} but always in a new transaction.
+   * Required when called from a transaction that is already committed (e.g. afterCommit callback) since joining it
+   * would not write the change.
+   * @param uuid
+   * @param newStatus
+   */
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  public void updateStatusInNewTransaction(UUID uuid, DataExport.ExportStatus newStatus) {
+    updateStatus(uuid, newStatus);
   }
 
   /**
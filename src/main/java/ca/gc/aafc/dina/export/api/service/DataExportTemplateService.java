@@ -15,12 +15,15 @@ import ca.gc.aafc.dina.service.DefaultDinaService;
 public class DataExportTemplateService extends DefaultDinaService<DataExportTemplate> {
 
   private final DataExportTemplateValidator dataExportTemplateValidator;
+  private final ScheduledExportService scheduledExportService;
 
   public DataExportTemplateService(@NonNull BaseDAO baseDAO,
                                    DataExportTemplateValidator dataExportTemplateValidator,
-                                   @NonNull SmartValidator validator) {
+                                   @NonNull SmartValidator validator,
+                                   ScheduledExportService scheduledExportService) {
     super(baseDAO, validator);
     this.dataExportTemplateValidator = dataExportTemplateValidator;
+    this.scheduledExportService = scheduledExportService;
   }
 
   @Override
@@ -29,6 +32,21 @@ public class DataExportTemplateService extends DefaultDinaService<DataExportTemp
     if (dinaExportTemplate.getUuid() == null) {
       dinaExportTemplate.setUuid(UUID.randomUUID());
     }
+    dinaExportTemplate.setNextRunOn(scheduledExportService.computeNextRun(dinaExportTemplate.getCronSchedule()));
+  }
+
+  /**
+   * nextRunOn is read-only, a value provided by the client is ignored.
+   * The next run is only recomputed when the schedule changed (or was never computed), otherwise editing a template
+   * would postpone its run and draw a new jitter.
+   */
+  @Override
+  public void preUpdate(DataExportTemplate dinaExportTemplate) {
+    if (dinaExportTemplate.isCronScheduleChanged() || dinaExportTemplate.getLoadedNextRunOn() == null) {
+      dinaExportTemplate.setNextRunOn(scheduledExportService.computeNextRun(dinaExportTemplate.getCronSchedule()));
+    } else {
+      dinaExportTemplate.setNextRunOn(dinaExportTemplate.getLoadedNextRunOn());
+    }
   }
 
   @Override
@@ -0,0 +1,148 @@
+package ca.gc.aafc.dina.export.api.service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.log4j.Log4j2;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import ca.gc.aafc.dina.export.api.entity.DataExport;
+import ca.gc.aafc.dina.jpa.BaseDAO;
+
+/**
+ * Keeps track of the exports running on this instance and of the exports that should be cancelled.
+ * Cancellation is cooperative: generators are expected to call {@link #throwIfCancelled(UUID)} between
+ * units of work (pages, chunks).
+ *
+ * An export deleted by another instance is detected by periodically checking that the running exports still exist.
+ * An export deleted on this instance while registered is only cancelled, its generator removes its files and record
+ * once it stops.
+ */
+@Service
+@Log4j2
+public class ExportCancellationService {
+
+  private static final String SELECT_BY_UUIDS = "SELECT de " +
+    "FROM " + DataExport.class.getCanonicalName() + " de WHERE uuid IN (:uuids)";
+
+  private final BaseDAO baseDAO;
+
+  private final Set<UUID> running = ConcurrentHashMap.newKeySet();
+  private final Set<UUID> cancelled = ConcurrentHashMap.newKeySet();
+  private final Set<UUID> removalRequested = ConcurrentHashMap.newKeySet();
+
+  public ExportCancellationService(BaseDAO baseDAO) {
+    this.baseDAO = baseDAO;
+  }
+
+  /**
+   * Registers an export as submitted to run on this instance.
+   * The export must be committed: a registered export not visible in the database is considered removed and
+   * cancelled by {@link #cancelRemovedExports()}. This is why exports are dispatched after commit.
+   * @param uuid
+   */
+  public void register(UUID uuid) {
+    running.add(uuid);
+  }
+
+  /**
+   * Unregisters an export once it's done (completed, failed or cancelled).
+   * @param uuid
+   * @return true if the removal of the export was requested while it was registered. The caller is then
+   *   responsible for removing its files and its record ({@link #deleteRecord(UUID)}).
+   */
+  public synchronized boolean unregister(UUID uuid) {
+    running.remove(uuid);
+    cancelled.remove(uuid);
+    return removalRequested.remove(uuid);
+  }
+
+  /**
+   * Requests the cancellation and the removal of an export registered on this instance.
+   * Files and record are removed when the export is unregistered by its generator.
+   * @param uuid
+   * @return false if the export is not registered on this instance, the caller is then responsible for the removal
+   */
+  public synchronized boolean requestRemoval(UUID uuid) {
+    if (!running.contains(uuid)) {
+      return false;
+    }
+    cancelled.add(uuid);
+    removalRequested.add(uuid);
+    return true;
+  }
+
+  /**
+   * Deletes the record of an export removed while it was running. Does nothing if it doesn't exist anymore.
+   * @param uuid
+   */
+  @Transactional
+  public void deleteRecord(UUID uuid) {
+    DataExport dataExport = baseDAO.findOneByNaturalId(uuid, DataExport.class);
+    if (dataExport != null) {
+      baseDAO.delete(dataExport);
+    }
+  }
+
+  /**
+   * @return uuids of the exports currently registered on this instance
+   */
+  public Set<UUID> getRegistered() {
+    return Set.copyOf(running);
+  }
+
+  /**
+   * Requests the cancellation of an export. It will be stopped at the next check.
+   * @param uuid
+   */
+  public void cancel(UUID uuid) {
+    cancelled.add(uuid);
+  }
+
+  public boolean isCancelled(UUID uuid) {
+    return cancelled.contains(uuid);
+  }
+
+  /**
+   * @param uuid
+   * @throws CancellationException if the cancellation of the export was requested
+   */
+  public void throwIfCancelled(UUID uuid) {
+    if (isCancelled(uuid)) {
+      throw new CancellationException("Export " + uuid + " cancelled");
+    }
+  }
+
+  /**
+   * Cancels the running exports that don't exist anymore (deleted by another instance).
+   */
+  @Scheduled(fixedDelayString = "#{@dataExportConfig.exportCancellationCheckInterval.toMillis()}")
+  @Transactional(readOnly = true)
+  public void cancelRemovedExports() {
+    // forget cancellations of exports not running on this instance
+    cancelled.retainAll(running);
+    if (running.isEmpty()) {
+      return;
+    }
+
+    Set<UUID> toCheck = new HashSet<>(running);
+    List<DataExport> existing = baseDAO.findAllByQuery(DataExport.class, SELECT_BY_UUIDS,
+      List.of(Pair.of("uuids", toCheck)), toCheck.size(), 0);
+    existing.forEach(de -> toCheck.remove(de.getUuid()));
+
+    for (UUID uuid : toCheck) {
+      // make sure it was not unregistered in the meantime
+      if (running.contains(uuid)) {
+        log.info("Export {} was removed, cancelling", uuid);
+        cancel(uuid);
+      }
+    }
+  }
+}
@@ -0,0 +1,143 @@
+package ca.gc.aafc.dina.export.api.service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import lombok.extern.log4j.Log4j2;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import ca.gc.aafc.dina.export.api.config.ExportJobQueueConfig;
+
+/**
+ * Database-backed queue of exports using the data_export table.
+ * An instance leases the exports it runs and renews the leases with heartbeats. Exports with an expired
+ * lease (e.g. from a dead instance) can be claimed by any instance.
+ *
+ * Only TABULAR_DATA exports are queued, OBJECT_ARCHIVE exports rely on transient data (toa) that is not persisted.
+ */
+@Service
+@Log4j2
+public class ExportJobQueueService {
+
+  // status is reset to NEW so the claimed export can be started again. A RUNNING export resumes from its
+  // checkpoint when it has one.
+  private static final String CLAIM_SQL = "UPDATE data_export SET lease_owner = :owner, " +
+    "lease_expires_on = now() + CAST(:leaseSeconds AS integer) * interval '1 second', status = 'NEW' " +
+    "WHERE id IN (SELECT id FROM data_export WHERE export_type = 'TABULAR_DATA' " +
+    "AND status IN ('NEW', 'RUNNING') AND (lease_expires_on IS NULL OR lease_expires_on < now()) " +
+    "ORDER BY created_on LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+    "RETURNING CAST(uuid AS varchar)";
+
+  private static final String LEASE_SQL = "UPDATE data_export SET lease_owner = :owner, " +
+    "lease_expires_on = now() + CAST(:leaseSeconds AS integer) * interval '1 second' " +
+    "WHERE uuid = CAST(:uuid AS uuid)";
+
+  private static final String RENEW_SQL = "UPDATE data_export " +
+    "SET lease_expires_on = now() + CAST(:leaseSeconds AS integer) * interval '1 second' " +
+    "WHERE lease_owner = :owner AND status IN ('NEW', 'RUNNING') AND CAST(uuid AS varchar) IN (:uuids)";
+
+  private static final String RELEASE_SQL = "UPDATE data_export SET lease_owner = NULL, lease_expires_on = NULL " +
+    "WHERE uuid = CAST(:uuid AS uuid)";
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  private final ExportJobQueueConfig jobQueueConfig;
+  private final String instanceId;
+
+  public ExportJobQueueService(ExportJobQueueConfig jobQueueConfig) {
+    this.jobQueueConfig = jobQueueConfig;
+    this.instanceId = StringUtils.isNotBlank(jobQueueConfig.getInstanceId()) ?
+      jobQueueConfig.getInstanceId() : generateInstanceId();
+  }
+
+  public boolean isEnabled() {
+    return jobQueueConfig.isEnabled();
+  }
+
+  public String getInstanceId() {
+    return instanceId;
+  }
+
+  /**
+   * Leases an export to this instance. Used on creation so the export is not claimed by another instance.
+   * @param uuid
+   */
+  @Transactional
+  public void lease(UUID uuid) {
+    entityManager.createNativeQuery(LEASE_SQL)
+      .setParameter("owner", instanceId)
+      .setParameter("leaseSeconds", getLeaseSeconds())
+      .setParameter("uuid", uuid.toString())
+      .executeUpdate();
+  }
+
+  /**
+   * Claims up to limit exports that are not leased or with an expired lease.
+   * Rows locked by another instance are skipped.
+   * @param limit
+   * @return uuids of the claimed exports
+   */
+  @Transactional
+  public List<UUID> claim(int limit) {
+    @SuppressWarnings("unchecked")
+    List<String> claimed = entityManager.createNativeQuery(CLAIM_SQL)
+      .setParameter("owner", instanceId)
+      .setParameter("leaseSeconds", getLeaseSeconds())
+      .setParameter("limit", limit)
+      .getResultList();
+    return claimed.stream().map(UUID::fromString).toList();
+  }
+
+  /**
+   * Heartbeat: extends the leases owned by this instance of the given exports that are not completed.
+   * Only the exports this instance still holds (queued or running) should be given so the lease of an export
+   * whose task died expires and the export can be claimed again.
+   * @param uuids exports held by this instance
+   * @return number of leases renewed
+   */
+  @Transactional
+  public int renewLeases(Collection<UUID> uuids) {
+    if (uuids.isEmpty()) {
+      return 0;
+    }
+    return entityManager.createNativeQuery(RENEW_SQL)
+      .setParameter("owner", instanceId)
+      .setParameter("leaseSeconds", getLeaseSeconds())
+      .setParameter("uuids", uuids.stream().map(UUID::toString).toList())
+      .executeUpdate();
+  }
+
+  /**
+   * Releases the lease of an export (e.g. the export reached a terminal status).
+   * Joins the current transaction if there is one.
+   * @param uuid
+   */
+  @Transactional
+  public void release(UUID uuid) {
+    entityManager.createNativeQuery(RELEASE_SQL)
+      .setParameter("uuid", uuid.toString())
+      .executeUpdate();
+  }
+
+  private int getLeaseSeconds() {
+    return Math.toIntExact(jobQueueConfig.getLeaseDuration().toSeconds());
+  }
+
+  private static String generateInstanceId() {
+    String suffix = UUID.randomUUID().toString().substring(0, 8);
+    try {
+      return InetAddress.getLocalHost().getHostName() + "-" + suffix;
+    } catch (UnknownHostException e) {
+      log.warn("Can't get hostname, using random instance id");
+      return suffix;
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package ca.gc.aafc.dina.export.api.service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import lombok.extern.log4j.Log4j2;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import ca.gc.aafc.dina.export.api.config.ExportJobQueueConfig;
+import ca.gc.aafc.dina.export.api.entity.DataExport;
+
+/**
+ * Polls the export job queue for exports to run and keeps the leases of this instance alive.
+ * Does nothing unless the job queue is enabled.
+ */
+@Service
+@Log4j2
+public class ExportJobWorker {
+
+  private final ExportJobQueueService jobQueueService;
+  private final ExportJobQueueConfig jobQueueConfig;
+  private final DataExportService dataExportService;
+  private final DataExportDispatcher dataExportDispatcher;
+  private final ExportCancellationService cancellationService;
+
+  public ExportJobWorker(ExportJobQueueService jobQueueService,
+                         ExportJobQueueConfig jobQueueConfig,
+                         DataExportService dataExportService,
+                         DataExportDispatcher dataExportDispatcher,
+                         ExportCancellationService cancellationService) {
+    this.jobQueueService = jobQueueService;
+    this.jobQueueConfig = jobQueueConfig;
+    this.dataExportService = dataExportService;
+    this.dataExportDispatcher = dataExportDispatcher;
+    this.cancellationService = cancellationService;
+  }
+
+  /**
+   * Claims exports when this instance has no tabular data export waiting.
+   */
+  @Scheduled(fixedDelayString = "#{@exportJobQueueConfig.pollInterval.toMillis()}")
+  public void poll() {
+    if (!jobQueueConfig.isEnabled() ||
+      dataExportDispatcher.getWaitingCount(DataExport.ExportType.TABULAR_DATA) > 0) {
+      return;
+    }
+
+    List<UUID> claimed = jobQueueService.claim(jobQueueConfig.getMaxClaimsPerPoll());
+    for (UUID uuid : claimed) {
+      DataExport dataExport = dataExportService.findOne(uuid);
+      if (dataExport == null) {
+        continue;
+      }
+      log.info("Export {} claimed by {}", uuid, jobQueueService.getInstanceId());
+      dataExportDispatcher.dispatch(dataExport);
+    }
+  }
+
+  /**
+   * Renews the leases of the exports queued or running on this instance.
+   */
+  @Scheduled(fixedDelayString = "#{@exportJobQueueConfig.heartbeatInterval.toMillis()}")
+  public void heartbeat() {
+    if (!jobQueueConfig.isEnabled()) {
+      return;
+    }
+    Set<UUID> held = new HashSet<>(dataExportDispatcher.getQueuedUuids());
+    held.addAll(cancellationService.getRegistered());
+    int renewed = jobQueueService.renewLeases(held);
+    log.debug("{} lease(s) renewed by {}", renewed, jobQueueService.getInstanceId());
+  }
+}
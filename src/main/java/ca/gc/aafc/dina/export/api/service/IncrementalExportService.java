@@ -0,0 +1,157 @@
+package ca.gc.aafc.dina.export.api.service;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import javax.validation.ValidationException;
+import lombok.extern.log4j.Log4j2;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.stereotype.Service;
+
+import ca.gc.aafc.dina.export.api.config.DataExportConfig;
+import ca.gc.aafc.dina.export.api.entity.DataExport;
+import ca.gc.aafc.dina.export.api.entity.DataExportTemplate;
+import ca.gc.aafc.dina.jpa.BaseDAO;
+
+/**
+ * Creates exports from a {@link DataExportTemplate} and handles incremental exports.
+ *
+ * An incremental export only includes the documents where the incremental field of the template is after the
+ * high-water mark of the template. The high-water mark is moved to the upper bound of the export once it completes.
+ */
+@Service
+@Log4j2
+public class IncrementalExportService {
+
+  private static final String ES_QUERY_KEY = "query";
+
+  static final String TEMPLATE_NOT_FOUND_KEY = "dataExport.dataExportTemplate.notFound";
+  static final String TEMPLATE_RESTRICTED_KEY = "dataExport.dataExportTemplate.restrictedToCreatedBy";
+  static final String TEMPLATE_EXPORT_TYPE_KEY = "dataExport.dataExportTemplate.exportTypeMismatch";
+
+  private final BaseDAO baseDAO;
+  private final DataExportConfig dataExportConfig;
+  private final MessageSource messageSource;
+
+  public IncrementalExportService(BaseDAO baseDAO, DataExportConfig dataExportConfig,
+                                  MessageSource messageSource) {
+    this.baseDAO = baseDAO;
+    this.dataExportConfig = dataExportConfig;
+    this.messageSource = messageSource;
+  }
+
+  /**
+   * Applies the template referenced by the export (if any): attributes not provided by the export are taken
+   * from the template and, if the template is incremental, a range filter is added to the query.
+   * @param dataExport
+   * @throws ValidationException if the template can't be found or can't be used
+   */
+  public void applyTemplate(DataExport dataExport) {
+    dataExport.setHighWaterMark(null);
+    if (dataExport.getDataExportTemplateUuid() == null) {
+      return;
+    }
+
+    DataExportTemplate template =
+      baseDAO.findOneByNaturalId(dataExport.getDataExportTemplateUuid(), DataExportTemplate.class);
+    if (template == null) {
+      throw validationException(TEMPLATE_NOT_FOUND_KEY, dataExport.getDataExportTemplateUuid());
+    }
+    if (Boolean.TRUE.equals(template.getRestrictToCreatedBy()) &&
+      !Objects.equals(template.getCreatedBy(), dataExport.getCreatedBy())) {
+      throw validationException(TEMPLATE_RESTRICTED_KEY, template.getUuid());
+    }
+    if (template.getExportType() != dataExport.getExportType()) {
+      throw validationException(TEMPLATE_EXPORT_TYPE_KEY, dataExport.getExportType(), template.getExportType());
+    }
+
+    if (StringUtils.isBlank(dataExport.getSource())) {
+      dataExport.setSource(template.getSource());
+    }
+    if (dataExport.getQuery() == null) {
+      dataExport.setQuery(template.getQuery());
+    }
+    if (dataExport.getSchema() == null) {
+      dataExport.setSchema(template.getSchema());
+    }
+    if (dataExport.getFunctions() == null) {
+      dataExport.setFunctions(template.getFunctions());
+    }
+    if (dataExport.getExportOptions() == null) {
+      dataExport.setExportOptions(template.getExportOptions());
+    }
+
+    if (StringUtils.isNotBlank(template.getIncrementalField())) {
+      // Elasticsearch dates are stored with millisecond precision
+      OffsetDateTime upperBound = OffsetDateTime.now().minus(dataExportConfig.getIncrementalExportLag())
+        .truncatedTo(ChronoUnit.MILLIS);
+      dataExport.setQuery(addRangeFilter(dataExport.getQuery(), template.getIncrementalField(),
+        template.getHighWaterMark(), upperBound));
+      dataExport.setHighWaterMark(upperBound);
+    }
+  }
+
+  /**
+   * Moves the high-water mark of the template to the upper bound of the completed incremental export.
+   * The high-water mark is never moved backward.
+   * Should be called within a transaction.
+   * @param dataExport completed export
+   */
+  public void advanceHighWaterMark(DataExport dataExport) {
+    if (dataExport.getDataExportTemplateUuid() == null || dataExport.getHighWaterMark() == null) {
+      return;
+    }
+
+    DataExportTemplate template =
+      baseDAO.findOneByNaturalId(dataExport.getDataExportTemplateUuid(), DataExportTemplate.class);
+    if (template == null) {
+      log.warn("DataExportTemplate {} removed, high-water mark not updated", dataExport.getDataExportTemplateUuid());
+      return;
+    }
+
+    if (template.getHighWaterMark() == null || dataExport.getHighWaterMark().isAfter(template.getHighWaterMark())) {
+      template.setHighWaterMark(dataExport.getHighWaterMark());
+      baseDAO.update(template);
+      log.info("High-water mark of DataExportTemplate {} moved to {}", template.getUuid(),
+        dataExport.getHighWaterMark());
+    }
+  }
+
+  private ValidationException validationException(String key, Object... args) {
+    return new ValidationException(messageSource.getMessage(key, args, LocaleContextHolder.getLocale()));
+  }
+
+  /**
+   * Wraps the query clause in a bool query with a range filter on the field:
+   * after the lower bound (exclusive) and up to the upper bound (inclusive).
+   * Other keys of the query (e.g. sort) are kept.
+   * @param query
+   * @param field
+   * @param lowerBound exclusive, null to only use the upper bound
+   * @param upperBound inclusive
+   * @return new query
+   */
+  static Map<String, Object> addRangeFilter(Map<String, Object> query, String field,
+                                            OffsetDateTime lowerBound, OffsetDateTime upperBound) {
+    Map<String, Object> bounds = new LinkedHashMap<>();
+    if (lowerBound != null) {
+      bounds.put("gt", lowerBound.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+    }
+    bounds.put("lte", upperBound.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+    Map<String, Object> range = Map.of("range", Map.of(field, bounds));
+
+    Map<String, Object> newQuery = query == null ? new HashMap<>() : new HashMap<>(query);
+    Object queryClause = newQuery.get(ES_QUERY_KEY);
+    List<Object> filters = queryClause == null ? List.of(range) : List.of(queryClause, range);
+    newQuery.put(ES_QUERY_KEY, Map.of("bool", Map.of("filter", filters)));
+    return newQuery;
+  }
+}
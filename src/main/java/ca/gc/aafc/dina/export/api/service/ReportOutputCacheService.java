@@ -0,0 +1,131 @@
+package ca.gc.aafc.dina.export.api.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.extern.log4j.Log4j2;
+
+import org.springframework.boot.info.BuildProperties;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import ca.gc.aafc.dina.export.api.config.DataExportConfig;
+import ca.gc.aafc.dina.export.api.config.ReportTemplateConfig;
+import ca.gc.aafc.dina.export.api.dto.ReportRequestDto;
+import ca.gc.aafc.dina.export.api.entity.ReportTemplate;
+import ca.gc.aafc.dina.export.api.file.ContentAddressedStore;
+import ca.gc.aafc.dina.export.api.generator.FreemarkerReportGenerator;
+
+/**
+ * Cache of the generated reports so identical requests (e.g. reprints) don't render the report again.
+ * Requests are identical when their key (SHA-256 of the canonical form of the template, the version of the loaded
+ * template, the version of the module and the payload) is the same.
+ *
+ * Reports are kept in a {@link ContentAddressedStore} in the generated reports folder and shared using hard links,
+ * so each report can be removed independently.
+ * Disabled unless dina.report.outputCacheTtl is set.
+ */
+@Service
+@Log4j2
+public class ReportOutputCacheService {
+
+  private static final String KEY_PREFIX = "report:";
+
+  private final FreemarkerReportGenerator reportGenerator;
+  private final BuildProperties buildProperties;
+  private final ObjectMapper canonicalMapper;
+  private final ContentAddressedStore outputStore;
+
+  public ReportOutputCacheService(ReportTemplateConfig reportTemplateConfig, DataExportConfig dataExportConfig,
+                                  FreemarkerReportGenerator reportGenerator, BuildProperties buildProperties,
+                                  ObjectMapper objectMapper) {
+    this.reportGenerator = reportGenerator;
+    this.buildProperties = buildProperties;
+    this.canonicalMapper = objectMapper.copy()
+      .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+      .configure(SerializationFeature.INDENT_OUTPUT, false);
+
+    this.outputStore = reportTemplateConfig.getOutputCacheTtl() != null ?
+      new ContentAddressedStore(dataExportConfig.getReportOutputCachePath(),
+        reportTemplateConfig.getOutputCacheMaxSize().toBytes(), reportTemplateConfig.getOutputCacheTtl()) : null;
+  }
+
+  public boolean isEnabled() {
+    return outputStore != null;
+  }
+
+  /**
+   * Computes the key of the report.
+   * The template version is taken from the template Freemarker will use to render the report, so a replaced
+   * template gives a different key once it is loaded (and not before). The module version is included since
+   * classpath templates and the rendering itself only change with a new version.
+   * The payload is streamed to the digest so it is never serialized in memory.
+   * @param template
+   * @param reportRequest
+   * @return the key
+   */
+  public String computeKey(ReportTemplate template, ReportRequestDto reportRequest) throws IOException {
+    Map<String, Object> canonical = new TreeMap<>();
+    canonical.put("templateUuid", template.getUuid());
+    canonical.put("templateFilename", template.getTemplateFilename());
+    canonical.put("templateOutputMediaType", template.getTemplateOutputMediaType());
+    canonical.put("outputMediaType", template.getOutputMediaType());
+    canonical.put("barcodeImageFormat", template.getBarcodeImageFormat());
+    canonical.put("csvHeaders", template.getCsvHeaders());
+    canonical.put("templateVersion", reportGenerator.getTemplateVersion(template.getTemplateFilename()));
+    canonical.put("moduleVersion", buildProperties.getVersion());
+    canonical.put("payload", reportRequest.getPayload());
+
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    try (OutputStream os = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+      canonicalMapper.writeValue(os, canonical);
+    }
+    return KEY_PREFIX + HexFormat.of().formatHex(digest.digest());
+  }
+
+  /**
+   * Links the cached report matching the key to the destination, if there is one.
+   * @param key
+   * @param destination
+   * @return true if a cached report was linked
+   */
+  public boolean linkIfPresent(String key, Path destination) {
+    try {
+      return outputStore.linkIfPresent(key, destination);
+    } catch (IOException e) {
+      // the entry may have been evicted since it was found, the report will simply be generated
+      log.warn("Can't link cached report to {}", destination, e);
+      return false;
+    }
+  }
+
+  /**
+   * Stores the generated report in the cache. A failure is logged since it doesn't affect the report itself.
+   * @param key
+   * @param report
+   */
+  public void store(String key, Path report) {
+    if (!Files.isRegularFile(report)) {
+      return;
+    }
+    try {
+      outputStore.store(key, report);
+    } catch (IOException e) {
+      log.warn("Can't store report {} in the output cache", report, e);
+    }
+  }
+}
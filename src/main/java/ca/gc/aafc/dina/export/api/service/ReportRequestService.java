@@ -5,7 +5,6 @@ import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.zxing.WriterException;
 import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.JsonPath;
@@ -13,6 +12,7 @@ import com.jayway.jsonpath.PathNotFoundException;
 import com.jayway.jsonpath.TypeRef;
 
 import ca.gc.aafc.dina.export.api.config.DataExportConfig;
+import ca.gc.aafc.dina.export.api.config.ReportTemplateConfig;
 import ca.gc.aafc.dina.export.api.entity.ReportTemplate;
 import ca.gc.aafc.dina.export.api.dto.ReportRequestDto;
 import ca.gc.aafc.dina.export.api.file.FileController;
@@ -20,24 +20,36 @@ import ca.gc.aafc.dina.export.api.generator.BarcodeGenerator;
 import ca.gc.aafc.dina.export.api.generator.FreemarkerReportGenerator;
 import ca.gc.aafc.dina.export.api.generator.OpenhtmltopdfGenerator;
 import ca.gc.aafc.dina.export.api.generator.PDFGenerator;
+import ca.gc.aafc.dina.export.api.generator.PdfMerger;
 import ca.gc.aafc.dina.export.api.generator.ReportGenerator;
-import ca.gc.aafc.dina.export.api.output.TabularOutput;
+import ca.gc.aafc.dina.export.api.output.JsonArrayTabularConverter;
 
 import java.io.File;
 import java.io.FileOutputStream;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PreDestroy;
 import lombok.extern.log4j.Log4j2;
 
-import static ca.gc.aafc.dina.export.api.config.JacksonTypeReferences.MAP_TYPEREF;
 
 /**
  * Main service to orchestrate report generation.
@@ -46,10 +58,15 @@ import static ca.gc.aafc.dina.export.api.config.JacksonTypeReferences.MAP_TYPERE
 @Log4j2
 public class ReportRequestService {
 
+  public static final String ELEMENTS_KEY = "elements";
+
   private final Path workingFolder;
   private final ReportGenerator reportGenerator;
   private final PDFGenerator pdfGenerator;
-  private final BarcodeGenerator barcodeGenerator;
+  private final BarcodeService barcodeService;
+  private final ReportTemplateConfig reportTemplateConfig;
+  private final ExecutorService pdfChunkExecutor;
+  private final ReportOutputCacheService reportOutputCacheService;
 
   private final ObjectMapper objectMapper;
   private final Configuration jacksonConfig;
@@ -57,12 +74,24 @@ public class ReportRequestService {
   public ReportRequestService(
     ObjectMapper objectMapper,
     Configuration jsonPathConfiguration,
-    DataExportConfig dataExportConfig, FreemarkerReportGenerator reportGenerator,
-    OpenhtmltopdfGenerator pdfGenerator, BarcodeGenerator barcodeGenerator) {
+    DataExportConfig dataExportConfig, ReportTemplateConfig reportTemplateConfig,
+    FreemarkerReportGenerator reportGenerator,
+    OpenhtmltopdfGenerator pdfGenerator, BarcodeService barcodeService,
+    ReportOutputCacheService reportOutputCacheService) {
 
     this.reportGenerator = reportGenerator;
     this.pdfGenerator = pdfGenerator;
-    this.barcodeGenerator = barcodeGenerator;
+    this.barcodeService = barcodeService;
+    this.reportTemplateConfig = reportTemplateConfig;
+    this.reportOutputCacheService = reportOutputCacheService;
+
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.pdfChunkExecutor = Executors.newFixedThreadPool(Math.max(1, reportTemplateConfig.getPdfChunkThreads()),
+      r -> {
+        Thread t = new Thread(r, "PdfChunkRenderer-" + threadNumber.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+      });
 
     workingFolder = dataExportConfig.getGeneratedReportsLabelsPath();
 
@@ -71,33 +100,77 @@ public class ReportRequestService {
   }
 
   public ReportGenerationResult generateReport(ReportTemplate template, ReportRequestDto reportRequest) throws IOException {
-
     UUID uuid = UUID.randomUUID();
-    Path tmpDirectory = Files.createDirectories(workingFolder.resolve(uuid.toString()));
+    generateReport(template, reportRequest, workingFolder.resolve(uuid.toString()));
+    return new ReportGenerationResult(uuid);
+  }
+
+  /**
+   * Generates the report in the provided directory.
+   * The report file is named according to {@link #getReportFilename(ReportTemplate)}.
+   * @param template
+   * @param reportRequest
+   * @param outputDirectory created if it doesn't exist
+   * @throws IOException
+   */
+  public void generateReport(ReportTemplate template, ReportRequestDto reportRequest, Path outputDirectory)
+    throws IOException {
+
+    Path tmpDirectory = Files.createDirectories(outputDirectory);
+
+    // identical requests (e.g. reprints) are linked to the previously generated report
+    String cacheKey = reportOutputCacheService.isEnabled() ?
+      reportOutputCacheService.computeKey(template, reportRequest) : null;
+    Path reportFile = tmpDirectory.resolve(getReportFilename(template));
+    if (cacheKey != null && reportOutputCacheService.linkIfPresent(cacheKey, reportFile)) {
+      log.info("Report {} served from the output cache", reportFile);
+      return;
+    }
+
+    renderReport(template, reportRequest, tmpDirectory);
+
+    if (cacheKey != null) {
+      reportOutputCacheService.store(cacheKey, reportFile);
+    }
+  }
+
+  private void renderReport(ReportTemplate template, ReportRequestDto reportRequest, Path tmpDirectory)
+    throws IOException {
+
+    boolean pdfOutput = MediaType.APPLICATION_PDF_VALUE.equals(template.getOutputMediaType());
+    if (pdfOutput && !MediaType.TEXT_HTML_VALUE.equals(template.getTemplateOutputMediaType())) {
+      throw new IOException("No intermediate html file found");
+    }
+
+    // PDF reports are generated in memory, intermediate files are only written for debugging
+    if (pdfOutput && !reportTemplateConfig.isKeepIntermediateFiles()) {
+      Path pdfFile = tmpDirectory.resolve(DataExportConfig.PDF_REPORT_FILENAME);
+      Integer chunkSize = reportTemplateConfig.getPdfChunkSize();
+      if (chunkSize != null && chunkSize > 0 && countElements(reportRequest) > chunkSize) {
+        generateChunkedPDF(pdfFile, template, reportRequest, chunkSize);
+      } else {
+        generateInMemoryPDF(pdfFile, template, reportRequest);
+      }
+      return;
+    }
 
     // Generate barcodes (if required by the template)
     if (template.getIncludesBarcode()) {
-      BarcodeGenerator.CodeGenerationOption cgo = BarcodeGenerator.buildDefaultQrConfig();
-      for (BarcodeSpecs currBarcodeSpecs : extractBarcodeSpecs(reportRequest.getPayload())) {
-        File tempBarcodeFile =
-          tmpDirectory.resolve(currBarcodeSpecs.id + "." + BarcodeGenerator.CODE_OUTPUT_FORMAT)
-            .toFile();
-        try (FileOutputStream fos = new FileOutputStream(tempBarcodeFile)) {
-          try {
-            barcodeGenerator.createCode(currBarcodeSpecs.content, fos, cgo);
-          } catch (WriterException e) {
-            throw new IOException(e);
-          }
-        }
+      for (Map.Entry<String, byte[]> barcode : createBarcodes(template, reportRequest).entrySet()) {
+        Files.write(tmpDirectory.resolve(barcode.getKey()), barcode.getValue());
       }
     }
     
     // Generate a report based on template
+    // a file converted to the report is not named as a report, the label download serves the first report file
+    boolean csvOutput = DataExportConfig.TEXT_CSV_VALUE.equals(template.getOutputMediaType());
+    String templateOutputFilename = pdfOutput || csvOutput ?
+      DataExportConfig.INTERMEDIATE_REPORT_FILENAME : DataExportConfig.REPORT_FILENAME;
     File templateOutputFile = null;
     String extension = FileController.getExtensionForMediaType(template.getTemplateOutputMediaType());
     if (StringUtils.isNotBlank(extension)) {
-      templateOutputFile = tmpDirectory.resolve(DataExportConfig.REPORT_FILENAME + "." + extension).toFile();
-      try (FileWriter fw = new FileWriter(templateOutputFile, StandardCharsets.UTF_8)) {
+      templateOutputFile = tmpDirectory.resolve(templateOutputFilename + "." + extension).toFile();
+      try (Writer fw = Files.newBufferedWriter(templateOutputFile.toPath(), StandardCharsets.UTF_8)) {
         reportGenerator.generateReport(template.getTemplateFilename(), reportRequest.getPayload(), fw);
       }
     } else {
@@ -110,22 +183,171 @@ public class ReportRequestService {
     }
 
     // If we need a PDF, transform the HTML to PDF
-    if (MediaType.APPLICATION_PDF_VALUE.equals(template.getOutputMediaType())) {
-      if (!MediaType.TEXT_HTML_VALUE.equals(template.getTemplateOutputMediaType())) {
-        throw new IOException("No intermediate html file found");
-      }
+    if (pdfOutput) {
       generatePDF(tmpDirectory, templateOutputFile);
-    } else if (DataExportConfig.TEXT_CSV_VALUE.equals(template.getOutputMediaType())) {
+    } else if (csvOutput) {
       if (!MediaType.APPLICATION_JSON_VALUE.equals(template.getTemplateOutputMediaType())) {
         throw new IOException("No intermediate json file found");
       }
-      generateCSV(tmpDirectory, templateOutputFile);
+      generateCSV(tmpDirectory, templateOutputFile, template.getCsvHeaders());
     }
-    return new ReportGenerationResult(uuid);
+  }
+
+  /**
+   * Filename of the report generated from the template.
+   * @param template
+   * @return
+   */
+  public static String getReportFilename(ReportTemplate template) {
+    if (MediaType.APPLICATION_PDF_VALUE.equals(template.getOutputMediaType())) {
+      return DataExportConfig.PDF_REPORT_FILENAME;
+    } else if (DataExportConfig.TEXT_CSV_VALUE.equals(template.getOutputMediaType())) {
+      return DataExportConfig.CSV_REPORT_FILENAME;
+    }
+    return DataExportConfig.REPORT_FILENAME + "." +
+      FileController.getExtensionForMediaType(template.getTemplateOutputMediaType());
+  }
+
+  /**
+   * Number of elements in the payload of the request.
+   * @param reportRequest
+   * @return
+   */
+  public static int countElements(ReportRequestDto reportRequest) {
+    if (reportRequest.getPayload() != null &&
+      reportRequest.getPayload().get(ELEMENTS_KEY) instanceof Collection<?> elements) {
+      return elements.size();
+    }
+    return 0;
+  }
+
+  /**
+   * Generates a PDF where the html and the barcodes are kept in memory and handed directly to the PDF generator.
+   * Only the PDF is written to the report folder.
+   * @param pdfFile path of the PDF
+   * @param template
+   * @param reportRequest
+   * @throws IOException
+   */
+  private void generateInMemoryPDF(Path pdfFile, ReportTemplate template, ReportRequestDto reportRequest)
+    throws IOException {
+    Map<String, byte[]> barcodes = template.getIncludesBarcode() ?
+      createBarcodes(template, reportRequest) : Map.of();
+
+    StringWriter html = new StringWriter();
+    reportGenerator.generateReport(template.getTemplateFilename(), reportRequest.getPayload(), html);
+
+    try (OutputStream os = Files.newOutputStream(pdfFile)) {
+      pdfGenerator.generatePDF(html.toString(), barcodes, os);
+    }
+  }
+
+  /**
+   * Splits the elements of the payload in chunks, renders the chunks in parallel with the same template and merges
+   * the resulting PDFs. Memory used by the layout is bounded by the chunk size instead of the size of the request.
+   * @param pdfFile path of the merged PDF
+   * @param template
+   * @param reportRequest
+   * @param chunkSize number of elements per chunk
+   * @throws IOException
+   */
+  private void generateChunkedPDF(Path pdfFile, ReportTemplate template, ReportRequestDto reportRequest,
+                                  int chunkSize) throws IOException {
+    List<?> elements = List.copyOf((Collection<?>) reportRequest.getPayload().get(ELEMENTS_KEY));
+
+    List<Path> chunkFiles = new ArrayList<>();
+    // completed by the chunk task itself (never cancelled) so waiting on them waits for the render to end
+    List<CompletableFuture<Void>> chunks = new ArrayList<>();
+    // once a chunk failed, the chunks not started yet are skipped
+    AtomicBoolean failed = new AtomicBoolean();
+    try {
+      for (int start = 0; start < elements.size(); start += chunkSize) {
+        Map<String, Object> chunkPayload = new HashMap<>(reportRequest.getPayload());
+        chunkPayload.put(ELEMENTS_KEY, elements.subList(start, Math.min(start + chunkSize, elements.size())));
+        ReportRequestDto chunkRequest = ReportRequestDto.builder()
+          .reportTemplateUUID(reportRequest.getReportTemplateUUID())
+          .payload(chunkPayload)
+          .build();
+
+        Path chunkFile = pdfFile.resolveSibling("chunk-" + chunkFiles.size() + ".pdf");
+        chunkFiles.add(chunkFile);
+        CompletableFuture<Void> chunk = new CompletableFuture<>();
+        pdfChunkExecutor.execute(() -> renderChunk(chunkFile, template, chunkRequest, failed, chunk));
+        // only added once accepted by the executor, a rejected chunk would never be completed
+        chunks.add(chunk);
+      }
+
+      awaitAll(chunks);
+      for (CompletableFuture<Void> chunk : chunks) {
+        try {
+          chunk.join();
+        } catch (CompletionException e) {
+          if (e.getCause() instanceof IOException ioEx) {
+            throw ioEx;
+          }
+          throw new IOException(e.getCause());
+        }
+      }
+
+      try (OutputStream os = Files.newOutputStream(pdfFile)) {
+        PdfMerger.merge(chunkFiles, os);
+      }
+    } finally {
+      // skip what is not started and wait for the running renders before removing their files
+      failed.set(true);
+      awaitAll(chunks);
+      for (Path chunkFile : chunkFiles) {
+        Files.deleteIfExists(chunkFile);
+      }
+    }
+  }
+
+  private void renderChunk(Path chunkFile, ReportTemplate template, ReportRequestDto chunkRequest,
+                           AtomicBoolean failed, CompletableFuture<Void> chunk) {
+    try {
+      if (!failed.get()) {
+        generateInMemoryPDF(chunkFile, template, chunkRequest);
+      }
+      chunk.complete(null);
+    } catch (Throwable t) {
+      // always complete the chunk, otherwise the caller would wait forever
+      failed.set(true);
+      chunk.completeExceptionally(t);
+    }
+  }
+
+  private static void awaitAll(List<CompletableFuture<Void>> chunks) {
+    CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).exceptionally(ex -> null).join();
+  }
+
+
+  @PreDestroy
+  public void shutdown() {
+    pdfChunkExecutor.shutdownNow();
+  }
+
+  /**
+   * Generates the barcodes of the payload in the image format of the template.
+   * @param template
+   * @param reportRequest
+   * @return image by filename
+   * @throws IOException
+   */
+  private Map<String, byte[]> createBarcodes(ReportTemplate template, ReportRequestDto reportRequest)
+    throws IOException {
+    ReportTemplate.BarcodeImageFormat imageFormat = Objects.requireNonNullElse(template.getBarcodeImageFormat(),
+      ReportTemplate.BarcodeImageFormat.PNG);
+    Map<String, byte[]> barcodeById = barcodeService.createCodes(extractBarcodeSpecs(reportRequest.getPayload()),
+      BarcodeGenerator.buildDefaultQrConfig(), imageFormat);
+    String extension = BarcodeService.getExtension(imageFormat);
+    Map<String, byte[]> barcodeByFilename = new HashMap<>(barcodeById.size());
+    barcodeById.forEach((id, code) -> barcodeByFilename.put(id + "." + extension, code));
+    return barcodeByFilename;
   }
 
   /**
    * Generates a PDF from an HTML source.
+   * The html file is kept since this is only used when intermediate files are kept for debugging.
    * @param tmpDirectory path where to store the PDF
    * @param htmlFile the transitory html file to be used to generate the PDF
    * @throws IOException
@@ -137,40 +359,24 @@ public class ReportRequestService {
       String htmlContent = Files.readString(htmlFile.toPath(), StandardCharsets.UTF_8);
       pdfGenerator.generatePDF(htmlContent, tmpDirectory.toUri().toString(), bos);
     }
-    if (!htmlFile.delete()) {
-      log.warn("can't delete intermediate file " + htmlFile.getAbsolutePath());
-    }
   }
 
   /**
    * Generates a CSV from a JSON source.
    * @param tmpDirectory path where to store the CSV
    * @param jsonFile the transitory json file to be used to generate the CSV
+   * @param declaredHeaders headers to include before the ones of the first record, can be null
    * @throws IOException
    */
-  private void generateCSV(Path tmpDirectory, File jsonFile) throws IOException {
+  private void generateCSV(Path tmpDirectory, File jsonFile, String[] declaredHeaders) throws IOException {
     Objects.requireNonNull(jsonFile);
     File csvFile = tmpDirectory.resolve(DataExportConfig.CSV_REPORT_FILENAME).toFile();
 
-    // Read json file
-    Map<String, Object> jsonAsMap = objectMapper.readValue(jsonFile, MAP_TYPEREF);
-
-    // Make sure the structure is as expected
-    if (!jsonAsMap.containsKey(DataExportConfig.PAYLOAD_KEY) ||
-      !(jsonAsMap.get(DataExportConfig.PAYLOAD_KEY) instanceof List)) {
-      throw new IOException("Can't find payload element");
-    }
-
-    List<Map<String, Object>> payload = (List<Map<String, Object>>) jsonAsMap.get(DataExportConfig.PAYLOAD_KEY);
-
-    // Base the headers on the first record
-    List<String> headers = payload.isEmpty() ? List.of() : List.copyOf(payload.getFirst().keySet());
-    try (Writer w = new FileWriter(csvFile, StandardCharsets.UTF_8);
-         TabularOutput<Object, Map<String, Object>> output =
-           TabularOutput.create(TabularOutput.TabularOutputArgs.builder().headers(headers).build(), MAP_TYPEREF, w)) {
-      for (Map<String, Object> line : payload) {
-        output.addRecord(null, line);
-      }
+    // Stream the payload array, headers are the declared ones plus the ones of the first record
+    try (InputStream is = Files.newInputStream(jsonFile.toPath());
+         Writer w = Files.newBufferedWriter(csvFile.toPath(), StandardCharsets.UTF_8)) {
+      JsonArrayTabularConverter.convert(objectMapper, is, DataExportConfig.PAYLOAD_KEY,
+        declaredHeaders == null ? null : List.of(declaredHeaders), w);
     }
 
     if (!jsonFile.delete()) {
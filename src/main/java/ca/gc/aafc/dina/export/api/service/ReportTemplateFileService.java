@@ -2,6 +2,8 @@ package ca.gc.aafc.dina.export.api.service;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.log4j.Log4j2;
 
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
@@ -9,27 +11,33 @@ import org.springframework.stereotype.Service;
 import ca.gc.aafc.dina.export.api.config.DataExportConfig;
 import ca.gc.aafc.dina.export.api.config.ReportTemplateConfig;
 import ca.gc.aafc.dina.export.api.file.FileDownloader;
+import ca.gc.aafc.dina.export.api.generator.FreemarkerReportGenerator;
 
 /**
  * Responsible for the file on disk of the template represented by a ReportTemplate.
  */
 @Service
+@Log4j2
 public class ReportTemplateFileService {
 
   private final ReportTemplateConfig reportTemplateConfig;
   private final FileDownloader fileDownloader;
   private final DataExportConfig dataExportConfig;
+  private final FreemarkerReportGenerator reportGenerator;
 
   public ReportTemplateFileService(ReportTemplateConfig reportTemplateConfig,
                                    DataExportConfig dataExportConfig,
-                                   FileDownloader fileDownloader) {
+                                   FileDownloader fileDownloader,
+                                   FreemarkerReportGenerator reportGenerator) {
     this.reportTemplateConfig = reportTemplateConfig;
     this.fileDownloader = fileDownloader;
     this.dataExportConfig = dataExportConfig;
+    this.reportGenerator = reportGenerator;
   }
 
   /**
    * Download a template from object-store using a toa (temporary object access).
+   * The previously compiled version of the template (if any) is replaced by the downloaded one.
    * @param objectStoreToa
    */
   public void downloadTemplate(String objectStoreToa) throws IOException {
@@ -37,7 +45,19 @@ public class ReportTemplateFileService {
       + objectStoreToa;
 
     // call download
-    fileDownloader.downloadFile(downloadUrl,
-      filename -> Path.of(reportTemplateConfig.getTemplateFolder()).resolve(filename));
+    AtomicReference<String> templateFilename = new AtomicReference<>();
+    fileDownloader.downloadFile(downloadUrl, filename -> {
+      templateFilename.set(filename);
+      return Path.of(reportTemplateConfig.getTemplateFolder()).resolve(filename);
+    });
+
+    if (templateFilename.get() != null) {
+      try {
+        reportGenerator.reload(templateFilename.get());
+      } catch (IOException ex) {
+        // the template is downloaded, the error will be reported when it is used
+        log.warn("Can't compile template {}", templateFilename.get(), ex);
+      }
+    }
   }
 }
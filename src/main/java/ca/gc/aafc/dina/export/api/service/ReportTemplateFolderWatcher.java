@@ -0,0 +1,98 @@
+package ca.gc.aafc.dina.export.api.service;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+
+import org.springframework.stereotype.Service;
+
+import ca.gc.aafc.dina.export.api.config.ReportTemplateConfig;
+import ca.gc.aafc.dina.export.api.generator.FreemarkerReportGenerator;
+
+/**
+ * Watches the template folder and invalidates the compiled templates when their file is changed or removed.
+ * Only used for templates changed outside the upload notifications (e.g. copied in the volume).
+ * Changes made by another host on a network volume are usually not reported, dina.report.templateUpdateDelay still
+ * applies to them.
+ * Does nothing unless dina.report.watchTemplateFolder is enabled.
+ */
+@Service
+@Log4j2
+public class ReportTemplateFolderWatcher {
+
+  private final ReportTemplateConfig reportTemplateConfig;
+  private final FreemarkerReportGenerator reportGenerator;
+
+  private WatchService watchService;
+
+  public ReportTemplateFolderWatcher(ReportTemplateConfig reportTemplateConfig,
+                                     FreemarkerReportGenerator reportGenerator) {
+    this.reportTemplateConfig = reportTemplateConfig;
+    this.reportGenerator = reportGenerator;
+  }
+
+  @PostConstruct
+  public void start() throws IOException {
+    if (!reportTemplateConfig.isWatchTemplateFolder()) {
+      return;
+    }
+
+    Path templateFolder = Path.of(reportTemplateConfig.getTemplateFolder());
+    Files.createDirectories(templateFolder);
+
+    watchService = FileSystems.getDefault().newWatchService();
+    templateFolder.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+      StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+
+    Thread watcherThread = new Thread(this::watch, "ReportTemplateFolderWatcher");
+    watcherThread.setDaemon(true);
+    watcherThread.start();
+    log.info("Watching template folder {}", templateFolder);
+  }
+
+  private void watch() {
+    try {
+      while (true) {
+        WatchKey key = watchService.take();
+        for (WatchEvent<?> event : key.pollEvents()) {
+          if (event.context() instanceof Path changed) {
+            invalidate(changed.getFileName().toString());
+          }
+        }
+        if (!key.reset()) {
+          log.warn("Template folder is no longer accessible, stop watching");
+          return;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ClosedWatchServiceException e) {
+      // stopped
+    }
+  }
+
+  private void invalidate(String templateFilename) {
+    try {
+      reportGenerator.invalidate(templateFilename);
+      log.debug("Template {} changed, removed from cache", templateFilename);
+    } catch (IOException e) {
+      log.warn("Can't invalidate template {}", templateFilename, e);
+    }
+  }
+
+  @PreDestroy
+  public void stop() throws IOException {
+    if (watchService != null) {
+      watchService.close();
+    }
+  }
+}
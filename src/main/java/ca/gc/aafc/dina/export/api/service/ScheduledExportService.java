@@ -0,0 +1,164 @@
+package ca.gc.aafc.dina.export.api.service;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import lombok.extern.log4j.Log4j2;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import ca.gc.aafc.dina.export.api.config.ScheduledExportConfig;
+import ca.gc.aafc.dina.export.api.entity.DataExport;
+import ca.gc.aafc.dina.export.api.entity.DataExportTemplate;
+import ca.gc.aafc.dina.jpa.BaseDAO;
+
+/**
+ * Creates {@link DataExport} from the {@link DataExportTemplate} with a cron schedule.
+ *
+ * Templates due to run are claimed with SELECT ... FOR UPDATE SKIP LOCKED and their next run is computed in the
+ * same transaction so a scheduled run is only handled by a single instance.
+ */
+@Service
+@Log4j2
+public class ScheduledExportService {
+
+  private static final String SELECT_DUE_SQL = "SELECT CAST(uuid AS varchar) FROM data_export_template " +
+    "WHERE cron_schedule IS NOT NULL AND next_run_on <= now() " +
+    "ORDER BY next_run_on LIMIT :limit FOR UPDATE SKIP LOCKED";
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  private final BaseDAO baseDAO;
+  private final ScheduledExportConfig scheduledExportConfig;
+  private final DataExportService dataExportService;
+
+  public ScheduledExportService(BaseDAO baseDAO, ScheduledExportConfig scheduledExportConfig,
+                                DataExportService dataExportService) {
+    this.baseDAO = baseDAO;
+    this.scheduledExportConfig = scheduledExportConfig;
+    this.dataExportService = dataExportService;
+  }
+
+  public boolean isEnabled() {
+    return scheduledExportConfig.isEnabled();
+  }
+
+  /**
+   * Claims up to limit templates due to run and moves their next run to the next occurrence of the schedule.
+   * Templates locked by another instance are skipped.
+   * @param limit
+   * @return uuids of the claimed templates
+   */
+  @Transactional
+  public List<UUID> claimDue(int limit) {
+    @SuppressWarnings("unchecked")
+    List<String> due = entityManager.createNativeQuery(SELECT_DUE_SQL)
+      .setParameter("limit", limit)
+      .getResultList();
+
+    List<UUID> claimed = new ArrayList<>(due.size());
+    for (String uuid : due) {
+      DataExportTemplate template = baseDAO.findOneByNaturalId(UUID.fromString(uuid), DataExportTemplate.class);
+      template.setNextRunOn(computeNextRun(template.getCronSchedule()));
+      baseDAO.update(template);
+      claimed.add(template.getUuid());
+    }
+    return claimed;
+  }
+
+  /**
+   * Creates an export from the template, on behalf of the creator of the template.
+   * @param templateUuid
+   * @return the created export
+   */
+  @Transactional
+  public DataExport createExport(UUID templateUuid) {
+    DataExportTemplate template = baseDAO.findOneByNaturalId(templateUuid, DataExportTemplate.class);
+    DataExport dataExport = DataExport.builder()
+      .name(template.getName())
+      .createdBy(template.getCreatedBy())
+      .exportType(template.getExportType())
+      .dataExportTemplateUuid(template.getUuid())
+      .build();
+    return dataExportService.create(dataExport);
+  }
+
+  /**
+   * Computes the next run of the cron schedule from now.
+   * The run is moved to the start of the off-peak window (if configured) and a random jitter is added. The jitter
+   * never moves the run past the end of the window.
+   * @param cronSchedule
+   * @return next run or null if there is no valid schedule or no next occurrence
+   */
+  public OffsetDateTime computeNextRun(String cronSchedule) {
+    // invalid expressions are reported by the validator
+    if (StringUtils.isBlank(cronSchedule) || !CronExpression.isValidExpression(cronSchedule)) {
+      return null;
+    }
+    return computeNextRun(cronSchedule, ZonedDateTime.now(scheduledExportConfig.getZoneId()));
+  }
+
+  OffsetDateTime computeNextRun(String cronSchedule, ZonedDateTime from) {
+    ZonedDateTime next = CronExpression.parse(cronSchedule).next(from);
+    if (next == null) {
+      return null;
+    }
+
+    Duration maxJitter = scheduledExportConfig.getMaxJitter() != null ?
+      scheduledExportConfig.getMaxJitter() : Duration.ZERO;
+    if (scheduledExportConfig.hasOffPeakWindow()) {
+      next = moveToWindow(next, scheduledExportConfig.getOffPeakStartTime(),
+        scheduledExportConfig.getOffPeakEndTime());
+      maxJitter = maxJitterInWindow(next, scheduledExportConfig.getOffPeakEndTime(), maxJitter);
+    }
+
+    if (maxJitter.toMillis() > 0) {
+      next = next.plus(Duration.ofMillis(ThreadLocalRandom.current().nextLong(maxJitter.toMillis())));
+    }
+    return next.toOffsetDateTime();
+  }
+
+  /**
+   * Limits the jitter to the time left in the window so a run inside the window stays inside it.
+   * @param dateTime run, inside the window
+   * @param end end of the window (exclusive)
+   * @param maxJitter
+   * @return the smallest of maxJitter and the time left before the end of the window
+   */
+  static Duration maxJitterInWindow(ZonedDateTime dateTime, LocalTime end, Duration maxJitter) {
+    ZonedDateTime windowEnd = dateTime.with(end);
+    if (!windowEnd.isAfter(dateTime)) {
+      windowEnd = windowEnd.plusDays(1);
+    }
+    Duration left = Duration.between(dateTime, windowEnd);
+    return left.compareTo(maxJitter) < 0 ? left : maxJitter;
+  }
+
+  /**
+   * Moves the date time to the next start of the window if it is not inside the window.
+   * The window can span midnight (e.g. 22:00 to 06:00).
+   */
+  static ZonedDateTime moveToWindow(ZonedDateTime dateTime, LocalTime start, LocalTime end) {
+    LocalTime time = dateTime.toLocalTime();
+    boolean inWindow = start.isBefore(end) ?
+      !time.isBefore(start) && time.isBefore(end) :
+      !time.isBefore(start) || time.isBefore(end);
+    if (inWindow) {
+      return dateTime;
+    }
+
+    ZonedDateTime windowStart = dateTime.with(start);
+    return windowStart.isBefore(dateTime) ? windowStart.plusDays(1) : windowStart;
+  }
+}
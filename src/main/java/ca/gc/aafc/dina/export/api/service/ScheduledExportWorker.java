@@ -0,0 +1,47 @@
+package ca.gc.aafc.dina.export.api.service;
+
+import java.util.List;
+import java.util.UUID;
+import lombok.extern.log4j.Log4j2;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import ca.gc.aafc.dina.export.api.config.ScheduledExportConfig;
+import ca.gc.aafc.dina.export.api.entity.DataExport;
+
+/**
+ * Polls the templates with a cron schedule and creates the exports due to run.
+ * Does nothing unless scheduled exports are enabled.
+ */
+@Service
+@Log4j2
+public class ScheduledExportWorker {
+
+  private final ScheduledExportService scheduledExportService;
+  private final ScheduledExportConfig scheduledExportConfig;
+
+  public ScheduledExportWorker(ScheduledExportService scheduledExportService,
+                               ScheduledExportConfig scheduledExportConfig) {
+    this.scheduledExportService = scheduledExportService;
+    this.scheduledExportConfig = scheduledExportConfig;
+  }
+
+  @Scheduled(fixedDelayString = "#{@scheduledExportConfig.pollInterval.toMillis()}")
+  public void poll() {
+    if (!scheduledExportConfig.isEnabled()) {
+      return;
+    }
+
+    List<UUID> due = scheduledExportService.claimDue(scheduledExportConfig.getMaxRunsPerPoll());
+    for (UUID templateUuid : due) {
+      // a failed run is skipped, the template stays scheduled for its next run
+      try {
+        DataExport dataExport = scheduledExportService.createExport(templateUuid);
+        log.info("Export {} created from scheduled DataExportTemplate {}", dataExport.getUuid(), templateUuid);
+      } catch (RuntimeException ex) {
+        log.error("Can't create the scheduled export of DataExportTemplate {}", templateUuid, ex);
+      }
+    }
+  }
+}
@@ -13,6 +13,7 @@ import co.elastic.clients.elasticsearch._types.SortOrder;
 import co.elastic.clients.elasticsearch._types.Time;
 import co.elastic.clients.elasticsearch.core.ClosePointInTimeRequest;
 import co.elastic.clients.elasticsearch.core.ClosePointInTimeResponse;
+import co.elastic.clients.elasticsearch.core.CountRequest;
 import co.elastic.clients.elasticsearch.core.OpenPointInTimeResponse;
 import co.elastic.clients.elasticsearch.core.SearchRequest;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
@@ -54,6 +55,19 @@ public class ElasticSearchDataSource {
     return client.search(sr, JsonNode.class);
   }
 
+  /**
+   * Count the documents matching a query.
+   * @param indexName
+   * @param queryClause the json of the query clause only (the value of "query" in a search). Null to count all.
+   * @return number of documents matching
+   */
+  public long count(String indexName, String queryClause) throws IOException {
+    String body = queryClause == null ? "{}" : "{\"query\":" + queryClause + "}";
+    CountRequest cr = CountRequest.of(b -> b
+      .withJson(new StringReader(body)).index(indexName));
+    return client.count(cr).count();
+  }
+
   /**
    * Search with ElasticSearch Point-in-time to go through multiple pages.
    * <a href="https://www.elastic.co/guide/en/elasticsearch/reference/7.17/paginate-search-results.html#search-after">https://www.elastic.co/guide/en/elasticsearch/reference/7.17/paginate-search-results.html#search-after</a>
@@ -65,16 +79,30 @@ public class ElasticSearchDataSource {
    * @return
    */
   public SearchResponse<JsonNode> searchWithPIT(String indexName, String query) throws IOException {
+    return searchWithPIT(indexName, query, null);
+  }
+
+  /**
+   * Same as {@link #searchWithPIT(String, String)} but starting after the provided sort values.
+   * Used to resume from a previous search using a new Point-in-time. The query should use the same sort.
+   *
+   * @param indexName
+   * @param query
+   * @param sortFieldValues sort values of the last hit of the previous search. Optional.
+   * @return
+   */
+  public SearchResponse<JsonNode> searchWithPIT(String indexName, String query, List<FieldValue> sortFieldValues)
+    throws IOException {
 
     // create the PIT
     OpenPointInTimeResponse opitResponse =
       client.openPointInTime(b -> b.index(indexName).keepAlive(KEEP_ALIVE));
 
-    SearchRequest sr = buildSearchRequestWithPIT(opitResponse.id(), query, false);
+    SearchRequest sr = buildSearchRequestWithPIT(opitResponse.id(), query, false, sortFieldValues);
 
     //We need a sort so if the query doesn't include one, use the default one
     if (CollectionUtils.isEmpty(sr.sort())) {
-      sr = buildSearchRequestWithPIT(opitResponse.id(), query, true);
+      sr = buildSearchRequestWithPIT(opitResponse.id(), query, true, sortFieldValues);
     }
 
     return client.search(sr, JsonNode.class);
@@ -109,10 +137,6 @@ public class ElasticSearchDataSource {
     return csr.succeeded();
   }
 
-  private SearchRequest buildSearchRequestWithPIT(String pitId, String query, boolean setDefaultSort) {
-    return buildSearchRequestWithPIT(pitId, query, setDefaultSort, null);
-  }
-
   private SearchRequest buildSearchRequestWithPIT(String pitId, String query, boolean setDefaultSort, List<FieldValue> searchAfter) {
     Reader strReader = new StringReader(query);
     SearchRequest.Builder builder = new SearchRequest.Builder();
@@ -1,10 +1,13 @@
 package ca.gc.aafc.dina.export.api.validation;
 
 import org.apache.commons.lang3.BooleanUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.context.MessageSource;
+import org.springframework.scheduling.support.CronExpression;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.Errors;
 
+import ca.gc.aafc.dina.export.api.entity.DataExport;
 import ca.gc.aafc.dina.export.api.entity.DataExportTemplate;
 import ca.gc.aafc.dina.validation.DinaBaseValidator;
 
@@ -12,6 +15,9 @@ import ca.gc.aafc.dina.validation.DinaBaseValidator;
 public class DataExportTemplateValidator extends DinaBaseValidator<DataExportTemplate> {
 
   static final String INVALID_PUBLICLY_AVAILABLE_KEY = "dataExportTemplate.publiclyReleasableAndRestrictToCreatedBy.invalid";
+  static final String INVALID_INCREMENTAL_FIELD_KEY = "dataExportTemplate.incrementalField.invalid";
+  static final String INVALID_CRON_SCHEDULE_KEY = "dataExportTemplate.cronSchedule.invalid";
+  static final String CRON_SCHEDULE_SOURCE_REQUIRED_KEY = "dataExportTemplate.cronSchedule.sourceRequired";
 
   public DataExportTemplateValidator(MessageSource messageSource) {
     super(DataExportTemplate.class, messageSource);
@@ -25,5 +31,19 @@ public class DataExportTemplateValidator extends DinaBaseValidator<DataExportTem
       String errorMessage = getMessage(INVALID_PUBLICLY_AVAILABLE_KEY);
       errors.reject(INVALID_PUBLICLY_AVAILABLE_KEY, errorMessage);
     }
+
+    if (StringUtils.isNotBlank(target.getIncrementalField()) &&
+      target.getExportType() != DataExport.ExportType.TABULAR_DATA) {
+      errors.reject(INVALID_INCREMENTAL_FIELD_KEY, getMessage(INVALID_INCREMENTAL_FIELD_KEY));
+    }
+
+    if (StringUtils.isNotBlank(target.getCronSchedule())) {
+      if (!CronExpression.isValidExpression(target.getCronSchedule())) {
+        errors.reject(INVALID_CRON_SCHEDULE_KEY, getMessage(INVALID_CRON_SCHEDULE_KEY, target.getCronSchedule()));
+      }
+      if (StringUtils.isBlank(target.getSource())) {
+        errors.reject(CRON_SCHEDULE_SOURCE_REQUIRED_KEY, getMessage(CRON_SCHEDULE_SOURCE_REQUIRED_KEY));
+      }
+    }
   }
 }
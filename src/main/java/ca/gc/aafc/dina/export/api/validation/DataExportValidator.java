@@ -0,0 +1,65 @@
+package ca.gc.aafc.dina.export.api.validation;
+
+import org.springframework.context.MessageSource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.Errors;
+
+import ca.gc.aafc.dina.export.api.config.DataExportConfig;
+import ca.gc.aafc.dina.export.api.entity.DataExport;
+import ca.gc.aafc.dina.export.api.service.DataExportEstimator;
+import ca.gc.aafc.dina.validation.DinaBaseValidator;
+
+/**
+ * Admission control of exports based on the estimates computed on creation.
+ * Limits are only enforced when the estimate is known.
+ */
+@Component
+public class DataExportValidator extends DinaBaseValidator<DataExport> {
+
+  static final String TOO_MANY_ROWS_KEY = "dataExport.estimatedRowCount.tooLarge";
+  static final String TOO_LARGE_KEY = "dataExport.estimatedSize.tooLarge";
+  static final String NOT_ENOUGH_DISK_SPACE_KEY = "dataExport.estimatedSize.notEnoughDiskSpace";
+
+  private final DataExportConfig dataExportConfig;
+  private final DataExportEstimator dataExportEstimator;
+
+  public DataExportValidator(MessageSource messageSource, DataExportConfig dataExportConfig,
+                             DataExportEstimator dataExportEstimator) {
+    super(DataExport.class, messageSource);
+    this.dataExportConfig = dataExportConfig;
+    this.dataExportEstimator = dataExportEstimator;
+  }
+
+  @Override
+  public void validateTarget(DataExport target, Errors errors) {
+
+    if (target.getEstimatedRowCount() != null && dataExportConfig.getMaxEstimatedRows() != null &&
+      target.getEstimatedRowCount() > dataExportConfig.getMaxEstimatedRows()) {
+      errors.reject(TOO_MANY_ROWS_KEY, getMessage(TOO_MANY_ROWS_KEY, target.getEstimatedRowCount(),
+        dataExportConfig.getMaxEstimatedRows()));
+    }
+
+    if (target.getEstimatedSize() == null) {
+      return;
+    }
+
+    if (dataExportConfig.getMaxEstimatedSize() != null &&
+      target.getEstimatedSize() > dataExportConfig.getMaxEstimatedSize().toBytes()) {
+      errors.reject(TOO_LARGE_KEY, getMessage(TOO_LARGE_KEY, toMegabytes(target.getEstimatedSize()),
+        dataExportConfig.getMaxEstimatedSize().toMegabytes()));
+    }
+
+    if (dataExportConfig.getMinFreeDiskSpace() != null) {
+      long available = dataExportEstimator.getUsableSpace() - dataExportConfig.getMinFreeDiskSpace().toBytes();
+      if (target.getEstimatedSize() > available) {
+        errors.reject(NOT_ENOUGH_DISK_SPACE_KEY, getMessage(NOT_ENOUGH_DISK_SPACE_KEY,
+          toMegabytes(target.getEstimatedSize())));
+      }
+    }
+  }
+
+  private static long toMegabytes(long bytes) {
+    return DataSize.ofBytes(bytes).toMegabytes();
+  }
+}
@@ -0,0 +1,51 @@
+package ca.gc.aafc.dina.export.api.async;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+
+import ca.gc.aafc.dina.export.api.config.ExportExecutorsConfig;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BoundedExportExecutorTest {
+
+  @Test
+  public void execute_onSaturatedExecutor_taskRejectedAndCounted() throws InterruptedException {
+    BoundedExportExecutor executor = new BoundedExportExecutor("TestExecutor",
+      new ExportExecutorsConfig.ExecutorSettings(1, 1, 1, ExportExecutorsConfig.RejectionPolicy.ERROR, false));
+    executor.initialize();
+
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Runnable blocking = () -> {
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    };
+
+    try {
+      executor.execute(blocking);
+      started.await();
+      // goes in the queue
+      executor.execute(blocking);
+      // no thread and no space left in the queue
+      assertThrows(TaskRejectedException.class, () -> executor.execute(blocking));
+
+      ExportExecutorStats stats = executor.getStats();
+      assertEquals("TestExecutor", stats.name());
+      assertEquals(1, stats.activeCount());
+      assertEquals(1, stats.queueSize());
+      assertEquals(1, stats.queueCapacity());
+      assertEquals(1, stats.rejectedCount());
+    } finally {
+      release.countDown();
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package ca.gc.aafc.dina.export.api.async;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class FairExportSchedulerTest {
+
+  @Test
+  public void poll_onMultipleUsers_roundRobin() {
+    FairExportScheduler<String> scheduler = new FairExportScheduler<>(10, null, null, 10);
+    scheduler.offer("user1", "a1", FairExportScheduler.UNKNOWN_COST);
+    scheduler.offer("user1", "a2", FairExportScheduler.UNKNOWN_COST);
+    scheduler.offer("user1", "a3", FairExportScheduler.UNKNOWN_COST);
+    scheduler.offer("user2", "b1", FairExportScheduler.UNKNOWN_COST);
+    scheduler.offer("user3", "c1", FairExportScheduler.UNKNOWN_COST);
+
+    assertEquals("a1", scheduler.poll());
+    assertEquals("b1", scheduler.poll());
+    assertEquals("c1", scheduler.poll());
+    assertEquals("a2", scheduler.poll());
+    assertEquals("a3", scheduler.poll());
+    assertNull(scheduler.poll());
+    assertEquals(5, scheduler.getRunningCount());
+  }
+
+  @Test
+  public void poll_onLimits_limitsRespected() {
+    FairExportScheduler<String> scheduler = new FairExportScheduler<>(2, 1, null, 3);
+    scheduler.offer("user1", "a1", FairExportScheduler.UNKNOWN_COST);
+    scheduler.offer("user1", "a2", FairExportScheduler.UNKNOWN_COST);
+    scheduler.offer("user2", "b1", FairExportScheduler.UNKNOWN_COST);
+    // capacity reached
+    assertFalse(scheduler.offer("user2", "b2", FairExportScheduler.UNKNOWN_COST));
+
+    assertEquals("a1", scheduler.poll());
+    assertEquals("b1", scheduler.poll());
+    // max running reached
+    assertNull(scheduler.poll());
+
+    scheduler.done("user2");
+    // a2 can't run, user1 is at its limit
+    assertNull(scheduler.poll());
+
+    scheduler.done("user1");
+    assertEquals("a2", scheduler.poll());
+  }
+
+  @Test
+  public void poll_onSmallTask_smallTaskFirst() {
+    FairExportScheduler<String> scheduler = new FairExportScheduler<>(10, null, 100L, 10);
+    scheduler.offer("user1", "large", 1_000_000);
+    scheduler.offer("user1", "unknown", FairExportScheduler.UNKNOWN_COST);
+    scheduler.offer("user2", "small", 50);
+
+    assertEquals("small", scheduler.poll());
+    assertEquals("large", scheduler.poll());
+    assertEquals("unknown", scheduler.poll());
+  }
+
+  @Test
+  public void remove_onWaitingTask_taskRemoved() {
+    FairExportScheduler<String> scheduler = new FairExportScheduler<>(10, null, null, 10);
+    scheduler.offer("user1", "a1", FairExportScheduler.UNKNOWN_COST);
+    scheduler.offer("user2", "b1", FairExportScheduler.UNKNOWN_COST);
+
+    assertEquals(List.of("a1"), scheduler.remove("a1"::equals));
+    assertEquals(1, scheduler.getWaitingCount());
+    assertEquals("b1", scheduler.poll());
+  }
+}
@@ -0,0 +1,56 @@
+package ca.gc.aafc.dina.export.api.async;
+
+import org.junit.jupiter.api.Test;
+
+import ca.gc.aafc.dina.export.api.config.ExportExecutorsConfig;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VirtualThreadExportExecutorTest {
+
+  @Test
+  public void execute_onSaturatedExecutor_concurrencyLimitedAndTaskRejected() throws InterruptedException {
+    VirtualThreadExportExecutor executor = new VirtualThreadExportExecutor("TestVirtualExecutor",
+      new ExportExecutorsConfig.ExecutorSettings(0, 2, 1, ExportExecutorsConfig.RejectionPolicy.ERROR, true));
+
+    CountDownLatch started = new CountDownLatch(2);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch completed = new CountDownLatch(3);
+    Runnable blocking = () -> {
+      assertTrue(Thread.currentThread().isVirtual());
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      completed.countDown();
+    };
+
+    try {
+      executor.execute(blocking);
+      executor.execute(blocking);
+      started.await();
+      // waiting for a permit
+      executor.execute(blocking);
+      assertThrows(RejectedExecutionException.class, () -> executor.execute(blocking));
+
+      ExportExecutorStats stats = executor.getStats();
+      assertEquals(2, stats.activeCount());
+      assertEquals(1, stats.queueSize());
+      assertEquals(1, stats.rejectedCount());
+
+      release.countDown();
+      assertTrue(completed.await(5, TimeUnit.SECONDS));
+    } finally {
+      release.countDown();
+      executor.close();
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package ca.gc.aafc.dina.export.api.event;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import ca.gc.aafc.dina.export.api.entity.DataExport;
+import ca.gc.aafc.dina.export.api.generator.ExportProgress;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+public class DataExportEventBroadcasterTest {
+
+  @Test
+  public void onStatusEvent_onAllExportsTerminal_emitterCompleted() {
+    DataExportEventBroadcaster broadcaster = new DataExportEventBroadcaster();
+    UUID export1 = UUID.randomUUID();
+    UUID export2 = UUID.randomUUID();
+
+    RecordingEmitter emitter = new RecordingEmitter();
+    broadcaster.subscribe(emitter, List.of(export1, export2));
+    assertEquals(2, broadcaster.getSubscribedExportCount());
+
+    broadcaster.onProgressEvent(new DataExportProgressEvent(export1,
+      new ExportProgress(10, 1, 100L, null, null)));
+    broadcaster.onStatusEvent(new DataExportStatusEvent(export1, DataExport.ExportStatus.COMPLETED));
+    assertEquals(2, emitter.sent);
+    assertFalse(emitter.completed);
+    assertEquals(1, broadcaster.getSubscribedExportCount());
+
+    // events of other exports are ignored
+    broadcaster.onStatusEvent(new DataExportStatusEvent(UUID.randomUUID(), DataExport.ExportStatus.RUNNING));
+    assertEquals(2, emitter.sent);
+
+    broadcaster.onStatusEvent(new DataExportStatusEvent(export2, DataExport.ExportStatus.ERROR));
+    assertEquals(3, emitter.sent);
+    assertTrue(emitter.completed);
+    assertEquals(0, broadcaster.getSubscribedExportCount());
+  }
+
+  @Test
+  public void subscribe_onNoExport_emitterCompleted() {
+    DataExportEventBroadcaster broadcaster = new DataExportEventBroadcaster();
+    RecordingEmitter emitter = new RecordingEmitter();
+    broadcaster.subscribe(emitter, Set.of());
+    assertTrue(emitter.completed);
+    assertEquals(0, broadcaster.getSubscribedExportCount());
+  }
+
+  @Test
+  public void sendSnapshot_onTerminalSnapshot_emitterCompletedOnce() {
+    DataExportEventBroadcaster broadcaster = new DataExportEventBroadcaster();
+    UUID export1 = UUID.randomUUID();
+
+    RecordingEmitter emitter = new RecordingEmitter();
+    DataExportEventBroadcaster.Subscription subscription = broadcaster.subscribe(emitter, List.of(export1));
+    broadcaster.sendSnapshot(subscription,
+      new DataExportStatusEvent(export1, DataExport.ExportStatus.COMPLETED), null);
+    assertEquals(1, emitter.sent);
+    assertEquals(1, emitter.completedCount);
+    assertEquals(0, broadcaster.getSubscribedExportCount());
+
+    // the same terminal event published concurrently is not sent on the completed emitter
+    broadcaster.onStatusEvent(new DataExportStatusEvent(export1, DataExport.ExportStatus.COMPLETED));
+    assertEquals(1, emitter.sent);
+    assertEquals(1, emitter.completedCount);
+  }
+
+  private static class RecordingEmitter extends SseEmitter {
+    private int sent;
+    private boolean completed;
+    private int completedCount;
+
+    @Override
+    public void send(SseEventBuilder builder) {
+      sent++;
+    }
+
+    @Override
+    public void complete() {
+      completed = true;
+      completedCount++;
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package ca.gc.aafc.dina.export.api.event;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import ca.gc.aafc.dina.export.api.BaseIntegrationTest;
+import ca.gc.aafc.dina.export.api.DinaAuthenticatedUserConfig;
+import ca.gc.aafc.dina.export.api.config.DataExportConfig;
+import ca.gc.aafc.dina.export.api.entity.DataExport;
+import ca.gc.aafc.dina.export.api.service.DataExportStatusService;
+import ca.gc.aafc.dina.testsupport.DatabaseSupportService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import javax.inject.Inject;
+
+/**
+ * Exports are created as REPORT so they are not claimed by the job queue while the test is running.
+ */
+public class DataExportEventControllerIT extends BaseIntegrationTest {
+
+  @Inject
+  private DataExportEventController controller;
+
+  @Inject
+  private DataExportStatusService dataExportStatusService;
+
+  @Inject
+  private DatabaseSupportService dbSupportService;
+
+  @Test
+  public void subscribe_onTerminalExport_terminalStatusSentAndStreamClosed() {
+    UUID uuid = persistExport(DataExport.ExportStatus.COMPLETED);
+
+    RecordingEmitter emitter = new RecordingEmitter();
+    controller.subscribe(Set.of(uuid), emitter);
+
+    assertEquals(List.of(new DataExportStatusEvent(uuid, DataExport.ExportStatus.COMPLETED)), emitter.statusEvents());
+    assertTrue(emitter.completed);
+  }
+
+  @Test
+  public void subscribe_onStatusChangedToTerminal_terminalStatusSentAndStreamClosed() {
+    UUID uuid = persistExport(DataExport.ExportStatus.RUNNING);
+
+    RecordingEmitter emitter = new RecordingEmitter();
+    controller.subscribe(Set.of(uuid), emitter);
+    assertEquals(List.of(new DataExportStatusEvent(uuid, DataExport.ExportStatus.RUNNING)), emitter.statusEvents());
+    assertFalse(emitter.completed);
+
+    dataExportStatusService.updateStatus(uuid, DataExport.ExportStatus.COMPLETED);
+
+    assertEquals(List.of(new DataExportStatusEvent(uuid, DataExport.ExportStatus.RUNNING),
+      new DataExportStatusEvent(uuid, DataExport.ExportStatus.COMPLETED)), emitter.statusEvents());
+    assertTrue(emitter.completed);
+  }
+
+  private UUID persistExport(DataExport.ExportStatus status) {
+    UUID uuid = UUID.randomUUID();
+    dbSupportService.runInNewTransaction(em -> em.persist(DataExport.builder()
+      .uuid(uuid)
+      .createdBy(DinaAuthenticatedUserConfig.USER_NAME)
+      .source(DataExportConfig.REPORT_SOURCE)
+      .exportType(DataExport.ExportType.REPORT)
+      .status(status)
+      .filename("report.pdf")
+      .build()));
+    return uuid;
+  }
+
+  private static class RecordingEmitter extends SseEmitter {
+    private final List<Object> sent = new ArrayList<>();
+    private boolean completed;
+
+    @Override
+    public synchronized void send(SseEventBuilder builder) {
+      builder.build().forEach(d -> sent.add(d.getData()));
+    }
+
+    @Override
+    public synchronized void complete() {
+      completed = true;
+    }
+
+    synchronized List<DataExportStatusEvent> statusEvents() {
+      return sent.stream()
+        .filter(DataExportStatusEvent.class::isInstance)
+        .map(DataExportStatusEvent.class::cast)
+        .toList();
+    }
+  }
+}
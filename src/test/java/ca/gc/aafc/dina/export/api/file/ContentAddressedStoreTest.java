@@ -0,0 +1,111 @@
+package ca.gc.aafc.dina.export.api.file;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ContentAddressedStoreTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  public void storeAndLink_onSameKey_contentShared() throws IOException {
+    ContentAddressedStore store = new ContentAddressedStore(tempDir.resolve("store"), 1024);
+
+    Path file = store.createTempFile();
+    Files.writeString(file, "archive content");
+    String key = ContentAddressedStore.checksumKey(file);
+
+    Path export1 = tempDir.resolve("export1.zip");
+    store.storeAndLink(key, file, export1);
+    assertEquals("archive content", Files.readString(export1));
+
+    Path export2 = tempDir.resolve("export2.zip");
+    assertTrue(store.linkIfPresent(key, export2));
+    assertEquals("archive content", Files.readString(export2));
+
+    assertFalse(store.linkIfPresent(ContentAddressedStore.etagKey("bucket/file1", "\"abc\""),
+      tempDir.resolve("export3.zip")));
+  }
+
+  @Test
+  public void etagKey_onSameETagDifferentObject_differentKey() {
+    assertNotEquals(ContentAddressedStore.etagKey("bucket/file1", "\"abc\""),
+      ContentAddressedStore.etagKey("bucket/file2", "\"abc\""));
+    assertNotEquals(ContentAddressedStore.etagKey("bucket1/file1", "\"abc\""),
+      ContentAddressedStore.etagKey("bucket2/file1", "\"abc\""));
+  }
+
+  @Test
+  public void checksumKey_onDifferentContent_differentKey() throws IOException {
+    Path file1 = Files.writeString(tempDir.resolve("f1"), "content 1");
+    Path file2 = Files.writeString(tempDir.resolve("f2"), "content 2");
+    assertNotEquals(ContentAddressedStore.checksumKey(file1), ContentAddressedStore.checksumKey(file2));
+  }
+
+  @Test
+  public void evict_onMaxSizeExceeded_leastRecentlyUsedRemoved() throws IOException {
+    Path storeDir = tempDir.resolve("store");
+    ContentAddressedStore store = new ContentAddressedStore(storeDir, 15);
+
+    Path file1 = store.createTempFile();
+    Files.writeString(file1, "0123456789");
+    Path export1 = tempDir.resolve("export1.zip");
+    store.storeAndLink("key1", file1, export1);
+
+    // make sure the first entry is older
+    try (Stream<Path> entries = Files.list(storeDir)) {
+      for (Path entry : entries.toList()) {
+        Files.setLastModifiedTime(entry, FileTime.from(Instant.now().minusSeconds(60)));
+      }
+    }
+
+    Path file2 = store.createTempFile();
+    Files.writeString(file2, "abcdefghij");
+    Path export2 = tempDir.resolve("export2.zip");
+    store.storeAndLink("key2", file2, export2);
+
+    assertFalse(store.linkIfPresent("key1", tempDir.resolve("export3.zip")));
+    assertTrue(store.linkIfPresent("key2", tempDir.resolve("export4.zip")));
+
+    // the linked export is not affected by the eviction
+    assertEquals("0123456789", Files.readString(export1));
+  }
+
+  @Test
+  public void store_onExpiredEntry_entryNotLinked() throws IOException {
+    Path storeDir = tempDir.resolve("store");
+    ContentAddressedStore store = new ContentAddressedStore(storeDir, 1024, Duration.ofHours(1));
+
+    Path report = Files.writeString(tempDir.resolve("report.pdf"), "report content");
+    store.store("key1", report);
+    // the original file is left in place
+    assertTrue(Files.exists(report));
+    assertTrue(store.linkIfPresent("key1", tempDir.resolve("report2.pdf")));
+    assertEquals("report content", Files.readString(tempDir.resolve("report2.pdf")));
+
+    // not used for longer than the max age
+    try (Stream<Path> entries = Files.list(storeDir)) {
+      for (Path entry : entries.toList()) {
+        Files.setLastModifiedTime(entry, FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+      }
+    }
+    assertFalse(store.linkIfPresent("key1", tempDir.resolve("report3.pdf")));
+    try (Stream<Path> entries = Files.list(storeDir)) {
+      assertEquals(0, entries.count());
+    }
+  }
+}
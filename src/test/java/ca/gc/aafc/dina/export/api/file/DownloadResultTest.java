@@ -0,0 +1,19 @@
+package ca.gc.aafc.dina.export.api.file;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class DownloadResultTest {
+
+  @Test
+  public void bytesPerSecond_onDownloadResult_throughputComputed() {
+    DownloadResult result = new DownloadResult(2048, Duration.ofMillis(500), Duration.ofMillis(20), 0, null, false);
+    assertEquals(4096, result.bytesPerSecond());
+
+    DownloadResult noDuration = new DownloadResult(2048, Duration.ZERO, Duration.ZERO, 0, null, false);
+    assertEquals(0, noDuration.bytesPerSecond());
+  }
+}
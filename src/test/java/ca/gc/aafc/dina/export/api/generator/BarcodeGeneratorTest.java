@@ -10,6 +10,7 @@ import java.io.InputStream;
 import ca.gc.aafc.dina.export.api.generator.BarcodeGenerator;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class BarcodeGeneratorTest {
 
@@ -34,4 +35,15 @@ public class BarcodeGeneratorTest {
     assertArrayEquals(expectedContent, content);
   }
 
+  @Test
+  public void testSvgDataMatrixGeneration() throws WriterException {
+    BarcodeGenerator barcodeGenerator = new BarcodeGenerator();
+    String svg = barcodeGenerator.createSvgCode("06-01001016875", BarcodeGenerator.buildDefaultQrConfig());
+
+    assertTrue(svg.startsWith("<svg"));
+    assertTrue(svg.contains("viewBox=\"0 0 "));
+    // natural size, much smaller than the 600x600 image
+    assertTrue(svg.length() < 4000);
+  }
+
 }
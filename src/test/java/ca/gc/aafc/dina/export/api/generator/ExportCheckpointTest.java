@@ -0,0 +1,34 @@
+package ca.gc.aafc.dina.export.api.generator;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExportCheckpointTest {
+
+  @Test
+  public void searchAfterAsFieldValues_onJsonRoundTrip_sameSortValues() throws IOException {
+    ObjectMapper om = new ObjectMapper();
+    ExportCheckpoint checkpoint = ExportCheckpoint.of(
+      List.of(FieldValue.of(12L), FieldValue.of(1.5), FieldValue.of("abc"), FieldValue.of(true), FieldValue.NULL),
+      100, 2048);
+
+    ExportCheckpoint fromJson = om.readValue(om.writeValueAsString(checkpoint), ExportCheckpoint.class);
+    assertEquals(100, fromJson.rowsWritten());
+    assertEquals(2048, fromJson.fileOffset());
+
+    List<FieldValue> values = fromJson.searchAfterAsFieldValues();
+    assertEquals(12L, values.get(0).longValue());
+    assertEquals(1.5, values.get(1).doubleValue());
+    assertEquals("abc", values.get(2).stringValue());
+    assertTrue(values.get(3).booleanValue());
+    assertTrue(values.get(4).isNull());
+  }
+}
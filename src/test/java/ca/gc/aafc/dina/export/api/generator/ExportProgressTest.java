@@ -0,0 +1,25 @@
+package ca.gc.aafc.dina.export.api.generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ExportProgressTest {
+
+  @Test
+  public void estimateCompletion_onConstantThroughput_completionEstimated() {
+    OffsetDateTime now = OffsetDateTime.now();
+    // 100 rows in 10 seconds, 300 remaining
+    assertEquals(now.plusSeconds(30),
+      ExportProgress.estimateCompletion(100, 300, Duration.ofSeconds(10), now));
+  }
+
+  @Test
+  public void estimateCompletion_onNoRowsWritten_null() {
+    assertNull(ExportProgress.estimateCompletion(0, 300, Duration.ofSeconds(10), OffsetDateTime.now()));
+  }
+}
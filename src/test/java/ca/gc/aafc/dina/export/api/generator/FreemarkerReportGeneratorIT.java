@@ -9,27 +9,40 @@ import ca.gc.aafc.dina.export.api.DinaExportModuleApiLauncher;
 import ca.gc.aafc.dina.export.api.generator.FreemarkerReportGenerator;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import freemarker.core._MiscTemplateException;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
 import freemarker.template.TemplateException;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import javax.inject.Inject;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
+import lombok.extern.log4j.Log4j2;
 
 @SpringBootTest(classes = {BaseIntegrationTest.TestConfig.class, DinaExportModuleApiLauncher.class })
+@Log4j2
 public class FreemarkerReportGeneratorIT extends BaseIntegrationTest {
 
   @Inject
   private FreemarkerReportGenerator freemarkerReportGenerator;
 
+  @Inject
+  private Configuration freemarkerConfiguration;
+
   @Test
   public void testCsvGeneration() throws IOException {
     Writer writer = new StringWriter();
@@ -58,6 +71,31 @@ public class FreemarkerReportGeneratorIT extends BaseIntegrationTest {
       StringUtils.deleteWhitespace(writer.toString()));
   }
 
+  /**
+   * Streams a 10k elements payload to a writer that discards the output and reports time and peak heap.
+   */
+  @Test
+  public void testJsonGeneration_on10kElements_streamedToWriter() throws IOException {
+    List<MyObject> data = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      data.add(MyObject.builder().sampleName("ABC-" + i).extractName("b" + i).date("2003-04-02").build());
+    }
+
+    List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+      .filter(p -> p.getType() == MemoryType.HEAP).toList();
+    heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+    CountingWriter writer = new CountingWriter();
+    long start = System.nanoTime();
+    freemarkerReportGenerator.generateReport("testJson.flt", Map.of("data", data), writer);
+    long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+    long peakHeap = heapPools.stream().mapToLong(p -> p.getPeakUsage().getUsed()).sum();
+
+    log.info("10k elements: {} chars written in {} ms, peak heap {} MB", writer.count, elapsedMs,
+      peakHeap / (1024 * 1024));
+    assertTrue(writer.count > 10_000 * "generatedName".length());
+  }
+
   @Test
   public void testUnsafeTemplate() {
     Writer writer = new StringWriter();
@@ -67,6 +105,37 @@ public class FreemarkerReportGeneratorIT extends BaseIntegrationTest {
     assertTrue(tEx.getMessage().contains("not allowed in the template for security reasons"));
   }
 
+  @Test
+  public void reload_onCachedTemplate_templateReplaced() throws IOException {
+    freemarkerReportGenerator.reload("testCsv.flt");
+    Template compiled = freemarkerConfiguration.getTemplate("testCsv.flt");
+    // served from the cache
+    assertSame(compiled, freemarkerConfiguration.getTemplate("testCsv.flt"));
+
+    freemarkerReportGenerator.invalidate("testCsv.flt");
+    assertNotSame(compiled, freemarkerConfiguration.getTemplate("testCsv.flt"));
+  }
+
+  /**
+   * Writer that only counts the characters written.
+   */
+  private static class CountingWriter extends Writer {
+    private long count;
+
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+      count += len;
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
   @Setter
   @Getter
   @Builder
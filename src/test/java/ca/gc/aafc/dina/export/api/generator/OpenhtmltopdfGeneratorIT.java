@@ -1,8 +1,10 @@
 package ca.gc.aafc.dina.export.api.generator;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.Map;
 import javax.inject.Inject;
 
 import org.junit.jupiter.api.Test;
@@ -12,6 +14,8 @@ import ca.gc.aafc.dina.export.api.BaseIntegrationTest;
 import ca.gc.aafc.dina.export.api.DinaExportModuleApiLauncher;
 import ca.gc.aafc.dina.export.api.generator.OpenhtmltopdfGenerator;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 @SpringBootTest(classes = {BaseIntegrationTest.TestConfig.class, DinaExportModuleApiLauncher.class })
 public class OpenhtmltopdfGeneratorIT extends BaseIntegrationTest {
 
@@ -25,4 +29,12 @@ public class OpenhtmltopdfGeneratorIT extends BaseIntegrationTest {
       pdfGenerator.generatePDF("<html>hello</html>", "", fos);
     }
   }
+
+  @Test
+  public void testWarmup() throws IOException {
+    pdfGenerator.warmup();
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    pdfGenerator.generatePDF("<html>hello</html>", Map.of(), baos);
+    assertTrue(baos.size() > 0);
+  }
 }
@@ -0,0 +1,160 @@
+package ca.gc.aafc.dina.export.api.generator;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ContextConfiguration;
+
+import ca.gc.aafc.dina.export.api.BaseIntegrationTest;
+import ca.gc.aafc.dina.export.api.DinaExportModuleApiLauncher;
+import ca.gc.aafc.dina.export.api.ElasticSearchTestContainerInitializer;
+import ca.gc.aafc.dina.export.api.async.AsyncConsumer;
+import ca.gc.aafc.dina.export.api.dto.DataExportDto;
+import ca.gc.aafc.dina.export.api.dto.DataExportSchemaEntryDto;
+import ca.gc.aafc.dina.export.api.entity.DataExport;
+import ca.gc.aafc.dina.export.api.file.FileController;
+import ca.gc.aafc.dina.export.api.repository.DataExportRepository;
+import ca.gc.aafc.dina.export.api.source.ElasticSearchDataSource;
+import ca.gc.aafc.dina.export.api.testsupport.jsonapi.JsonApiDocuments;
+import ca.gc.aafc.dina.jsonapi.JsonApiDocument;
+import ca.gc.aafc.dina.repository.JsonApiModelAssistant;
+import ca.gc.aafc.dina.testsupport.elasticsearch.ElasticSearchTestUtils;
+import ca.gc.aafc.dina.testsupport.jsonapi.JsonAPITestHelper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.ErrorResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.inject.Inject;
+
+/**
+ * Resume of a single-entity export after an Elasticsearch failure.
+ * A checkpoint is saved after each page (page size of 1 from application-test.yml).
+ */
+@SpringBootTest(classes = {BaseIntegrationTest.TestConfig.class, DinaExportModuleApiLauncher.class},
+  properties = "dina.export.exportCheckpointInterval=0s")
+@ContextConfiguration(initializers = { ElasticSearchTestContainerInitializer.class })
+public class RecordBasedExportResumeIT extends BaseIntegrationTest {
+
+  private static final String MAT_SAMPLE_INDEX = "dina_material_sample_index";
+
+  @Inject
+  private DataExportRepository dataExportRepository;
+
+  @Inject
+  private FileController fileController;
+
+  @Inject
+  private ElasticsearchClient esClient;
+
+  @Inject
+  private AsyncConsumer<Future<UUID>> asyncConsumer;
+
+  @SpyBean
+  private ElasticSearchDataSource elasticSearchDataSource;
+
+  @AfterEach
+  public void cleanup() throws Exception {
+    try {
+      esClient.indices().delete(d -> d.index(MAT_SAMPLE_INDEX));
+    } catch (ElasticsearchException e) {
+      // Ignore if index doesn't exist
+    }
+  }
+
+  @Test
+  public void export_onElasticsearchExceptionMidScroll_exportResumed() throws Exception {
+    ElasticSearchTestUtils.createIndex(esClient, MAT_SAMPLE_INDEX, "elasticsearch/material_sample_index_settings.json");
+    List<UUID> docIds = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+    for (UUID docId : docIds) {
+      ElasticSearchTestUtils.indexDocument(esClient, MAT_SAMPLE_INDEX, docId.toString(),
+        JsonApiDocuments.getMaterialSampleDocument(docId));
+    }
+
+    // the second page fails once, as if the node became unavailable
+    AtomicBoolean failed = new AtomicBoolean();
+    doAnswer(invocation -> {
+      if (failed.compareAndSet(false, true)) {
+        throw new ElasticsearchException("search",
+          ErrorResponse.of(e -> e.status(503).error(c -> c.type("unavailable").reason("test"))));
+      }
+      return invocation.callRealMethod();
+    }).when(elasticSearchDataSource).searchAfter(anyString(), anyString(), anyList());
+
+    UUID uuid = createExport("resumed export");
+    asyncConsumer.getAccepted().getLast().get();
+
+    assertTrue(failed.get());
+    // resumed with a new PIT from the checkpoint
+    verify(elasticSearchDataSource, times(1)).searchWithPIT(anyString(), anyString(), anyList());
+    assertEquals(DataExport.ExportStatus.COMPLETED, dataExportRepository.getOne(uuid, null).getDto().getStatus());
+
+    ResponseEntity<InputStreamResource> response =
+      fileController.downloadFile(uuid, FileController.DownloadType.DATA_EXPORT);
+    List<String> lines = new String(response.getBody().getInputStream().readAllBytes(), StandardCharsets.UTF_8)
+      .lines().toList();
+
+    // header written once and each document exported once
+    assertEquals(docIds.size() + 1, lines.size());
+    for (UUID docId : docIds) {
+      assertEquals(1, lines.stream().filter(l -> l.contains(docId.toString())).count());
+    }
+  }
+
+  @Test
+  public void export_onElasticsearchExceptionAfterResumeAttempts_exportInError() throws Exception {
+    ElasticSearchTestUtils.createIndex(esClient, MAT_SAMPLE_INDEX, "elasticsearch/material_sample_index_settings.json");
+    for (int i = 0; i < 3; i++) {
+      UUID docId = UUID.randomUUID();
+      ElasticSearchTestUtils.indexDocument(esClient, MAT_SAMPLE_INDEX, docId.toString(),
+        JsonApiDocuments.getMaterialSampleDocument(docId));
+    }
+
+    // the node never comes back
+    doThrow(new ElasticsearchException("search",
+      ErrorResponse.of(e -> e.status(503).error(c -> c.type("unavailable").reason("test")))))
+      .when(elasticSearchDataSource).searchAfter(anyString(), anyString(), anyList());
+
+    UUID uuid = createExport("failed export");
+    assertThrows(ExecutionException.class, () -> asyncConsumer.getAccepted().getLast().get());
+
+    assertEquals(DataExport.ExportStatus.ERROR, dataExportRepository.getOne(uuid, null).getDto().getStatus());
+  }
+
+  private UUID createExport(String name) {
+    LinkedHashMap<String, DataExportSchemaEntryDto> schema = new LinkedHashMap<>();
+    schema.put("material-sample", DataExportSchemaEntryDto.builder()
+      .columns(List.of("id", "materialSampleName"))
+      .build());
+    DataExportDto dto = DataExportDto.builder()
+      .source(MAT_SAMPLE_INDEX)
+      .name(name)
+      .query("{\"query\": {\"match_all\": {}}}")
+      .schema(schema)
+      .build();
+
+    JsonApiDocument docToCreate = ca.gc.aafc.dina.jsonapi.JsonApiDocuments.createJsonApiDocument(
+      null, DataExportDto.TYPENAME, JsonAPITestHelper.toAttributeMap(dto));
+    return JsonApiModelAssistant.extractUUIDFromRepresentationModelLink(
+      dataExportRepository.onCreate(docToCreate));
+  }
+}
@@ -0,0 +1,64 @@
+package ca.gc.aafc.dina.export.api.output;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JsonArrayTabularConverterTest {
+
+  private static final ObjectMapper OM = new ObjectMapper();
+
+  @Test
+  public void convert_onPayloadArray_recordsWritten() throws IOException {
+    String json = "{\"other\": {\"a\": [1, 2]}, \"payload\": [" +
+      "{\"col1\": \"a\", \"col2\": \"b\"}, {\"col1\": \"y\", \"col2\": \"z\"}], \"after\": 1}";
+
+    StringWriter w = new StringWriter();
+    int count = JsonArrayTabularConverter.convert(OM, toStream(json), "payload", null, w);
+
+    assertEquals(2, count);
+    List<String> lines = w.toString().lines().toList();
+    assertEquals(List.of("col1,col2", "a,b", "y,z"), lines);
+  }
+
+  @Test
+  public void convert_onDeclaredHeaders_declaredHeadersFirst() throws IOException {
+    String json = "{\"payload\": [{\"col1\": \"a\"}, {\"col1\": \"y\", \"col2\": \"z\"}]}";
+
+    StringWriter w = new StringWriter();
+    JsonArrayTabularConverter.convert(OM, toStream(json), "payload", List.of("col2", "col1"), w);
+
+    List<String> lines = w.toString().lines().toList();
+    assertEquals(List.of("col2,col1", ",a", "z,y"), lines);
+  }
+
+  @Test
+  public void convert_onEmptyPayload_noRecordWritten() throws IOException {
+    StringWriter w = new StringWriter();
+    int count = JsonArrayTabularConverter.convert(OM, toStream("{\"payload\": []}"), "payload",
+      List.of("col1"), w);
+
+    assertEquals(0, count);
+  }
+
+  @Test
+  public void convert_onMissingPayload_exception() {
+    assertThrows(IOException.class, () -> JsonArrayTabularConverter.convert(OM,
+      toStream("{\"data\": []}"), "payload", null, new StringWriter()));
+    assertThrows(IOException.class, () -> JsonArrayTabularConverter.convert(OM,
+      toStream("{\"payload\": [1, 2]}"), "payload", null, new StringWriter()));
+  }
+
+  private static ByteArrayInputStream toStream(String json) {
+    return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -152,4 +152,26 @@ public class TabularOutputIT {
     assertTrue(fileContent.get(2).contains("Second"));
     assertTrue(fileContent.get(3).contains("Third"));
   }
+
+  @Test
+  void tabularOutput_onSkipHeaderAppend_noHeaderWritten() throws IOException {
+
+    Path tmpFile = Files.createTempFile(null, null);
+    Files.writeString(tmpFile, "Column 1,Column 2\na,b\n");
+    try (Writer w = new FileWriter(tmpFile.toFile(), StandardCharsets.UTF_8, true);
+         TabularOutput<Integer, JsonNode> output =
+           TabularOutput.create(TabularOutput.TabularOutputArgs.builder()
+             .headers(List.of("col1", "col2"))
+             .receivedHeadersAliases(List.of("Column 1", "Column 2"))
+             .skipHeader(true).build(), new TypeReference<>() {
+           }, w)) {
+
+      ObjectNode jNode = new ObjectMapper().createObjectNode();
+      jNode.put("col1", "y");
+      jNode.put("col2", "z");
+      output.addRecord(2, jNode);
+    }
+    List<String> fileContent = Files.readAllLines(tmpFile);
+    assertEquals(List.of("Column 1,Column 2", "a,b", "y,z"), fileContent);
+  }
 }
@@ -2,15 +2,18 @@ package ca.gc.aafc.dina.export.api.repository;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 
 import ca.gc.aafc.dina.exception.ResourceGoneException;
 import ca.gc.aafc.dina.exception.ResourceNotFoundException;
 import ca.gc.aafc.dina.export.api.BaseIntegrationTest;
 import ca.gc.aafc.dina.export.api.DinaExportModuleApiLauncher;
+import ca.gc.aafc.dina.export.api.async.AsyncConsumer;
 import ca.gc.aafc.dina.export.api.config.DataExportConfig;
 import ca.gc.aafc.dina.export.api.dto.ReportRequestDto;
 import ca.gc.aafc.dina.export.api.dto.ReportTemplateDto;
+import ca.gc.aafc.dina.export.api.entity.DataExport;
 import ca.gc.aafc.dina.export.api.file.FileController;
 import ca.gc.aafc.dina.export.api.generator.FreemarkerReportGeneratorIT;
 import ca.gc.aafc.dina.export.api.testsupport.fixtures.ReportRequestTestFixture;
@@ -18,12 +21,20 @@ import ca.gc.aafc.dina.export.api.testsupport.fixtures.ReportTemplateTestFixture
 import ca.gc.aafc.dina.jsonapi.JsonApiDocument;
 import ca.gc.aafc.dina.jsonapi.JsonApiDocuments;
 import ca.gc.aafc.dina.repository.JsonApiModelAssistant;
+import ca.gc.aafc.dina.testsupport.DatabaseSupportService;
 import ca.gc.aafc.dina.testsupport.jsonapi.JsonAPITestHelper;
 import ca.gc.aafc.dina.testsupport.security.WithMockKeycloakUser;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.nio.file.Files;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import javax.inject.Inject;
 
 @SpringBootTest(properties = "keycloak.enabled: true", classes = {BaseIntegrationTest.TestConfig.class, DinaExportModuleApiLauncher.class })
@@ -38,6 +49,15 @@ public class ReportRequestResourceRepositoryIT extends BaseIntegrationTest {
   @Inject
   private FileController fileController;
 
+  @Inject
+  private AsyncConsumer<Future<UUID>> asyncConsumer;
+
+  @Inject
+  private DatabaseSupportService dbSupportService;
+
+  @Inject
+  private DataExportConfig dataExportConfig;
+
   @WithMockKeycloakUser(username = "user", groupRole = ReportRequestTestFixture.GROUP + ":USER")
   @Test
   public void create_onReportRequest_requestAccepted()
@@ -116,4 +136,56 @@ public class ReportRequestResourceRepositoryIT extends BaseIntegrationTest {
     reportRepository.onDelete(reportTemplateUuid);
   }
 
+  @WithMockKeycloakUser(username = "user", groupRole = ReportRequestTestFixture.GROUP + ":USER")
+  @Test
+  public void create_onAsyncReportRequest_reportGeneratedAsExport()
+    throws Exception {
+    ReportTemplateDto templateDto = ReportTemplateTestFixture.newReportTemplate()
+      .templateFilename("testHtml.flth")
+      .includesBarcode(true)
+      .build();
+
+    JsonApiDocument reportTemplateToCreate = JsonApiDocuments.createJsonApiDocument(
+      null, ReportTemplateDto.TYPENAME,
+      JsonAPITestHelper.toAttributeMap(templateDto)
+    );
+    var created = reportRepository.onCreate(reportTemplateToCreate);
+    UUID reportTemplateUuid =  JsonApiModelAssistant.extractUUIDFromRepresentationModelLink(created);
+
+    ReportRequestDto dto = ReportRequestTestFixture.newReportRequest()
+      .reportTemplateUUID(reportTemplateUuid)
+      .async(true)
+      .payload(Map.of("elements", List.of(
+          Map.of("barcode", Map.of("id", "xyz", "content", "123")),
+          Map.of("barcode", Map.of("id", "qwe", "content", "345"))
+        )))
+      .build();
+    JsonApiDocument docToCreate = JsonApiDocuments.createJsonApiDocument(
+      null, ReportRequestDto.TYPENAME,
+      JsonAPITestHelper.toAttributeMap(dto)
+    );
+    var response = reportRequestRepository.onCreate(docToCreate);
+    assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+    UUID exportUuid = JsonApiModelAssistant.extractUUIDFromRepresentationModelLink(response);
+
+    try {
+      asyncConsumer.getAccepted().getLast().get();
+    } catch (InterruptedException | ExecutionException e) {
+      throw new RuntimeException(e);
+    }
+
+    DataExport dataExport = dbSupportService.findUnique(DataExport.class, "uuid", exportUuid);
+    assertEquals(DataExport.ExportType.REPORT, dataExport.getExportType());
+    assertEquals(DataExport.ExportStatus.COMPLETED, dataExport.getStatus());
+    assertEquals(DataExportConfig.PDF_REPORT_FILENAME, dataExport.getFilename());
+    assertEquals(2L, dataExport.getRowsWritten());
+    assertNotNull(fileController.downloadFile(exportUuid, FileController.DownloadType.DATA_EXPORT).getBody());
+    // the payload file is only kept until the report is generated
+    assertFalse(Files.exists(dataExportConfig.getGeneratedDataExportsPath().resolve(exportUuid.toString())
+      .resolve(DataExportConfig.REPORT_PAYLOAD_FILENAME)));
+
+    //cleanup
+    reportRepository.onDelete(reportTemplateUuid);
+  }
+
 }
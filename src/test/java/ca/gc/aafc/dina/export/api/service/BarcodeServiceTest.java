@@ -0,0 +1,50 @@
+package ca.gc.aafc.dina.export.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import ca.gc.aafc.dina.export.api.config.ReportTemplateConfig;
+import ca.gc.aafc.dina.export.api.entity.ReportTemplate;
+import ca.gc.aafc.dina.export.api.generator.BarcodeGenerator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+public class BarcodeServiceTest {
+
+  @Test
+  public void createCodes_onRepeatedContent_generatedOnceAndCached() throws IOException {
+    ReportTemplateConfig config = new ReportTemplateConfig();
+    config.setBarcodeThreads(2);
+    BarcodeService barcodeService = new BarcodeService(new BarcodeGenerator(), config);
+
+    try {
+      BarcodeGenerator.CodeGenerationOption cgo = BarcodeGenerator.buildDefaultQrConfig();
+      Map<String, byte[]> codes = barcodeService.createCodes(List.of(
+        new ReportRequestService.BarcodeSpecs("1", "06-01001016875"),
+        new ReportRequestService.BarcodeSpecs("2", "06-01001016875"),
+        new ReportRequestService.BarcodeSpecs("3", "06-01001016876")), cgo, ReportTemplate.BarcodeImageFormat.PNG);
+
+      assertEquals(3, codes.size());
+      assertSame(codes.get("1"), codes.get("2"));
+
+      byte[] expectedContent;
+      try (InputStream is = this.getClass().getResourceAsStream("/barcodes/06-01001016875.png")) {
+        expectedContent = is.readAllBytes();
+      }
+      assertArrayEquals(expectedContent, codes.get("1"));
+
+      // served from the cache
+      Map<String, byte[]> reprint = barcodeService.createCodes(List.of(
+        new ReportRequestService.BarcodeSpecs("4", "06-01001016875")), cgo, ReportTemplate.BarcodeImageFormat.PNG);
+      assertSame(codes.get("1"), reprint.get("4"));
+    } finally {
+      barcodeService.shutdown();
+    }
+  }
+}
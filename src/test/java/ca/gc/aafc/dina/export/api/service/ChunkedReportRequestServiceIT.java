@@ -0,0 +1,86 @@
+package ca.gc.aafc.dina.export.api.service;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import ca.gc.aafc.dina.export.api.BaseIntegrationTest;
+import ca.gc.aafc.dina.export.api.DinaExportModuleApiLauncher;
+import ca.gc.aafc.dina.export.api.config.DataExportConfig;
+import ca.gc.aafc.dina.export.api.dto.ReportRequestDto;
+import ca.gc.aafc.dina.export.api.entity.ReportTemplate;
+import ca.gc.aafc.dina.export.api.testsupport.factories.ReportTemplateFactory;
+import ca.gc.aafc.dina.export.api.testsupport.fixtures.ReportRequestTestFixture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import javax.inject.Inject;
+import javax.transaction.Transactional;
+
+@SpringBootTest(classes = {BaseIntegrationTest.TestConfig.class, DinaExportModuleApiLauncher.class},
+  properties = {
+    "dina.report.pdfChunkSize=2",
+    "dina.report.pdfChunkThreads=2"
+  })
+public class ChunkedReportRequestServiceIT extends BaseIntegrationTest {
+
+  @Inject
+  private ReportTemplateService reportService;
+
+  @Inject
+  private ReportRequestService reportRequestService;
+
+  @Inject
+  private DataExportConfig dataExportConfig;
+
+  @Transactional
+  @Test
+  public void generateReport_onMoreElementsThanChunkSize_chunksMerged() throws IOException {
+    ReportTemplate reportTemplate = ReportTemplateFactory.newReport()
+      .templateFilename("chunkTest.ftlh")
+      .includesBarcode(false)
+      .build();
+    reportService.create(reportTemplate);
+
+    // the template renders 1 page per element
+    List<Map<String, Object>> elements = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      elements.add(Map.of("id", "element-" + i));
+    }
+
+    ReportRequestDto reportRequestDto = ReportRequestTestFixture.newReportRequest()
+      .reportTemplateUUID(reportTemplate.getUuid())
+      .payload(Map.of("testname", "generateReport_onMoreElementsThanChunkSize_chunksMerged",
+        "elements", elements))
+      .build();
+    ReportRequestService.ReportGenerationResult result =
+      reportRequestService.generateReport(reportTemplate, reportRequestDto);
+
+    // chunks are removed once merged
+    Path reportFolder = dataExportConfig.getGeneratedReportsLabelsPath()
+      .resolve(result.resultIdentifier().toString());
+    try (Stream<Path> files = Files.list(reportFolder)) {
+      assertEquals(List.of(DataExportConfig.PDF_REPORT_FILENAME),
+        files.map(p -> p.getFileName().toString()).toList());
+    }
+
+    // 3 chunks merged in the order of the elements
+    try (PDDocument pdf = PDDocument.load(reportFolder.resolve(DataExportConfig.PDF_REPORT_FILENAME).toFile())) {
+      assertEquals(5, pdf.getNumberOfPages());
+      PDFTextStripper stripper = new PDFTextStripper();
+      for (int page = 1; page <= 5; page++) {
+        stripper.setStartPage(page);
+        stripper.setEndPage(page);
+        assertEquals("element-" + (page - 1), stripper.getText(pdf).strip());
+      }
+    }
+  }
+}
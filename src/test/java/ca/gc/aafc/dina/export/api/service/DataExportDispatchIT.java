@@ -0,0 +1,115 @@
+package ca.gc.aafc.dina.export.api.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ca.gc.aafc.dina.export.api.BaseIntegrationTest;
+import ca.gc.aafc.dina.export.api.DinaExportModuleApiLauncher;
+import ca.gc.aafc.dina.export.api.config.DataExportConfig;
+import ca.gc.aafc.dina.export.api.entity.DataExport;
+import ca.gc.aafc.dina.export.api.generator.ReportExportGenerator;
+import ca.gc.aafc.dina.testsupport.DatabaseSupportService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import javax.inject.Inject;
+
+/**
+ * Dispatch of the exports after the commit of the creating transaction.
+ * The report executor is limited to 1 running and 1 waiting export to saturate it easily.
+ */
+@SpringBootTest(classes = {BaseIntegrationTest.TestConfig.class, DinaExportModuleApiLauncher.class},
+  properties = {
+    "dina.export.executors.report.corePoolSize=1",
+    "dina.export.executors.report.maxPoolSize=1",
+    "dina.export.executors.report.queueCapacity=1",
+    "dina.export.executors.report.rejectionPolicy=ERROR"
+  })
+public class DataExportDispatchIT extends BaseIntegrationTest {
+
+  @MockBean
+  private ReportExportGenerator reportExportGenerator;
+
+  @Inject
+  private DataExportService dataExportService;
+
+  @Inject
+  private DatabaseSupportService dbSupportService;
+
+  @Inject
+  private TransactionWrapper transactionWrapper;
+
+  @Inject
+  private PlatformTransactionManager transactionManager;
+
+  @Test
+  public void dispatch_onSaturatedScheduler_errorStatusSaved() throws IOException {
+    // exports never complete until the end of the test so they keep the slot
+    CompletableFuture<UUID> running = new CompletableFuture<>();
+    when(reportExportGenerator.generateFilename(any())).thenReturn("report.pdf");
+    when(reportExportGenerator.export(any())).thenReturn(running);
+
+    List<UUID> uuids = new ArrayList<>();
+    try {
+      // 1 running, 1 waiting, 1 rejected
+      for (int i = 0; i < 3; i++) {
+        uuids.add(createInTransaction());
+      }
+
+      assertEquals(DataExport.ExportStatus.NEW, findStatus(uuids.get(0)));
+      assertEquals(DataExport.ExportStatus.NEW, findStatus(uuids.get(1)));
+      assertEquals(DataExport.ExportStatus.ERROR, findStatus(uuids.get(2)));
+    } finally {
+      running.complete(null);
+    }
+  }
+
+  @Test
+  public void create_onRolledBackTransaction_exportNotDispatched() throws IOException {
+    when(reportExportGenerator.generateFilename(any())).thenReturn("report.pdf");
+    when(reportExportGenerator.export(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+    UUID uuid = UUID.randomUUID();
+    new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+      dataExportService.create(newReportExport(uuid));
+      status.setRollbackOnly();
+    });
+
+    verify(reportExportGenerator, never()).export(argThat(de -> uuid.equals(de.getUuid())));
+    assertNull(transactionWrapper.runInsideReadTransaction(() -> dataExportService.findOne(uuid)));
+  }
+
+  private UUID createInTransaction() {
+    UUID uuid = UUID.randomUUID();
+    new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+      dataExportService.create(newReportExport(uuid)));
+    return uuid;
+  }
+
+  private DataExport.ExportStatus findStatus(UUID uuid) {
+    return dbSupportService.findUnique(DataExport.class, "uuid", uuid).getStatus();
+  }
+
+  private static DataExport newReportExport(UUID uuid) {
+    return DataExport.builder()
+      .uuid(uuid)
+      .createdBy("test-user")
+      .source(DataExportConfig.REPORT_SOURCE)
+      .exportType(DataExport.ExportType.REPORT)
+      .build();
+  }
+}
@@ -0,0 +1,64 @@
+package ca.gc.aafc.dina.export.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import ca.gc.aafc.dina.export.api.BaseIntegrationTest;
+import ca.gc.aafc.dina.export.api.entity.DataExport;
+import ca.gc.aafc.dina.export.api.generator.ExportProgress;
+import ca.gc.aafc.dina.testsupport.DatabaseSupportService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import javax.inject.Inject;
+
+public class DataExportProgressServiceIT extends BaseIntegrationTest {
+
+  @Inject
+  private DataExportProgressService progressService;
+
+  @Inject
+  private DatabaseSupportService dbSupportService;
+
+  @Test
+  public void updateProgress_onRunningExport_progressUpdated() {
+    UUID testUUID = UUID.randomUUID();
+    dbSupportService.runInNewTransaction(em -> em.persist(DataExport.builder()
+      .uuid(testUUID)
+      .createdBy("test")
+      .source("unit test")
+      .exportType(DataExport.ExportType.TABULAR_DATA)
+      .status(DataExport.ExportStatus.RUNNING)
+      .filename("export.csv")
+      .build()));
+
+    // unknown total, size and completion
+    progressService.updateProgress(testUUID, new ExportProgress(10, 1, null, null, null));
+    DataExport dataExport = dbSupportService.findUnique(DataExport.class, "uuid", testUUID);
+    assertEquals(10, dataExport.getRowsWritten());
+    assertEquals(1, dataExport.getPagesFetched());
+    assertNull(dataExport.getTotalRows());
+    assertNull(dataExport.getEstimatedCompletionOn());
+    assertNotNull(dataExport.getProgressUpdatedOn());
+
+    OffsetDateTime eta = OffsetDateTime.of(2030, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    progressService.updateProgress(testUUID, new ExportProgress(20, 2, 100L, 2048L, eta));
+    dataExport = dbSupportService.findUnique(DataExport.class, "uuid", testUUID);
+    assertEquals(20, dataExport.getRowsWritten());
+    assertEquals(100, dataExport.getTotalRows());
+    assertEquals(2048, dataExport.getBytesWritten());
+    assertEquals(eta.toInstant(), dataExport.getEstimatedCompletionOn().toInstant());
+
+    // known values can become unknown again
+    progressService.updateProgress(testUUID, new ExportProgress(30, 3, null, null, null));
+    dataExport = dbSupportService.findUnique(DataExport.class, "uuid", testUUID);
+    assertEquals(30, dataExport.getRowsWritten());
+    assertNull(dataExport.getTotalRows());
+    assertNull(dataExport.getBytesWritten());
+    assertNull(dataExport.getEstimatedCompletionOn());
+  }
+}
@@ -0,0 +1,198 @@
+package ca.gc.aafc.dina.export.api.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ca.gc.aafc.dina.export.api.BaseIntegrationTest;
+import ca.gc.aafc.dina.export.api.DinaExportModuleApiLauncher;
+import ca.gc.aafc.dina.export.api.config.DataExportConfig;
+import ca.gc.aafc.dina.export.api.config.UserNotificationQueueProperties;
+import ca.gc.aafc.dina.export.api.entity.DataExport;
+import ca.gc.aafc.dina.export.api.entity.DataExportSchemaEntry;
+import ca.gc.aafc.dina.export.api.entity.DataExportTemplate;
+import ca.gc.aafc.dina.export.api.event.DataExportStatusEvent;
+import ca.gc.aafc.dina.export.api.testsupport.factories.DataExportTemplateFactory;
+import ca.gc.aafc.dina.messaging.DinaMessage;
+import ca.gc.aafc.dina.messaging.message.UserMessageNotification;
+import ca.gc.aafc.dina.messaging.producer.DinaMessageProducer;
+import ca.gc.aafc.dina.testsupport.DatabaseSupportService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import javax.inject.Inject;
+
+@SpringBootTest(classes = {BaseIntegrationTest.TestConfig.class, DinaExportModuleApiLauncher.class},
+  properties = "dina.export.exportReuseWindow=1h")
+@RecordApplicationEvents
+public class DataExportReuseServiceIT extends BaseIntegrationTest {
+
+  @MockBean
+  private DinaMessageProducer messageProducer;
+
+  @Inject
+  private ApplicationEvents applicationEvents;
+
+  @Inject
+  private DataExportService dataExportService;
+
+  @Inject
+  private PlatformTransactionManager transactionManager;
+
+  @Inject
+  private DataExportReuseService reuseService;
+
+  @Inject
+  private DataExportConfig dataExportConfig;
+
+  @Inject
+  private DatabaseSupportService dbSupportService;
+
+  @Test
+  public void fingerprint_onQueryKeyOrder_sameFingerprint() {
+    Map<String, Object> query1 = new LinkedHashMap<>();
+    query1.put("size", 10);
+    query1.put("query", Map.of("match_all", Map.of()));
+    Map<String, Object> query2 = new LinkedHashMap<>();
+    query2.put("query", Map.of("match_all", Map.of()));
+    query2.put("size", 10);
+
+    assertEquals(reuseService.fingerprint(newDataExport(query1, schema("a", "b"))),
+      reuseService.fingerprint(newDataExport(query2, schema("a", "b"))));
+  }
+
+  @Test
+  public void fingerprint_onSchemaOrder_differentFingerprint() {
+    Map<String, Object> query = Map.of("query", Map.of("match_all", Map.of()));
+    assertNotEquals(reuseService.fingerprint(newDataExport(query, schema("a", "b"))),
+      reuseService.fingerprint(newDataExport(query, schema("b", "a"))));
+  }
+
+  @Test
+  public void findReusable_onCompletedExport_resultLinked() throws IOException {
+    DataExport completed = newDataExport(Map.of("query", Map.of("match_all", Map.of())), schema("a"));
+    completed.setStatus(DataExport.ExportStatus.COMPLETED);
+    completed.setFingerprint(reuseService.fingerprint(completed));
+
+    Path completedPath = dataExportConfig.getPathForDataExport(completed).orElseThrow();
+    Files.createDirectories(completedPath.getParent());
+    Files.writeString(completedPath, "a\n1\n");
+    dbSupportService.runInNewTransaction(em -> em.persist(completed));
+
+    DataExport newExport = newDataExport(Map.of("query", Map.of("match_all", Map.of())), schema("a"));
+    newExport.setFingerprint(reuseService.fingerprint(newExport));
+
+    Optional<DataExport> reusable = reuseService.findReusable(newExport);
+    assertTrue(reusable.isPresent());
+    assertEquals(completed.getUuid(), reusable.get().getUuid());
+
+    newExport.setReusedFrom(completed.getUuid());
+    assertTrue(reuseService.linkResult(newExport));
+    Path newPath = dataExportConfig.getPathForDataExport(newExport).orElseThrow();
+    assertEquals("a\n1\n", Files.readString(newPath));
+
+    // removing the file of the original export doesn't affect the reused one
+    Files.delete(completedPath);
+    assertEquals("a\n1\n", Files.readString(newPath));
+  }
+
+  @Test
+  public void create_onReusableExport_completedLikeGeneratedExport() throws IOException {
+    Map<String, Object> query = Map.of("query", Map.of("term", Map.of("id", UUID.randomUUID().toString())));
+    DataExport completed = persistCompleted(newDataExport(query, schema("a")));
+
+    DataExport reused = newDataExport(query, schema("a"));
+    new TransactionTemplate(transactionManager).executeWithoutResult(status -> dataExportService.create(reused));
+
+    DataExport saved = dbSupportService.findUnique(DataExport.class, "uuid", reused.getUuid());
+    assertEquals(completed.getUuid(), saved.getReusedFrom());
+    assertEquals(DataExport.ExportStatus.COMPLETED, saved.getStatus());
+
+    assertTrue(applicationEvents.stream(DataExportStatusEvent.class)
+      .anyMatch(e -> e.uuid().equals(reused.getUuid()) && e.status() == DataExport.ExportStatus.COMPLETED));
+    verify(messageProducer).send(argThat(m -> isDataExportReady(m, reused.getUuid())));
+  }
+
+  @Test
+  public void completeReused_onIncrementalExport_highWaterMarkAdvanced() throws IOException {
+    DataExportTemplate template = DataExportTemplateFactory.newDataExportTemplate()
+      .source("dina_material_sample_index")
+      .incrementalField("data.attributes.modifiedOn")
+      .build();
+    dbSupportService.runInNewTransaction(em -> em.persist(template));
+
+    DataExport completed = persistCompleted(newDataExport(Map.of("query", Map.of("match_all", Map.of())),
+      schema("a")));
+    DataExport reused = newDataExport(Map.of("query", Map.of("match_all", Map.of())), schema("a"));
+    reused.setStatus(DataExport.ExportStatus.COMPLETED);
+    reused.setReusedFrom(completed.getUuid());
+    reused.setDataExportTemplateUuid(template.getUuid());
+    reused.setHighWaterMark(OffsetDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+    dbSupportService.runInNewTransaction(em -> em.persist(reused));
+
+    reuseService.completeReused(reused);
+
+    DataExportTemplate updated = dbSupportService.findUnique(DataExportTemplate.class, "uuid", template.getUuid());
+    assertEquals(reused.getHighWaterMark().toInstant(), updated.getHighWaterMark().toInstant());
+    assertTrue(applicationEvents.stream(DataExportStatusEvent.class)
+      .anyMatch(e -> e.uuid().equals(reused.getUuid()) && e.status() == DataExport.ExportStatus.COMPLETED));
+    verify(messageProducer).send(argThat(m -> isDataExportReady(m, reused.getUuid())));
+  }
+
+  private DataExport persistCompleted(DataExport dataExport) throws IOException {
+    dataExport.setStatus(DataExport.ExportStatus.COMPLETED);
+    dataExport.setFingerprint(reuseService.fingerprint(dataExport));
+    Path path = dataExportConfig.getPathForDataExport(dataExport).orElseThrow();
+    Files.createDirectories(path.getParent());
+    Files.writeString(path, "a\n1\n");
+    dbSupportService.runInNewTransaction(em -> em.persist(dataExport));
+    return dataExport;
+  }
+
+  private static boolean isDataExportReady(DinaMessage message, UUID uuid) {
+    return message instanceof UserMessageNotification notification &&
+      UserNotificationQueueProperties.NotificationType.DATA_EXPORT_READY.name()
+      .equals(notification.getNotificationType()) &&
+      uuid.toString().equals(notification.getNotificationParams().get("id"));
+  }
+
+  private static LinkedHashMap<String, DataExportSchemaEntry> schema(String... entities) {
+    LinkedHashMap<String, DataExportSchemaEntry> schema = new LinkedHashMap<>();
+    for (String entity : entities) {
+      schema.put(entity, new DataExportSchemaEntry(List.of("id"), null));
+    }
+    return schema;
+  }
+
+  private static DataExport newDataExport(Map<String, Object> query,
+                                          LinkedHashMap<String, DataExportSchemaEntry> schema) {
+    return DataExport.builder()
+      .uuid(UUID.randomUUID())
+      .createdBy("test")
+      .source("dina_material_sample_index")
+      .exportType(DataExport.ExportType.TABULAR_DATA)
+      .status(DataExport.ExportStatus.NEW)
+      .filename("export.csv")
+      .query(query)
+      .schema(schema)
+      .build();
+  }
+}
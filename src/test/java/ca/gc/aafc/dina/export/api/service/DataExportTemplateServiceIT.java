@@ -5,7 +5,12 @@ import org.junit.jupiter.api.Test;
 import ca.gc.aafc.dina.export.api.BaseIntegrationTest;
 import ca.gc.aafc.dina.export.api.entity.DataExportTemplate;
 import ca.gc.aafc.dina.export.api.testsupport.factories.DataExportTemplateFactory;
+import ca.gc.aafc.dina.testsupport.DatabaseSupportService;
 
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.OffsetDateTime;
 import javax.inject.Inject;
 import javax.transaction.Transactional;
 
@@ -14,6 +19,9 @@ public class DataExportTemplateServiceIT extends BaseIntegrationTest {
   @Inject
   private DataExportTemplateService dataExportTemplateService;
 
+  @Inject
+  private DatabaseSupportService dbSupportService;
+
   @Test
   @Transactional
   public void onCreate_DataExportTemplateCreated() {
@@ -25,4 +33,26 @@ public class DataExportTemplateServiceIT extends BaseIntegrationTest {
     dataExportTemplateService.create(dataExportTemplate);
   }
 
+  @Test
+  public void onUpdate_nextRunOnProvided_nextRunOnIgnored() {
+    DataExportTemplate dataExportTemplate = DataExportTemplateFactory.newDataExportTemplate()
+      .cronSchedule("0 0 3 * * *")
+      .build();
+    dbSupportService.runInNewTransaction(em -> dataExportTemplateService.create(dataExportTemplate));
+
+    OffsetDateTime nextRunOn = dbSupportService.findUnique(DataExportTemplate.class, "uuid",
+      dataExportTemplate.getUuid()).getNextRunOn();
+    assertNotNull(nextRunOn);
+
+    // a client tries to force the next run
+    dbSupportService.runInNewTransaction(em -> {
+      DataExportTemplate loaded = dataExportTemplateService.findOne(dataExportTemplate.getUuid(),
+        DataExportTemplate.class);
+      loaded.setNextRunOn(OffsetDateTime.now().minusDays(1));
+      dataExportTemplateService.update(loaded);
+    });
+
+    assertTrue(nextRunOn.isEqual(dbSupportService.findUnique(DataExportTemplate.class, "uuid",
+      dataExportTemplate.getUuid()).getNextRunOn()));
+  }
 }
@@ -0,0 +1,146 @@
+package ca.gc.aafc.dina.export.api.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ca.gc.aafc.dina.export.api.BaseIntegrationTest;
+import ca.gc.aafc.dina.export.api.config.DataExportConfig;
+import ca.gc.aafc.dina.export.api.entity.DataExport;
+import ca.gc.aafc.dina.export.api.generator.ReportExportGenerator;
+import ca.gc.aafc.dina.testsupport.DatabaseSupportService;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.inject.Inject;
+
+public class ExportCancellationServiceIT extends BaseIntegrationTest {
+
+  @Inject
+  private ExportCancellationService cancellationService;
+
+  @Inject
+  private DatabaseSupportService dbSupportService;
+
+  @Inject
+  private DataExportService dataExportService;
+
+  @Inject
+  private DataExportStatusService dataExportStatusService;
+
+  @Inject
+  private PlatformTransactionManager transactionManager;
+
+  @MockBean
+  private ReportExportGenerator reportExportGenerator;
+
+  @Test
+  public void cancelRemovedExports_onRemovedExport_exportCancelled() {
+    UUID existingUUID = UUID.randomUUID();
+    UUID removedUUID = UUID.randomUUID();
+
+    dbSupportService.runInNewTransaction(em -> em.persist(DataExport.builder()
+      .uuid(existingUUID)
+      .createdBy("test")
+      .source("unit test")
+      .exportType(DataExport.ExportType.TABULAR_DATA)
+      .status(DataExport.ExportStatus.RUNNING)
+      .filename("export.csv")
+      .build()));
+
+    cancellationService.register(existingUUID);
+    cancellationService.register(removedUUID);
+    try {
+      cancellationService.cancelRemovedExports();
+
+      assertFalse(cancellationService.isCancelled(existingUUID));
+      assertTrue(cancellationService.isCancelled(removedUUID));
+      assertThrows(CancellationException.class, () -> cancellationService.throwIfCancelled(removedUUID));
+    } finally {
+      cancellationService.unregister(existingUUID);
+      cancellationService.unregister(removedUUID);
+    }
+    assertFalse(cancellationService.isCancelled(removedUUID));
+  }
+
+  @Test
+  public void cancelRemovedExports_onExportCreatedInOpenTransaction_exportNotCancelled() throws IOException {
+    // the export keeps running until the end of the test
+    CompletableFuture<UUID> running = new CompletableFuture<>();
+    when(reportExportGenerator.generateFilename(any())).thenReturn("report.pdf");
+    when(reportExportGenerator.export(any())).thenReturn(running);
+
+    UUID uuid = UUID.randomUUID();
+    try {
+      new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+        dataExportService.create(DataExport.builder()
+          .uuid(uuid)
+          .createdBy("test-user")
+          .source(DataExportConfig.REPORT_SOURCE)
+          .exportType(DataExport.ExportType.REPORT)
+          .build());
+        // check from another transaction while the export is not committed
+        CompletableFuture.runAsync(cancellationService::cancelRemovedExports).join();
+      });
+
+      verify(reportExportGenerator).export(argThat(de -> uuid.equals(de.getUuid())));
+      cancellationService.cancelRemovedExports();
+      assertFalse(cancellationService.isCancelled(uuid));
+    } finally {
+      running.complete(null);
+      cancellationService.unregister(uuid);
+    }
+  }
+
+  @Test
+  public void delete_onRunningExport_exportCancelledAndRemovedWhenDone() {
+    UUID uuid = UUID.randomUUID();
+    dbSupportService.runInNewTransaction(em -> em.persist(DataExport.builder()
+      .uuid(uuid)
+      .createdBy("test")
+      .source("unit test")
+      .exportType(DataExport.ExportType.TABULAR_DATA)
+      .status(DataExport.ExportStatus.RUNNING)
+      .filename("export.csv")
+      .build()));
+
+    cancellationService.register(uuid);
+    try {
+      dbSupportService.runInNewTransaction(em -> dataExportService.delete(dataExportService.findOne(uuid)));
+
+      // only cancelled, the generator removes it when it stops
+      assertTrue(cancellationService.isCancelled(uuid));
+      assertTrue(exists(uuid));
+    } finally {
+      assertTrue(cancellationService.unregister(uuid));
+    }
+
+    cancellationService.deleteRecord(uuid);
+    assertFalse(exists(uuid));
+
+    // late writes of the generator are ignored
+    assertDoesNotThrow(() -> dataExportStatusService.updateStatus(uuid, DataExport.ExportStatus.ERROR));
+  }
+
+  private boolean exists(UUID uuid) {
+    AtomicBoolean exists = new AtomicBoolean();
+    dbSupportService.runInNewTransaction(em -> exists.set(!em.createNativeQuery(
+        "SELECT id FROM data_export WHERE uuid = CAST(:uuid AS uuid)")
+      .setParameter("uuid", uuid.toString())
+      .getResultList().isEmpty()));
+    return exists.get();
+  }
+}
@@ -0,0 +1,98 @@
+package ca.gc.aafc.dina.export.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import ca.gc.aafc.dina.export.api.BaseIntegrationTest;
+import ca.gc.aafc.dina.export.api.entity.DataExport;
+import ca.gc.aafc.dina.testsupport.DatabaseSupportService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.inject.Inject;
+
+public class ExportJobQueueServiceIT extends BaseIntegrationTest {
+
+  private static final String EXPIRE_LEASE_SQL =
+    "UPDATE data_export SET lease_expires_on = now() - interval '1 minute' WHERE uuid = CAST(:uuid AS uuid)";
+
+  @Inject
+  private ExportJobQueueService jobQueueService;
+
+  @Inject
+  private DataExportStatusService dataExportStatusService;
+
+  @Inject
+  private DatabaseSupportService dbSupportService;
+
+  @Test
+  public void claim_onRunningExportWithExpiredLease_exportReclaimedAsNew() {
+    UUID testUUID = UUID.randomUUID();
+
+    dbSupportService.runInNewTransaction(em -> em.persist(DataExport.builder()
+      .uuid(testUUID)
+      .createdBy("test")
+      .source("unit test")
+      .exportType(DataExport.ExportType.TABULAR_DATA)
+      .status(DataExport.ExportStatus.RUNNING)
+      .filename("export.csv")
+      .build()));
+
+    // no lease, can be claimed
+    List<UUID> claimed = jobQueueService.claim(100);
+    assertTrue(claimed.contains(testUUID));
+    assertEquals(DataExport.ExportStatus.NEW,
+      dbSupportService.findUnique(DataExport.class, "uuid", testUUID).getStatus());
+
+    // leased, can't be claimed again
+    assertFalse(jobQueueService.claim(100).contains(testUUID));
+    assertEquals(1, jobQueueService.renewLeases(Set.of(testUUID)));
+    // not held anymore by this instance (e.g. the task died), the lease is not renewed
+    assertEquals(0, jobQueueService.renewLeases(Set.of(UUID.randomUUID())));
+
+    // simulate a dead instance
+    dbSupportService.runInNewTransaction(em -> em.createNativeQuery(EXPIRE_LEASE_SQL)
+      .setParameter("uuid", testUUID.toString())
+      .executeUpdate());
+    assertTrue(jobQueueService.claim(100).contains(testUUID));
+
+    // completed exports are never claimed
+    dbSupportService.runInNewTransaction(em -> {
+      em.createNativeQuery(EXPIRE_LEASE_SQL).setParameter("uuid", testUUID.toString()).executeUpdate();
+      em.createNativeQuery("UPDATE data_export SET status = 'COMPLETED' WHERE uuid = CAST(:uuid AS uuid)")
+        .setParameter("uuid", testUUID.toString())
+        .executeUpdate();
+    });
+    assertFalse(jobQueueService.claim(100).contains(testUUID));
+  }
+
+  @Test
+  public void updateStatus_onTerminalStatus_leaseReleased() {
+    UUID testUUID = UUID.randomUUID();
+
+    dbSupportService.runInNewTransaction(em -> em.persist(DataExport.builder()
+      .uuid(testUUID)
+      .createdBy("test")
+      .source("unit test")
+      .exportType(DataExport.ExportType.TABULAR_DATA)
+      .status(DataExport.ExportStatus.RUNNING)
+      .filename("export.csv")
+      .build()));
+    assertTrue(jobQueueService.claim(100).contains(testUUID));
+
+    dataExportStatusService.updateStatus(testUUID, DataExport.ExportStatus.ERROR);
+
+    AtomicReference<Object> leaseOwner = new AtomicReference<>("");
+    dbSupportService.runInNewTransaction(em -> leaseOwner.set(em.createNativeQuery(
+        "SELECT lease_owner FROM data_export WHERE uuid = CAST(:uuid AS uuid)")
+      .setParameter("uuid", testUUID.toString())
+      .getSingleResult()));
+    assertNull(leaseOwner.get());
+  }
+}
@@ -0,0 +1,108 @@
+package ca.gc.aafc.dina.export.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import ca.gc.aafc.dina.export.api.BaseIntegrationTest;
+import ca.gc.aafc.dina.export.api.entity.DataExport;
+import ca.gc.aafc.dina.export.api.entity.DataExportTemplate;
+import ca.gc.aafc.dina.export.api.testsupport.factories.DataExportTemplateFactory;
+import ca.gc.aafc.dina.testsupport.DatabaseSupportService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import javax.inject.Inject;
+import javax.validation.ValidationException;
+
+public class IncrementalExportServiceIT extends BaseIntegrationTest {
+
+  private static final Map<String, Object> MATCH_ALL = Map.of("match_all", Map.of());
+
+  @Inject
+  private IncrementalExportService incrementalExportService;
+
+  @Inject
+  private DatabaseSupportService dbSupportService;
+
+  @Test
+  public void addRangeFilter_onQuery_queryWrapped() {
+    OffsetDateTime lower = OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    OffsetDateTime upper = lower.plusDays(1);
+
+    Map<String, Object> query = IncrementalExportService.addRangeFilter(
+      Map.of("query", MATCH_ALL, "sort", "id"), "data.attributes.modifiedOn", lower, upper);
+
+    assertEquals("id", query.get("sort"));
+    assertEquals(Map.of("bool", Map.of("filter", List.of(MATCH_ALL,
+        Map.of("range", Map.of("data.attributes.modifiedOn",
+          Map.of("gt", "2024-01-01T00:00:00Z", "lte", "2024-01-02T00:00:00Z")))))),
+      query.get("query"));
+  }
+
+  @Test
+  public void applyTemplate_onIncrementalTemplate_highWaterMarkAdvanced() {
+    DataExportTemplate template = DataExportTemplateFactory.newDataExportTemplate()
+      .source("dina_material_sample_index")
+      .query(Map.of("query", MATCH_ALL))
+      .incrementalField("data.attributes.modifiedOn")
+      .build();
+    dbSupportService.runInNewTransaction(em -> em.persist(template));
+
+    DataExport dataExport = DataExport.builder()
+      .uuid(UUID.randomUUID())
+      .createdBy("test user")
+      .exportType(DataExport.ExportType.TABULAR_DATA)
+      .dataExportTemplateUuid(template.getUuid())
+      .build();
+
+    dbSupportService.runInNewTransaction(em -> incrementalExportService.applyTemplate(dataExport));
+    assertEquals("dina_material_sample_index", dataExport.getSource());
+    assertNotNull(dataExport.getHighWaterMark());
+
+    // first run, no lower bound
+    @SuppressWarnings("unchecked")
+    Map<String, Object> range = (Map<String, Object>) ((List<?>) ((Map<?, ?>) ((Map<?, ?>) dataExport.getQuery()
+      .get("query")).get("bool")).get("filter")).get(1);
+    Map<?, ?> bounds = (Map<?, ?>) ((Map<?, ?>) range.get("range")).get("data.attributes.modifiedOn");
+    assertNull(bounds.get("gt"));
+
+    dbSupportService.runInNewTransaction(em -> incrementalExportService.advanceHighWaterMark(dataExport));
+    DataExportTemplate updated = dbSupportService.findUnique(DataExportTemplate.class, "uuid", template.getUuid());
+    assertEquals(dataExport.getHighWaterMark().toInstant(), updated.getHighWaterMark().toInstant());
+  }
+
+  @Test
+  public void applyTemplate_onInvalidTemplate_validationException() {
+    DataExportTemplate template = DataExportTemplateFactory.newDataExportTemplate()
+      .source("dina_material_sample_index")
+      .build();
+    dbSupportService.runInNewTransaction(em -> em.persist(template));
+
+    UUID unknownTemplate = UUID.randomUUID();
+    ValidationException exception = assertThrows(ValidationException.class,
+      () -> incrementalExportService.applyTemplate(DataExport.builder()
+        .uuid(UUID.randomUUID())
+        .createdBy("test user")
+        .exportType(DataExport.ExportType.TABULAR_DATA)
+        .dataExportTemplateUuid(unknownTemplate)
+        .build()));
+    assertEquals("DataExportTemplate " + unknownTemplate + " not found", exception.getMessage());
+
+    exception = assertThrows(ValidationException.class,
+      () -> incrementalExportService.applyTemplate(DataExport.builder()
+        .uuid(UUID.randomUUID())
+        .createdBy("test user")
+        .exportType(DataExport.ExportType.OBJECT_ARCHIVE)
+        .dataExportTemplateUuid(template.getUuid())
+        .build()));
+    assertEquals("exportType OBJECT_ARCHIVE does not match the exportType " + template.getExportType() +
+      " of the DataExportTemplate", exception.getMessage());
+  }
+}
@@ -0,0 +1,167 @@
+package ca.gc.aafc.dina.export.api.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.info.BuildProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ca.gc.aafc.dina.export.api.BaseIntegrationTest;
+import ca.gc.aafc.dina.export.api.DinaExportModuleApiLauncher;
+import ca.gc.aafc.dina.export.api.config.DataExportConfig;
+import ca.gc.aafc.dina.export.api.config.ReportTemplateConfig;
+import ca.gc.aafc.dina.export.api.dto.ReportRequestDto;
+import ca.gc.aafc.dina.export.api.entity.ReportTemplate;
+import ca.gc.aafc.dina.export.api.generator.FreemarkerReportGenerator;
+import ca.gc.aafc.dina.export.api.testsupport.factories.MaterialSampleJsonApiFactory;
+import ca.gc.aafc.dina.export.api.testsupport.factories.ReportTemplateFactory;
+import ca.gc.aafc.dina.export.api.testsupport.fixtures.ReportRequestTestFixture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import javax.inject.Inject;
+import javax.transaction.Transactional;
+
+@SpringBootTest(classes = {BaseIntegrationTest.TestConfig.class, DinaExportModuleApiLauncher.class},
+  properties = "dina.report.outputCacheTtl=1h")
+public class ReportOutputCacheServiceIT extends BaseIntegrationTest {
+
+  private static final Path TEMPLATE_FOLDER;
+
+  static {
+    try {
+      TEMPLATE_FOLDER = Files.createTempDirectory("report-output-cache-it");
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @DynamicPropertySource
+  static void templateLoaderPath(DynamicPropertyRegistry registry) {
+    registry.add("spring.freemarker.template-loader-path",
+      () -> TEMPLATE_FOLDER.toUri() + ",classpath:/templates/");
+  }
+
+  @Inject
+  private ReportTemplateService reportService;
+
+  @Inject
+  private ReportRequestService reportRequestService;
+
+  @Inject
+  private ReportOutputCacheService reportOutputCacheService;
+
+  @Inject
+  private DataExportConfig dataExportConfig;
+
+  @Inject
+  private FreemarkerReportGenerator freemarkerReportGenerator;
+
+  @Inject
+  private ReportTemplateConfig reportTemplateConfig;
+
+  @Inject
+  private ObjectMapper objectMapper;
+
+  @Transactional
+  @Test
+  public void generateReport_onIdenticalRequest_cachedReportLinked() throws IOException {
+    ReportTemplate reportTemplate = ReportTemplateFactory.newReport()
+      .templateFilename("demo.ftlh")
+      .includesBarcode(true)
+      .build();
+    reportService.create(reportTemplate);
+
+    Map<String, Object> matSample = MaterialSampleJsonApiFactory.newMaterialSample();
+    String uuid = ((Map<?, ?>) matSample.get("attributes")).get("uuid").toString();
+    Map<String, Object> payload = Map.of("testname", "generateReport_onIdenticalRequest_cachedReportLinked",
+      "elements", List.of(Map.of("barcode", Map.of("id", uuid, "content", uuid), "data", matSample)));
+
+    ReportRequestService.ReportGenerationResult result1 = reportRequestService.generateReport(reportTemplate,
+      ReportRequestTestFixture.newReportRequest().reportTemplateUUID(reportTemplate.getUuid())
+        .payload(payload).build());
+    ReportRequestService.ReportGenerationResult result2 = reportRequestService.generateReport(reportTemplate,
+      ReportRequestTestFixture.newReportRequest().reportTemplateUUID(reportTemplate.getUuid())
+        .payload(payload).build());
+
+    // new report id sharing the same file
+    assertNotEquals(result1.resultIdentifier(), result2.resultIdentifier());
+    Path report1 = dataExportConfig.getGeneratedReportsLabelsPath()
+      .resolve(result1.resultIdentifier().toString()).resolve(DataExportConfig.PDF_REPORT_FILENAME);
+    Path report2 = dataExportConfig.getGeneratedReportsLabelsPath()
+      .resolve(result2.resultIdentifier().toString()).resolve(DataExportConfig.PDF_REPORT_FILENAME);
+    assertEquals(-1, Files.mismatch(report1, report2));
+  }
+
+  @Test
+  public void computeKey_onPayload_keyCanonical() throws IOException {
+    ReportTemplate reportTemplate = ReportTemplateFactory.newReport()
+      .templateFilename("demo.ftlh")
+      .build();
+
+    Map<String, Object> payload1 = new LinkedHashMap<>();
+    payload1.put("a", 1);
+    payload1.put("b", List.of("x", "y"));
+    ReportRequestDto request1 = ReportRequestTestFixture.newReportRequest().payload(payload1).build();
+    ReportRequestDto request2 = ReportRequestTestFixture.newReportRequest()
+      .payload(new TreeMap<>(Map.of("b", List.of("x", "y"), "a", 1))).build();
+    ReportRequestDto request3 = ReportRequestTestFixture.newReportRequest()
+      .payload(Map.of("a", 1, "b", List.of("y", "x"))).build();
+
+    // key order doesn't matter, array order does
+    assertEquals(reportOutputCacheService.computeKey(reportTemplate, request1),
+      reportOutputCacheService.computeKey(reportTemplate, request2));
+    assertNotEquals(reportOutputCacheService.computeKey(reportTemplate, request1),
+      reportOutputCacheService.computeKey(reportTemplate, request3));
+  }
+
+  @Test
+  public void computeKey_onReplacedTemplate_keyChangedOnceTemplateLoaded() throws IOException {
+    Path templateFile = TEMPLATE_FOLDER.resolve("replaced.ftlh");
+    Files.writeString(templateFile, "<p>${a}</p>");
+    ReportTemplate reportTemplate = ReportTemplateFactory.newReport()
+      .templateFilename("replaced.ftlh")
+      .build();
+    ReportRequestDto request = ReportRequestTestFixture.newReportRequest().payload(Map.of("a", 1)).build();
+    String key = reportOutputCacheService.computeKey(reportTemplate, request);
+
+    // reports are still rendered with the loaded template until it is reloaded
+    Files.writeString(templateFile, "<div>${a}</div>");
+    assertEquals(key, reportOutputCacheService.computeKey(reportTemplate, request));
+
+    freemarkerReportGenerator.invalidate("replaced.ftlh");
+    assertNotEquals(key, reportOutputCacheService.computeKey(reportTemplate, request));
+  }
+
+  @Test
+  public void computeKey_onClasspathTemplate_keyIncludesModuleVersion() throws IOException {
+    ReportTemplate reportTemplate = ReportTemplateFactory.newReport()
+      .templateFilename("demo.ftlh")
+      .build();
+    ReportRequestDto request = ReportRequestTestFixture.newReportRequest().payload(Map.of("a", 1)).build();
+
+    // same request rendered by another version of the module
+    ReportOutputCacheService otherVersion = new ReportOutputCacheService(reportTemplateConfig, dataExportConfig,
+      freemarkerReportGenerator, new BuildProperties(properties("version", "other-version")), objectMapper);
+    assertNotEquals(reportOutputCacheService.computeKey(reportTemplate, request),
+      otherVersion.computeKey(reportTemplate, request));
+  }
+
+  private static Properties properties(String key, String value) {
+    Properties properties = new Properties();
+    properties.setProperty(key, value);
+    return properties;
+  }
+}
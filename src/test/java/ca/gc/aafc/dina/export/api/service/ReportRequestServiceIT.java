@@ -3,17 +3,22 @@ package ca.gc.aafc.dina.export.api.service;
 import org.junit.jupiter.api.Test;
 
 import ca.gc.aafc.dina.export.api.BaseIntegrationTest;
+import ca.gc.aafc.dina.export.api.config.DataExportConfig;
 import ca.gc.aafc.dina.export.api.dto.ReportRequestDto;
 import ca.gc.aafc.dina.export.api.entity.ReportTemplate;
 import ca.gc.aafc.dina.export.api.testsupport.factories.MaterialSampleJsonApiFactory;
 import ca.gc.aafc.dina.export.api.testsupport.factories.ReportTemplateFactory;
 import ca.gc.aafc.dina.export.api.testsupport.fixtures.ReportRequestTestFixture;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 import javax.inject.Inject;
 import javax.transaction.Transactional;
 
@@ -25,6 +30,9 @@ public class ReportRequestServiceIT extends BaseIntegrationTest {
   @Inject
   private ReportRequestService reportRequestService;
 
+  @Inject
+  private DataExportConfig dataExportConfig;
+
   @Transactional
   @Test
   public void reportRequestService_onGenerateReport_reportGenerated() throws IOException {
@@ -49,6 +57,14 @@ public class ReportRequestServiceIT extends BaseIntegrationTest {
       reportRequestService.generateReport(reportTemplate, reportRequestDto);
 
     assertNotNull(result.resultIdentifier());
+
+    // PDF generated in memory, no intermediate files
+    Path reportFolder = dataExportConfig.getGeneratedReportsLabelsPath()
+      .resolve(result.resultIdentifier().toString());
+    try (Stream<Path> files = Files.list(reportFolder)) {
+      assertEquals(List.of(DataExportConfig.PDF_REPORT_FILENAME),
+        files.map(p -> p.getFileName().toString()).toList());
+    }
   }
 
 }
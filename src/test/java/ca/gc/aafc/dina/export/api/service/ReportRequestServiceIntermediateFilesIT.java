@@ -0,0 +1,83 @@
+package ca.gc.aafc.dina.export.api.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import ca.gc.aafc.dina.export.api.BaseIntegrationTest;
+import ca.gc.aafc.dina.export.api.DinaExportModuleApiLauncher;
+import ca.gc.aafc.dina.export.api.config.DataExportConfig;
+import ca.gc.aafc.dina.export.api.dto.ReportRequestDto;
+import ca.gc.aafc.dina.export.api.entity.ReportTemplate;
+import ca.gc.aafc.dina.export.api.file.FileController;
+import ca.gc.aafc.dina.export.api.testsupport.factories.MaterialSampleJsonApiFactory;
+import ca.gc.aafc.dina.export.api.testsupport.factories.ReportTemplateFactory;
+import ca.gc.aafc.dina.export.api.testsupport.fixtures.ReportRequestTestFixture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.inject.Inject;
+import javax.transaction.Transactional;
+
+@SpringBootTest(classes = {BaseIntegrationTest.TestConfig.class, DinaExportModuleApiLauncher.class},
+  properties = "dina.report.keepIntermediateFiles=true")
+public class ReportRequestServiceIntermediateFilesIT extends BaseIntegrationTest {
+
+  @Inject
+  private ReportTemplateService reportService;
+
+  @Inject
+  private ReportRequestService reportRequestService;
+
+  @Inject
+  private FileController fileController;
+
+  @Inject
+  private DataExportConfig dataExportConfig;
+
+  @Transactional
+  @Test
+  public void generateReport_onIntermediateFilesKept_pdfDownloaded() throws IOException {
+    ReportTemplate reportTemplate = ReportTemplateFactory.newReport()
+      .templateFilename("demo.ftlh")
+      .includesBarcode(true)
+      .build();
+    reportService.create(reportTemplate);
+
+    Map<String, Object> matSample = MaterialSampleJsonApiFactory.newMaterialSample();
+    String uuid = ((Map<?, ?>) matSample.get("attributes")).get("uuid").toString();
+
+    ReportRequestDto reportRequestDto = ReportRequestTestFixture.newReportRequest()
+      .reportTemplateUUID(reportTemplate.getUuid())
+      .payload(Map.of("elements", List.of(
+        Map.of("barcode", Map.of("id", uuid, "content", uuid), "data", matSample))))
+      .build();
+    ReportRequestService.ReportGenerationResult result =
+      reportRequestService.generateReport(reportTemplate, reportRequestDto);
+
+    Path reportFolder = dataExportConfig.getGeneratedReportsLabelsPath()
+      .resolve(result.resultIdentifier().toString());
+    try (Stream<Path> files = Files.list(reportFolder)) {
+      Set<String> reportFiles = files.map(p -> p.getFileName().toString())
+        .filter(f -> f.startsWith(DataExportConfig.REPORT_FILENAME))
+        .collect(Collectors.toSet());
+      assertEquals(Set.of(DataExportConfig.PDF_REPORT_FILENAME), reportFiles);
+    }
+    assertTrue(Files.exists(reportFolder.resolve(DataExportConfig.INTERMEDIATE_REPORT_FILENAME + ".html")));
+
+    ResponseEntity<InputStreamResource> response =
+      fileController.downloadFile(result.resultIdentifier(), FileController.DownloadType.LABEL);
+    assertEquals(MediaType.APPLICATION_PDF, response.getHeaders().getContentType());
+  }
+}
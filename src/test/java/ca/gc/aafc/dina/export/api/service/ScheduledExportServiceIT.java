@@ -0,0 +1,81 @@
+package ca.gc.aafc.dina.export.api.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import ca.gc.aafc.dina.export.api.BaseIntegrationTest;
+import ca.gc.aafc.dina.export.api.DinaExportModuleApiLauncher;
+import ca.gc.aafc.dina.export.api.entity.DataExportTemplate;
+import ca.gc.aafc.dina.export.api.testsupport.factories.DataExportTemplateFactory;
+import ca.gc.aafc.dina.testsupport.DatabaseSupportService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
+import javax.inject.Inject;
+
+@SpringBootTest(classes = {BaseIntegrationTest.TestConfig.class, DinaExportModuleApiLauncher.class},
+  properties = {
+    "dina.export.scheduled-exports.timeZone=UTC",
+    "dina.export.scheduled-exports.maxJitter=0s",
+    "dina.export.scheduled-exports.offPeakStart=22:00",
+    "dina.export.scheduled-exports.offPeakEnd=06:00"
+  })
+public class ScheduledExportServiceIT extends BaseIntegrationTest {
+
+  private static final LocalTime START = LocalTime.of(22, 0);
+  private static final LocalTime END = LocalTime.of(6, 0);
+
+  @Inject
+  private ScheduledExportService scheduledExportService;
+
+  @Inject
+  private DatabaseSupportService dbSupportService;
+
+  @Test
+  public void moveToWindow_onTimeOutsideWindow_movedToWindowStart() {
+    ZonedDateTime noon = ZonedDateTime.of(2024, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+    assertEquals(noon.with(START), ScheduledExportService.moveToWindow(noon, START, END));
+
+    ZonedDateTime night = ZonedDateTime.of(2024, 1, 1, 2, 0, 0, 0, ZoneOffset.UTC);
+    assertEquals(night, ScheduledExportService.moveToWindow(night, START, END));
+
+    // window not spanning midnight, after the end of the window
+    ZonedDateTime evening = ZonedDateTime.of(2024, 1, 1, 20, 0, 0, 0, ZoneOffset.UTC);
+    assertEquals(evening.plusDays(1).with(LocalTime.of(1, 0)),
+      ScheduledExportService.moveToWindow(evening, LocalTime.of(1, 0), LocalTime.of(5, 0)));
+  }
+
+  @Test
+  public void computeNextRun_onBusinessHoursSchedule_movedToOffPeak() {
+    ZonedDateTime from = ZonedDateTime.of(2024, 1, 1, 8, 0, 0, 0, ZoneOffset.UTC);
+    // every day at 09:00
+    assertEquals(OffsetDateTime.of(2024, 1, 1, 22, 0, 0, 0, ZoneOffset.UTC),
+      scheduledExportService.computeNextRun("0 0 9 * * *", from));
+  }
+
+  @Test
+  public void claimDue_onDueTemplate_nextRunMoved() {
+    DataExportTemplate template = DataExportTemplateFactory.newDataExportTemplate()
+      .source("dina_material_sample_index")
+      .cronSchedule("0 0 3 * * *")
+      .nextRunOn(OffsetDateTime.now().minusMinutes(5))
+      .build();
+    dbSupportService.runInNewTransaction(em -> em.persist(template));
+
+    List<UUID> claimed = scheduledExportService.claimDue(100);
+    assertTrue(claimed.contains(template.getUuid()));
+
+    DataExportTemplate updated = dbSupportService.findUnique(DataExportTemplate.class, "uuid", template.getUuid());
+    assertTrue(updated.getNextRunOn().isAfter(OffsetDateTime.now()));
+
+    // not due anymore
+    assertTrue(scheduledExportService.claimDue(100).stream().noneMatch(template.getUuid()::equals));
+  }
+}
@@ -0,0 +1,94 @@
+package ca.gc.aafc.dina.export.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import ca.gc.aafc.dina.export.api.config.ScheduledExportConfig;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+public class ScheduledExportServiceTest {
+
+  private static final LocalTime START = LocalTime.of(22, 0);
+  private static final LocalTime END = LocalTime.of(6, 0);
+
+  @Test
+  public void moveToWindow_onWindowBounds_startIncludedEndExcluded() {
+    ZonedDateTime atStart = ZonedDateTime.of(2024, 1, 1, 22, 0, 0, 0, ZoneOffset.UTC);
+    assertEquals(atStart, ScheduledExportService.moveToWindow(atStart, START, END));
+
+    ZonedDateTime atEnd = ZonedDateTime.of(2024, 1, 2, 6, 0, 0, 0, ZoneOffset.UTC);
+    assertEquals(atEnd.with(START), ScheduledExportService.moveToWindow(atEnd, START, END));
+
+    ZonedDateTime beforeStart = atStart.minusSeconds(1);
+    assertEquals(atStart, ScheduledExportService.moveToWindow(beforeStart, START, END));
+
+    // window not spanning midnight
+    ZonedDateTime afterEnd = ZonedDateTime.of(2024, 1, 1, 5, 0, 0, 0, ZoneOffset.UTC);
+    assertEquals(afterEnd.plusDays(1).with(LocalTime.of(1, 0)),
+      ScheduledExportService.moveToWindow(afterEnd, LocalTime.of(1, 0), LocalTime.of(5, 0)));
+  }
+
+  @Test
+  public void maxJitterInWindow_onRunCloseToWindowEnd_jitterLimited() {
+    Duration maxJitter = Duration.ofMinutes(5);
+
+    ZonedDateTime closeToEnd = ZonedDateTime.of(2024, 1, 2, 5, 58, 0, 0, ZoneOffset.UTC);
+    assertEquals(Duration.ofMinutes(2), ScheduledExportService.maxJitterInWindow(closeToEnd, END, maxJitter));
+
+    // before midnight, the end is on the next day
+    ZonedDateTime atStart = ZonedDateTime.of(2024, 1, 1, 22, 0, 0, 0, ZoneOffset.UTC);
+    assertEquals(maxJitter, ScheduledExportService.maxJitterInWindow(atStart, END, maxJitter));
+  }
+
+  @Test
+  public void computeNextRun_onJitterAtWindowEnd_runKeptInWindow() {
+    ScheduledExportService service = newService(Duration.ofMinutes(5), "22:00", "06:00");
+    ZonedDateTime from = ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    OffsetDateTime windowEnd = OffsetDateTime.of(2024, 1, 1, 6, 0, 0, 0, ZoneOffset.UTC);
+
+    // every day at 05:59, 1 minute before the end of the window
+    for (int i = 0; i < 100; i++) {
+      OffsetDateTime next = service.computeNextRun("0 59 5 * * *", from);
+      assertFalse(next.isBefore(windowEnd.minusMinutes(1)));
+      assertTrue(next.isBefore(windowEnd));
+    }
+  }
+
+  @Test
+  public void computeNextRun_onRunMovedToWindow_jitterAdded() {
+    ScheduledExportService service = newService(Duration.ofMinutes(5), "22:00", "06:00");
+    ZonedDateTime from = ZonedDateTime.of(2024, 1, 1, 8, 0, 0, 0, ZoneOffset.UTC);
+    OffsetDateTime windowStart = OffsetDateTime.of(2024, 1, 1, 22, 0, 0, 0, ZoneOffset.UTC);
+
+    for (int i = 0; i < 100; i++) {
+      OffsetDateTime next = service.computeNextRun("0 0 9 * * *", from);
+      assertFalse(next.isBefore(windowStart));
+      assertTrue(next.isBefore(windowStart.plusMinutes(5)));
+    }
+  }
+
+  @Test
+  public void computeNextRun_onNoJitterNoWindow_cronOccurrence() {
+    ScheduledExportService service = newService(Duration.ZERO, null, null);
+    ZonedDateTime from = ZonedDateTime.of(2024, 1, 1, 8, 0, 0, 0, ZoneOffset.UTC);
+    assertEquals(OffsetDateTime.of(2024, 1, 1, 9, 0, 0, 0, ZoneOffset.UTC),
+      service.computeNextRun("0 0 9 * * *", from));
+  }
+
+  private static ScheduledExportService newService(Duration maxJitter, String offPeakStart, String offPeakEnd) {
+    ScheduledExportConfig config = new ScheduledExportConfig();
+    config.setTimeZone("UTC");
+    config.setMaxJitter(maxJitter);
+    config.setOffPeakStart(offPeakStart);
+    config.setOffPeakEnd(offPeakEnd);
+    return new ScheduledExportService(null, config, null);
+  }
+}
@@ -0,0 +1,61 @@
+package ca.gc.aafc.dina.export.api.validation;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+
+import ca.gc.aafc.dina.export.api.BaseIntegrationTest;
+import ca.gc.aafc.dina.export.api.DinaExportModuleApiLauncher;
+import ca.gc.aafc.dina.export.api.entity.DataExport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.UUID;
+import javax.inject.Inject;
+
+@SpringBootTest(
+  properties = {"dina.export.maxEstimatedRows=10", "dina.export.maxEstimatedSize=1KB"},
+  classes = {BaseIntegrationTest.TestConfig.class, DinaExportModuleApiLauncher.class})
+public class DataExportValidatorIT extends BaseIntegrationTest {
+
+  @Inject
+  private DataExportValidator validator;
+
+  @Test
+  public void validate_withinLimits_noErrors() {
+    DataExport dataExport = newDataExport(5L, 512L);
+    Errors errors = new BeanPropertyBindingResult(dataExport, dataExport.getUuid().toString());
+    validator.validate(dataExport, errors);
+    assertFalse(errors.hasErrors());
+  }
+
+  @Test
+  public void validate_unknownEstimate_noErrors() {
+    DataExport dataExport = newDataExport(null, null);
+    Errors errors = new BeanPropertyBindingResult(dataExport, dataExport.getUuid().toString());
+    validator.validate(dataExport, errors);
+    assertFalse(errors.hasErrors());
+  }
+
+  @Test
+  public void validate_overLimits_errors() {
+    DataExport dataExport = newDataExport(11L, 2048L);
+    Errors errors = new BeanPropertyBindingResult(dataExport, dataExport.getUuid().toString());
+    validator.validate(dataExport, errors);
+    assertEquals(2, errors.getErrorCount());
+    assertEquals(DataExportValidator.TOO_MANY_ROWS_KEY, errors.getAllErrors().get(0).getCode());
+    assertEquals(DataExportValidator.TOO_LARGE_KEY, errors.getAllErrors().get(1).getCode());
+  }
+
+  private static DataExport newDataExport(Long estimatedRowCount, Long estimatedSize) {
+    return DataExport.builder()
+      .uuid(UUID.randomUUID())
+      .exportType(DataExport.ExportType.TABULAR_DATA)
+      .status(DataExport.ExportStatus.NEW)
+      .estimatedRowCount(estimatedRowCount)
+      .estimatedSize(estimatedSize)
+      .build();
+  }
+}